@@ -0,0 +1,249 @@
+package appeng.container.implementations;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.mojang.authlib.GameProfile;
+
+import appeng.api.AEApi;
+import appeng.api.implementations.guiobjects.IGuiItemObject;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.ITerminalHost;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IAEStackType;
+import appeng.api.storage.data.IItemList;
+import appeng.core.sync.AppEngPacket;
+import appeng.core.sync.packets.PacketMEInventoryDictionaryUpdate.StackDictionary;
+import appeng.util.item.AEItemStack;
+
+/**
+ * Test for {@link TerminalSyncGroup}, in this package to reach it.
+ */
+public class TerminalSyncGroupTests {
+
+    private IItemList<IAEItemStack> storage = AEApi.instance().storage().createItemList();
+    private final IMEMonitor<?> monitor = (IMEMonitor<?>) Proxy.newProxyInstance(
+            TerminalSyncGroupTests.class.getClassLoader(),
+            new Class<?>[] { IMEMonitor.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getStorageList" -> this.storage;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> method.getReturnType() == boolean.class ? false : null;
+            });
+    private final Map<IAEStackType<?>, IMEMonitor<?>> monitors = new IdentityHashMap<>();
+    private final List<MockTerminal> terminals = new ArrayList<>();
+    private final TerminalSyncGroup group;
+
+    public TerminalSyncGroupTests() {
+        this.monitors.put(ITEM_STACK_TYPE, this.monitor);
+        this.group = TerminalSyncGroup.of(this.monitors);
+    }
+
+    @AfterEach
+    void closeTerminals() {
+        for (final MockTerminal terminal : this.terminals) {
+            this.group.leave(terminal);
+        }
+    }
+
+    private static IAEItemStack stack(final Item item, final int amount) {
+        return AEItemStack.create(new ItemStack(item, amount));
+    }
+
+    private MockTerminal open() {
+        final MockTerminal terminal = new MockTerminal(
+                FakePlayerFactory.get(
+                        MinecraftServer.getServer().worldServerForDimension(0),
+                        new GameProfile(UUID.randomUUID(), "[AE2 Test]")),
+                this.monitor);
+        this.terminals.add(terminal);
+        this.group.sendInventory(terminal, terminal.player);
+        return terminal;
+    }
+
+    private void store(final IAEItemStack stack) {
+        this.storage.add(stack);
+    }
+
+    /**
+     * Removes the stack from the storage without posting the change.
+     */
+    private void drop(final IAEItemStack stack) {
+        this.storage.findPrecise(stack).reset();
+    }
+
+    private void post(final IAEItemStack stack) {
+        this.group.postChange(null, Collections.<IAEStack<?>>singletonList(stack), null);
+    }
+
+    @Test
+    void lateJoinGetsTheInventoryButNoHistory() {
+        store(stack(Items.diamond, 3));
+        store(stack(Items.stick, 5));
+        final MockTerminal first = open();
+        assertEquals(1, first.sent.size());
+        assertEquals(2, group.getDictionary().size());
+
+        store(stack(Items.diamond, 1));
+        post(stack(Items.diamond, 1));
+        group.sendUpdates(first);
+        assertEquals(2, first.sent.size());
+
+        // the inventory of the second terminal claims the apple before its change is encoded
+        store(stack(Items.apple, 7));
+        post(stack(Items.apple, 7));
+        final MockTerminal second = open();
+        assertEquals(1, second.sent.size());
+        assertTrue(group.getDictionary().isKnown(stack(Items.apple, 1)));
+
+        group.sendUpdates(second);
+        assertEquals(2, second.sent.size(), "only the apple change encoded after joining");
+        group.sendUpdates(first);
+        assertEquals(4, first.sent.size(), "the apple definition and its change");
+        group.sendUpdates(first);
+        assertEquals(4, first.sent.size());
+    }
+
+    @Test
+    void postedRemovalsRetireHandles() {
+        store(stack(Items.diamond, 3));
+        store(stack(Items.stick, 5));
+        final MockTerminal terminal = open();
+        final int stickHandle = group.getDictionary().getHandle(stack(Items.stick, 1));
+
+        drop(stack(Items.stick, 1));
+        post(stack(Items.stick, -5));
+        group.sendUpdates(terminal);
+        assertFalse(group.getDictionary().isKnown(stack(Items.stick, 1)));
+        assertEquals(2, terminal.sent.size());
+
+        store(stack(Items.apple, 7));
+        post(stack(Items.apple, 7));
+        group.sendUpdates(terminal);
+        assertEquals(stickHandle, group.getDictionary().getHandle(stack(Items.apple, 1)));
+    }
+
+    @Test
+    void listUpdateRetiresVanishedStacks() {
+        store(stack(Items.diamond, 3));
+        store(stack(Items.stick, 5));
+        store(stack(Items.apple, 7));
+        store(stack(Items.bone, 9));
+        final MockTerminal terminal = open();
+        final StackDictionary dictionary = group.getDictionary();
+
+        drop(stack(Items.stick, 1));
+        group.onListUpdate();
+        assertSame(dictionary, group.getDictionary());
+        assertFalse(dictionary.isKnown(stack(Items.stick, 1)));
+        assertEquals(3, dictionary.size());
+
+        group.sendUpdates(terminal);
+        assertEquals(3, terminal.sent.size(), "the inventory and the retirement");
+    }
+
+    @Test
+    void mostlyNewStorageStartsNewSession() {
+        store(stack(Items.diamond, 3));
+        store(stack(Items.stick, 5));
+        store(stack(Items.apple, 7));
+        final MockTerminal terminal = open();
+        final StackDictionary dictionary = group.getDictionary();
+
+        // like a storage bus switching to another inventory
+        storage = AEApi.instance().storage().createItemList();
+        store(stack(Items.diamond, 3));
+        store(stack(Items.bone, 9));
+        store(stack(Items.paper, 11));
+        group.onListUpdate();
+        assertNotSame(dictionary, group.getDictionary());
+        assertEquals(3, group.getDictionary().size());
+        assertFalse(group.getDictionary().isKnown(stack(Items.stick, 1)));
+        assertTrue(group.getDictionary().isKnown(stack(Items.paper, 1)));
+
+        group.sendUpdates(terminal);
+        assertEquals(2, terminal.sent.size(), "only the inventory of the new session");
+    }
+
+    @Test
+    void joiningRetiresVanishedStacks() {
+        store(stack(Items.diamond, 3));
+        store(stack(Items.stick, 5));
+        store(stack(Items.apple, 7));
+        final MockTerminal first = open();
+
+        drop(stack(Items.apple, 1));
+        open();
+        assertFalse(group.getDictionary().isKnown(stack(Items.apple, 1)));
+        assertEquals(2, group.getDictionary().size());
+
+        group.sendUpdates(first);
+        assertEquals(2, first.sent.size());
+    }
+
+    @Test
+    void lastTerminalLeavingEndsTheGroup() {
+        final MockTerminal first = open();
+        final MockTerminal second = open();
+        group.leave(first);
+        assertTrue(group.isValid(null));
+        assertSame(group, TerminalSyncGroup.of(monitors));
+        group.leave(second);
+        assertFalse(group.isValid(null), "the monitors drop the group");
+    }
+
+    private static final class MockTerminal extends ContainerMEMonitorable {
+
+        private final EntityPlayerMP player;
+        private final List<AppEngPacket> sent = new ArrayList<>();
+
+        private MockTerminal(final EntityPlayerMP player, final IMEMonitor<?> monitor) {
+            super(player.inventory, host(monitor), false);
+            this.player = player;
+            this.crafters.add(player);
+            player.openContainer = this;
+        }
+
+        private static ITerminalHost host(final IMEMonitor<?> monitor) {
+            return (ITerminalHost) Proxy.newProxyInstance(
+                    TerminalSyncGroupTests.class.getClassLoader(),
+                    new Class<?>[] { ITerminalHost.class, IGuiItemObject.class },
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getMEMonitor" -> args[0] == ITEM_STACK_TYPE ? monitor : null;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> method.getReturnType() == boolean.class ? false : null;
+                    });
+        }
+
+        @Override
+        void sendToPlayer(final AppEngPacket packet, final EntityPlayerMP player) {
+            this.sent.add(packet);
+        }
+
+        @Override
+        void sendToPlayers(final AppEngPacket packet) {
+            this.sent.add(packet);
+        }
+    }
+}
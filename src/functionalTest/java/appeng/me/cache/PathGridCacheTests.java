@@ -0,0 +1,287 @@
+package appeng.me.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.util.ForgeDirection;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.GridNotification;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridBlock;
+import appeng.api.networking.IGridConnection;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.events.MENetworkBootingStatusChange;
+import appeng.api.networking.events.MENetworkEventSubscribe;
+import appeng.api.networking.pathing.ControllerState;
+import appeng.api.networking.pathing.IPathingGrid;
+import appeng.api.util.AECableType;
+import appeng.api.util.AEColor;
+import appeng.api.util.DimensionalCoord;
+import appeng.me.Grid;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
+import appeng.tile.networking.TileController;
+
+/**
+ * Checks that the channels assigned by incremental pathing are the ones a full pathing of the grid assigns, in this
+ * package to see the channel power usage.
+ */
+public class PathGridCacheTests {
+
+    private static GridNode node(final IGridHost machine, final GridFlags... flags) {
+        final GridNode node = new GridNode(new Block(machine, flags));
+        node.updateState();
+        return node;
+    }
+
+    private static GridNode controller() {
+        final Controller controller = new Controller();
+        controller.node = node(controller, GridFlags.CANNOT_CARRY, GridFlags.DENSE_CAPACITY);
+        return controller.node;
+    }
+
+    private static GridNode cable(final Machine machine) {
+        return node(machine, GridFlags.PREFERRED);
+    }
+
+    private static GridNode device() {
+        return node(new Machine(), GridFlags.REQUIRE_CHANNEL);
+    }
+
+    private static GridConnection connect(final GridNode a, final GridNode b) throws Exception {
+        return new GridConnection(a, b, null);
+    }
+
+    private static PathGridCache pathing(final GridNode member) {
+        return member.getInternalGrid().getCache(IPathingGrid.class);
+    }
+
+    private static void tick(final GridNode member) {
+        member.getInternalGrid().update();
+    }
+
+    private static Map<Object, Integer> channels(final IGrid grid) {
+        final Map<Object, Integer> channels = new IdentityHashMap<>();
+        for (final IGridNode node : grid.getNodes()) {
+            channels.put(node, ((GridNode) node).usedChannels());
+            for (final IGridConnection connection : node.getConnections()) {
+                channels.put(connection, connection.getUsedChannels());
+            }
+        }
+        return channels;
+    }
+
+    private static void assertMatchesFullPathing(final GridNode member) {
+        final Grid grid = member.getInternalGrid();
+        final PathGridCache pathing = grid.getCache(IPathingGrid.class);
+        final Map<Object, Integer> channels = channels(grid);
+        final double powerUsage = pathing.getChannelPowerUsage();
+
+        pathing.repath();
+        grid.update();
+        assertEquals(channels(grid), channels);
+        assertEquals(pathing.getChannelPowerUsage(), powerUsage);
+    }
+
+    @Test
+    void leavesAndDeadEndsArePathedIncrementally() throws Exception {
+        final Machine probe = new Machine();
+        final GridNode cable = cable(probe);
+        connect(controller(), cable);
+        for (int i = 0; i < 3; i++) {
+            connect(cable, device());
+        }
+        final GridNode branch = cable(new Machine());
+        final GridConnection toBranch = connect(cable, branch);
+        connect(branch, device());
+        connect(branch, device());
+        tick(cable);
+        assertEquals(5, cable.usedChannels());
+        final int boots = probe.boots;
+
+        final GridNode leaf = device();
+        connect(cable, leaf);
+        tick(cable);
+        assertEquals(boots, probe.boots, "no full pathing");
+        assertEquals(1, leaf.usedChannels());
+        assertEquals(6, cable.usedChannels());
+        assertMatchesFullPathing(cable);
+
+        final int bootsBeforeRemoval = probe.boots;
+        leaf.destroy();
+        tick(cable);
+        assertEquals(bootsBeforeRemoval, probe.boots, "no full pathing");
+        assertEquals(5, cable.usedChannels());
+        assertMatchesFullPathing(cable);
+
+        final int bootsBeforeCut = probe.boots;
+        toBranch.destroy();
+        tick(cable);
+        assertEquals(bootsBeforeCut, probe.boots, "no full pathing");
+        assertEquals(3, cable.usedChannels());
+        assertMatchesFullPathing(cable);
+    }
+
+    @Test
+    void channelCapOverflowFallsBackToFullPathing() throws Exception {
+        final GridNode cable = cable(new Machine());
+        connect(controller(), cable);
+        final GridNode first = device();
+        connect(cable, first);
+        for (int i = 1; i < 8; i++) {
+            connect(cable, device());
+        }
+        tick(cable);
+        assertEquals(8, cable.usedChannels());
+
+        final GridNode ninth = device();
+        connect(cable, ninth);
+        tick(cable);
+        assertEquals(8, cable.usedChannels());
+        assertEquals(0, ninth.usedChannels());
+        assertMatchesFullPathing(cable);
+
+        // the freed channel goes to the device that was denied one
+        first.destroy();
+        tick(cable);
+        assertEquals(8, cable.usedChannels());
+        assertEquals(1, ninth.usedChannels());
+        assertMatchesFullPathing(cable);
+    }
+
+    @Test
+    void controllerLossDropsPendingChanges() throws Exception {
+        final GridNode controller = controller();
+        final GridNode cable = cable(new Machine());
+        connect(controller, cable);
+        for (int i = 0; i < 3; i++) {
+            connect(cable, device());
+        }
+        tick(cable);
+
+        // the leaf is pathed incrementally, but the controller goes away before that is finalized
+        final GridNode leaf = device();
+        connect(cable, leaf);
+        controller.destroy();
+        tick(cable);
+        assertEquals(ControllerState.NO_CONTROLLER, pathing(cable).getControllerState());
+        assertEquals(4, leaf.usedChannels(), "ad-hoc networks show the channels of the whole network");
+        assertMatchesFullPathing(cable);
+
+        connect(controller(), cable);
+        tick(cable);
+        assertEquals(ControllerState.CONTROLLER_ONLINE, pathing(cable).getControllerState());
+        assertEquals(1, leaf.usedChannels());
+        assertEquals(4, cable.usedChannels());
+        assertMatchesFullPathing(cable);
+    }
+
+    public static class Machine implements IGridHost {
+
+        private int boots = 0;
+
+        @MENetworkEventSubscribe
+        public void bootingStatusChange(final MENetworkBootingStatusChange event) {
+            if (event.isBooting) {
+                this.boots++;
+            }
+        }
+
+        @Override
+        public IGridNode getGridNode(final ForgeDirection dir) {
+            return null;
+        }
+
+        @Override
+        public AECableType getCableConnectionType(final ForgeDirection dir) {
+            return AECableType.GLASS;
+        }
+
+        @Override
+        public void securityBreak() {}
+    }
+
+    /**
+     * Controller which isn't placed in a world, the grid finds it by its machine.
+     */
+    public static class Controller extends TileController {
+
+        private GridNode node;
+
+        @Override
+        public IGridNode getGridNode(final ForgeDirection dir) {
+            return this.node;
+        }
+    }
+
+    private static final class Block implements IGridBlock {
+
+        private final IGridHost machine;
+        private final EnumSet<GridFlags> flags = EnumSet.noneOf(GridFlags.class);
+
+        private Block(final IGridHost machine, final GridFlags... flags) {
+            this.machine = machine;
+            for (final GridFlags flag : flags) {
+                this.flags.add(flag);
+            }
+        }
+
+        @Override
+        public double getIdlePowerUsage() {
+            return 0;
+        }
+
+        @Override
+        public EnumSet<GridFlags> getFlags() {
+            return this.flags;
+        }
+
+        @Override
+        public boolean isWorldAccessible() {
+            return false;
+        }
+
+        @Override
+        public DimensionalCoord getLocation() {
+            return new DimensionalCoord(0, 0, 0, 256);
+        }
+
+        @Override
+        public AEColor getGridColor() {
+            return AEColor.Transparent;
+        }
+
+        @Override
+        public void onGridNotification(final GridNotification notification) {}
+
+        @Override
+        public void setNetworkStatus(final IGrid grid, final int channelsInUse) {}
+
+        @Override
+        public EnumSet<ForgeDirection> getConnectableSides() {
+            return EnumSet.allOf(ForgeDirection.class);
+        }
+
+        @Override
+        public IGridHost getMachine() {
+            return this.machine;
+        }
+
+        @Override
+        public void gridChanged() {}
+
+        @Override
+        public ItemStack getMachineRepresentation() {
+            return new ItemStack(Items.record_13);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package appeng.me.cluster.implementations;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+
+import net.minecraft.init.Items;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.MinecraftServer;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.AEApi;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.crafting.CraftingItemList;
+import appeng.api.networking.crafting.ICraftingMedium;
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.networking.energy.IEnergyGrid;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+import appeng.api.util.WorldCoord;
+import appeng.crafting.v2.CraftingJobV2;
+import appeng.test.mockme.MockAESystem;
+import appeng.tile.crafting.TileCraftingTile;
+import appeng.util.inv.MEInventoryCrafting;
+
+/**
+ * Test for {@link CraftingCPUCluster}, in this package to assemble a cluster without a multiblock.
+ */
+public class CraftingCPUClusterTests {
+
+    private static final int CRAFTS = 40;
+    private static final int ACCELERATION = 15;
+    private static final int TICKS = 40;
+
+    @Test
+    void batchedPushesMatchSinglePushes() {
+        final RecordingMedium single = new RecordingMedium(1);
+        final RecordingMedium batched = new RecordingMedium(8);
+        final MockAESystem singleSystem = newSystem(single);
+        final MockAESystem batchedSystem = newSystem(batched);
+        final CraftingCPUCluster singleCpu = startJob(singleSystem);
+        final CraftingCPUCluster batchedCpu = startJob(batchedSystem);
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            singleCpu.updateCraftingLogic(singleSystem.grid, POWER, singleSystem.cgCache);
+            batchedCpu.updateCraftingLogic(batchedSystem.grid, POWER, batchedSystem.cgCache);
+
+            final String when = "after tick " + tick;
+            assertSameStacks(single.received, batched.received, "pushed inputs " + when);
+            for (CraftingItemList which : new CraftingItemList[] { CraftingItemList.STORAGE, CraftingItemList.ACTIVE,
+                    CraftingItemList.PENDING }) {
+                assertSameStacks(list(singleCpu, which), list(batchedCpu, which), which + " " + when);
+            }
+        }
+
+        assertTrue(list(batchedCpu, CraftingItemList.PENDING).isEmpty(), "every task was pushed");
+        assertEquals(CRAFTS, list(batchedCpu, CraftingItemList.ACTIVE).getFirstItem().getStackSize());
+        assertEquals(CRAFTS, single.pushes);
+        assertTrue(batched.pushes < single.pushes, "the batching medium got several copies at once");
+    }
+
+    private static MockAESystem newSystem(ICraftingMedium medium) {
+        final MockAESystem aeSystem = new MockAESystem(MinecraftServer.getServer().worldServerForDimension(0));
+        aeSystem.newProcessingPattern().addInput(new ItemStack(Items.iron_ingot))
+                .addInput(new ItemStack(Items.redstone, 2)).addOutput(new ItemStack(Items.gold_ingot))
+                .buildAndAdd(medium);
+        aeSystem.addStoredItem(new ItemStack(Items.iron_ingot, CRAFTS));
+        aeSystem.addStoredItem(new ItemStack(Items.redstone, CRAFTS * 2));
+        return aeSystem;
+    }
+
+    private static CraftingCPUCluster startJob(MockAESystem aeSystem) {
+        final CraftingJobV2 job = aeSystem.makeCraftingJob(new ItemStack(Items.gold_ingot, CRAFTS));
+        while (!job.isDone()) {
+            job.simulateFor(100);
+        }
+        assertFalse(job.isCancelled());
+
+        final WorldCoord origin = new WorldCoord(0, 0, 0);
+        final CraftingCPUCluster cpu = new CraftingCPUCluster(origin, origin);
+        cpu.addTile(new MockCraftingTile(aeSystem.grid, false));
+        cpu.addTile(new MockCraftingTile(aeSystem.grid, true));
+        assertNotNull(cpu.submitJob(aeSystem.grid, job, aeSystem.dummyActionSource, null));
+        return cpu;
+    }
+
+    private static IItemList<IAEStack<?>> list(CraftingCPUCluster cpu, CraftingItemList which) {
+        final IItemList<IAEStack<?>> list = AEApi.instance().storage().createAEStackList();
+        cpu.getModernListOfItem(list, which);
+        return list;
+    }
+
+    private static void assertSameStacks(IItemList<IAEStack<?>> expected, IItemList<IAEStack<?>> actual,
+            String what) {
+        assertEquals(expected.size(), actual.size(), what);
+        for (IAEStack<?> stack : expected) {
+            final IAEStack<?> match = actual.findPrecise(stack);
+            assertNotNull(match, () -> what + ": " + stack);
+            assertEquals(stack.getStackSize(), match.getStackSize(), () -> what + ": " + stack);
+        }
+    }
+
+    private static final IEnergyGrid POWER = (IEnergyGrid) Proxy.newProxyInstance(
+            CraftingCPUClusterTests.class.getClassLoader(),
+            new Class<?>[] { IEnergyGrid.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "extractAEPower" -> args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> method.getReturnType() == boolean.class ? false : null;
+            });
+
+    /**
+     * Accepts every push and records the inputs it got.
+     */
+    private static class RecordingMedium implements ICraftingMedium {
+
+        private final int maxBatchSize;
+        private final IItemList<IAEStack<?>> received = AEApi.instance().storage().createAEStackList();
+        private int pushes = 0;
+
+        private RecordingMedium(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public boolean pushPattern(ICraftingPatternDetails patternDetails, InventoryCrafting table) {
+            return pushPatternBatch(patternDetails, table, 1);
+        }
+
+        @Override
+        public int getMaxBatchSize(ICraftingPatternDetails patternDetails) {
+            return maxBatchSize;
+        }
+
+        @Override
+        public boolean pushPatternBatch(ICraftingPatternDetails patternDetails, InventoryCrafting table, int copies) {
+            assertTrue(copies <= maxBatchSize);
+            for (int x = 0; x < table.getSizeInventory(); x++) {
+                final IAEStack<?> input = ((MEInventoryCrafting) table).getAEStackInSlot(x);
+                if (input != null) {
+                    received.add(input.copy());
+                }
+            }
+            pushes++;
+            return true;
+        }
+
+        @Override
+        public boolean isBusy() {
+            return false;
+        }
+    }
+
+    /**
+     * A crafting storage or accelerator that is always online in the given grid.
+     */
+    private static class MockCraftingTile extends TileCraftingTile {
+
+        private final IGridNode node;
+        private final boolean accelerator;
+
+        private MockCraftingTile(IGrid grid, boolean accelerator) {
+            this.accelerator = accelerator;
+            this.node = (IGridNode) Proxy.newProxyInstance(
+                    CraftingCPUClusterTests.class.getClassLoader(),
+                    new Class<?>[] { IGridNode.class },
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getGrid" -> grid;
+                        case "isActive" -> true;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> method.getReturnType() == boolean.class ? false : null;
+                    });
+        }
+
+        @Override
+        public IGridNode getActionableNode() {
+            return node;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public boolean isAccelerator() {
+            return accelerator;
+        }
+
+        @Override
+        public int acceleratorValue() {
+            return ACCELERATION;
+        }
+
+        @Override
+        public boolean isStorage() {
+            return !accelerator;
+        }
+
+        @Override
+        public long getStorageBytes() {
+            return 1L << 30;
+        }
+    }
+}
@@ -19,6 +19,10 @@ import org.junit.platform.launcher.core.LauncherFactory;
 import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 import org.junit.platform.launcher.listeners.TestExecutionSummary;
 import org.junit.platform.reporting.legacy.xml.LegacyXmlReportGeneratingListener;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.Mod;
@@ -47,6 +51,24 @@ public class AppengTestMod {
         MinecraftServer.getServer().addChatMessage(new ChatComponentText("Running AE2 unit tests..."));
         runTests();
         MinecraftServer.getServer().addChatMessage(new ChatComponentText("Running AE2 unit tests finished"));
+        if (Boolean.getBoolean("ae2.benchmarks")) {
+            runBenchmarks();
+        }
+    }
+
+    /**
+     * Runs the JMH benchmarks that need a loaded mod in this JVM, writing the results next to the test reports.
+     */
+    public void runBenchmarks() {
+        final File resultFile = FileSystems.getDefault().getPath("./jmh-out/crafting.json").toAbsolutePath().toFile();
+        resultFile.getParentFile().mkdirs();
+        try {
+            new Runner(
+                    new OptionsBuilder().include("appeng.benchmark.CraftingCalculationBenchmark").forks(0)
+                            .resultFormat(ResultFormatType.JSON).result(resultFile.getPath()).build()).run();
+        } catch (RunnerException e) {
+            throw new RuntimeException("Running the AE2 benchmarks failed", e);
+        }
     }
 
     public void runTests() {
@@ -66,7 +88,14 @@ public class AppengTestMod {
             }
         }
         final LauncherDiscoveryRequest discovery = LauncherDiscoveryRequestBuilder.request()
-                .selectors(DiscoverySelectors.selectPackage("appeng.test")).build();
+                .selectors(
+                        DiscoverySelectors.selectPackage("appeng.test"),
+                        // tests of package private classes live next to them
+                        DiscoverySelectors.selectClass("appeng.util.item.AEItemDefTableTests"),
+                        DiscoverySelectors.selectClass("appeng.container.implementations.TerminalSyncGroupTests"),
+                        DiscoverySelectors.selectClass("appeng.me.cache.PathGridCacheTests"),
+                        DiscoverySelectors.selectClass("appeng.me.cluster.implementations.CraftingCPUClusterTests"))
+                .build();
         final SummaryGeneratingListener summaryGenerator = new SummaryGeneratingListener();
         final TestExecutionSummary summary;
         try (PrintWriter stderrWriter = new PrintWriter(new CloseShieldOutputStream(System.err), true)) {
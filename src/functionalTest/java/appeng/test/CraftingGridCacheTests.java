@@ -0,0 +1,162 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.networking.events.MENetworkCraftingPatternChange;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.storage.IBaseMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.helpers.PatternHelper;
+import appeng.test.mockme.MockAESystem;
+import appeng.test.mockme.MockCraftingProvider;
+import appeng.test.mockme.MockGridNode;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.AEItemStackType;
+
+/**
+ * Checks that updating the patterns of single providers gives the same result as rebuilding them all.
+ */
+public class CraftingGridCacheTests {
+
+    // processing patterns don't need a world
+    private final MockAESystem aeSystem = new MockAESystem(null);
+
+    private static IAEItemStack stack(ItemStack is) {
+        return AEItemStack.create(is);
+    }
+
+    private PatternHelper pattern(ItemStack input, ItemStack output) {
+        return aeSystem.newProcessingPattern().addInput(input).addOutput(output).build();
+    }
+
+    private boolean isCraftable(ItemStack is) {
+        return aeSystem.cgCache.getCraftingMultiPatterns().containsKey(stack(is));
+    }
+
+    private void patternsChanged(MockCraftingProvider provider, MockGridNode node) {
+        aeSystem.cgCache.updateCPUClusters(new MENetworkCraftingPatternChange(provider, node));
+    }
+
+    @Test
+    void registryFollowsProviderChanges() {
+        final MockCraftingProvider first = new MockCraftingProvider();
+        final MockCraftingProvider second = new MockCraftingProvider();
+        final MockGridNode firstNode = new MockGridNode();
+        final MockGridNode secondNode = new MockGridNode();
+        final PatternHelper sticks = pattern(new ItemStack(Items.diamond), new ItemStack(Items.stick));
+        first.patterns.add(sticks);
+        second.patterns.add(pattern(new ItemStack(Items.gold_ingot), new ItemStack(Items.golden_apple)));
+
+        aeSystem.cgCache.addNode(firstNode, first);
+        aeSystem.cgCache.addNode(secondNode, second);
+        assertTrue(isCraftable(new ItemStack(Items.stick)));
+        assertTrue(isCraftable(new ItemStack(Items.golden_apple)));
+
+        first.patterns.clear();
+        first.patterns.add(pattern(new ItemStack(Items.iron_ingot), new ItemStack(Items.bucket)));
+        patternsChanged(first, firstNode);
+        assertFalse(isCraftable(new ItemStack(Items.stick)));
+        assertTrue(isCraftable(new ItemStack(Items.bucket)));
+        assertTrue(isCraftable(new ItemStack(Items.golden_apple)));
+        assertEquals(1, second.polls, "only the changed provider is polled");
+
+        // the same pattern from another provider keeps its output craftable
+        second.patterns.add(sticks);
+        patternsChanged(second, secondNode);
+        first.patterns.add(sticks);
+        patternsChanged(first, firstNode);
+        first.patterns.remove(sticks);
+        patternsChanged(first, firstNode);
+        assertTrue(isCraftable(new ItemStack(Items.stick)));
+
+        aeSystem.cgCache.removeNode(secondNode, second);
+        assertFalse(isCraftable(new ItemStack(Items.stick)));
+        assertFalse(isCraftable(new ItemStack(Items.golden_apple)));
+        assertTrue(isCraftable(new ItemStack(Items.bucket)));
+    }
+
+    @Test
+    void sharedEmitablesAreCounted() {
+        final MockCraftingProvider first = new MockCraftingProvider();
+        final MockCraftingProvider second = new MockCraftingProvider();
+        final MockGridNode firstNode = new MockGridNode();
+        final MockGridNode secondNode = new MockGridNode();
+        first.emitables.add(stack(new ItemStack(Items.redstone)));
+        second.emitables.add(stack(new ItemStack(Items.redstone)));
+
+        aeSystem.cgCache.addNode(firstNode, first);
+        aeSystem.cgCache.addNode(secondNode, second);
+        assertTrue(aeSystem.cgCache.canEmitFor(stack(new ItemStack(Items.redstone))));
+
+        aeSystem.cgCache.removeNode(firstNode, first);
+        assertTrue(aeSystem.cgCache.canEmitFor(stack(new ItemStack(Items.redstone))));
+
+        second.emitables.clear();
+        patternsChanged(second, secondNode);
+        assertFalse(aeSystem.cgCache.canEmitFor(stack(new ItemStack(Items.redstone))));
+    }
+
+    @Test
+    void onlyChangedCraftablesArePosted() {
+        final List<IAEStack<?>> posted = new ArrayList<>();
+        aeSystem.sgCache.getMEMonitor(AEItemStackType.ITEM_STACK_TYPE)
+                .addListener(new IMEMonitorHandlerReceiver<IAEStack>() {
+
+                    @Override
+                    public boolean isValid(Object verificationToken) {
+                        return true;
+                    }
+
+                    @Override
+                    public void postChange(IBaseMonitor<IAEStack> monitor, Iterable<IAEStack> change,
+                            BaseActionSource actionSource) {
+                        for (IAEStack<?> stack : change) {
+                            posted.add(stack.copy());
+                        }
+                    }
+
+                    @Override
+                    public void onListUpdate() {}
+                }, null);
+
+        final MockCraftingProvider first = new MockCraftingProvider();
+        final MockCraftingProvider second = new MockCraftingProvider();
+        final MockGridNode firstNode = new MockGridNode();
+        final MockGridNode secondNode = new MockGridNode();
+        first.patterns.add(pattern(new ItemStack(Items.diamond), new ItemStack(Items.stick)));
+        second.patterns.add(pattern(new ItemStack(Items.coal), new ItemStack(Items.stick)));
+        second.emitables.add(stack(new ItemStack(Items.redstone)));
+
+        aeSystem.cgCache.addNode(firstNode, first);
+        assertEquals(1, posted.size());
+        assertTrue(posted.get(0).isSameType(stack(new ItemStack(Items.stick))));
+        assertTrue(posted.get(0).isCraftable());
+        posted.clear();
+
+        // sticks were craftable already, only the new emitable is posted
+        aeSystem.cgCache.addNode(secondNode, second);
+        assertEquals(1, posted.size());
+        assertTrue(posted.get(0).isSameType(stack(new ItemStack(Items.redstone))));
+        assertTrue(posted.get(0).isCraftable());
+        posted.clear();
+
+        aeSystem.cgCache.removeNode(firstNode, first);
+        assertTrue(posted.isEmpty());
+
+        second.patterns.clear();
+        patternsChanged(second, secondNode);
+        assertEquals(1, posted.size());
+        assertTrue(posted.get(0).isSameType(stack(new ItemStack(Items.stick))));
+        assertFalse(posted.get(0).isCraftable());
+    }
+}
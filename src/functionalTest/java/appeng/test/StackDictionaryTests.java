@@ -0,0 +1,85 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.core.sync.packets.PacketMEInventoryDictionaryUpdate;
+import appeng.core.sync.packets.PacketMEInventoryDictionaryUpdate.StackDictionary;
+import appeng.util.item.AEItemStack;
+
+public class StackDictionaryTests {
+
+    private final StackDictionary dictionary = new StackDictionary();
+    private final IAEItemStack diamond = AEItemStack.create(new ItemStack(Items.diamond, 3));
+    private final IAEItemStack stick = AEItemStack.create(new ItemStack(Items.stick, 5));
+    private final IAEItemStack apple = AEItemStack.create(new ItemStack(Items.apple, 7));
+
+    private PacketMEInventoryDictionaryUpdate packet() throws IOException {
+        return new PacketMEInventoryDictionaryUpdate(this.dictionary);
+    }
+
+    @Test
+    void retiredHandlesAreReused() throws IOException {
+        final PacketMEInventoryDictionaryUpdate piu = packet();
+        piu.appendItem(diamond);
+        piu.appendItem(stick);
+        final int stickHandle = dictionary.getHandle(stick);
+        assertNotEquals(-1, stickHandle);
+        assertNotEquals(dictionary.getHandle(diamond), stickHandle);
+
+        // amounts don't matter for the identity of a stack
+        assertTrue(piu.appendRetirement(stick.copy().reset()));
+        assertFalse(dictionary.isKnown(stick));
+        assertFalse(piu.appendRetirement(stick), "a stack without handle isn't retired twice");
+        assertEquals(1, dictionary.size());
+
+        packet().appendItem(apple);
+        assertEquals(stickHandle, dictionary.getHandle(apple));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void knownStacksKeepTheirHandle() throws IOException {
+        packet().appendItem(diamond);
+        final int handle = dictionary.getHandle(diamond);
+
+        final PacketMEInventoryDictionaryUpdate piu = packet();
+        piu.appendItem(diamond.copy().setStackSize(64));
+        piu.appendDefinition(diamond);
+        assertEquals(handle, dictionary.getHandle(diamond));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void sweepFindsUnmarkedStacks() throws IOException {
+        final PacketMEInventoryDictionaryUpdate piu = packet();
+        piu.appendItem(diamond);
+        piu.appendItem(stick);
+        piu.appendItem(apple);
+
+        dictionary.startSweep();
+        dictionary.mark(diamond);
+        dictionary.mark(apple.copy().setStackSize(1));
+        dictionary.mark(AEItemStack.create(new ItemStack(Items.bone)));
+        assertEquals(1, dictionary.getUnmarked().size());
+        assertTrue(dictionary.getUnmarked().get(0).isSameType(stick));
+
+        // the handle of a retired stack is unmarked again for its next owner
+        piu.appendRetirement(stick);
+        piu.appendItem(AEItemStack.create(new ItemStack(Items.bone)));
+        dictionary.startSweep();
+        dictionary.mark(diamond);
+        dictionary.mark(apple);
+        assertEquals(1, dictionary.getUnmarked().size());
+        dictionary.mark(AEItemStack.create(new ItemStack(Items.bone)));
+        assertEquals(Collections.emptyList(), dictionary.getUnmarked());
+    }
+}
@@ -0,0 +1,68 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+
+import org.junit.jupiter.api.Test;
+
+import com.mojang.authlib.GameProfile;
+
+import appeng.container.UpdateHistory;
+import appeng.test.mockme.MockContainer;
+
+public class UpdateHistoryTests {
+
+    private final UpdateHistory<MockContainer, String> history = new UpdateHistory<>();
+
+    private static MockContainer openContainer() {
+        return new MockContainer(
+                FakePlayerFactory.get(
+                        MinecraftServer.getServer().worldServerForDimension(0),
+                        new GameProfile(UUID.randomUUID(), "[AE2 Test]")));
+    }
+
+    @Test
+    void lateJoinersOnlyGetLaterPackets() {
+        final MockContainer first = openContainer();
+        final MockContainer second = openContainer();
+        history.join(first);
+        history.publish("a");
+        history.join(second);
+        history.publish("b");
+
+        assertEquals(Arrays.asList("a", "b"), history.poll(first));
+        assertEquals(Collections.singletonList("b"), history.poll(second));
+        assertTrue(history.poll(first).isEmpty());
+
+        // joining again skips what the container didn't send yet
+        history.publish("c");
+        history.join(first);
+        history.publish("d");
+        assertEquals(Collections.singletonList("d"), history.poll(first));
+        assertEquals(Arrays.asList("c", "d"), history.poll(second));
+    }
+
+    @Test
+    void closedContainersAreDropped() {
+        final MockContainer first = openContainer();
+        final MockContainer second = openContainer();
+        history.join(first);
+        history.join(second);
+        history.publish("a");
+
+        second.close();
+        assertEquals(Collections.singletonList("a"), history.poll(first));
+        assertFalse(history.contains(second));
+        assertTrue(history.poll(second).isEmpty());
+        assertEquals(1, history.size());
+
+        assertFalse(history.leave(first));
+        assertTrue(history.isEmpty());
+    }
+}
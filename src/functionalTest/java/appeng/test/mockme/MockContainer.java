@@ -0,0 +1,25 @@
+package appeng.test.mockme;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+
+import appeng.api.implementations.guiobjects.IGuiItemObject;
+import appeng.container.AEBaseContainer;
+
+/**
+ * Container without slots, a player has it open until {@link #close} is called.
+ */
+public class MockContainer extends AEBaseContainer {
+
+    private final EntityPlayerMP player;
+
+    public MockContainer(EntityPlayerMP player) {
+        super(player.inventory, (IGuiItemObject) () -> null);
+        this.player = player;
+        this.crafters.add(player);
+        player.openContainer = this;
+    }
+
+    public void close() {
+        this.player.openContainer = this.player.inventoryContainer;
+    }
+}
@@ -0,0 +1,89 @@
+package appeng.util.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AEItemDefTable}, in this package to see the definitions of the stacks.
+ */
+public class AEItemDefTableTests {
+
+    private static final int THREADS = 8;
+
+    private static AEItemDef definitionOf(final ItemStack is) {
+        return AEItemStack.create(is).getDefinition();
+    }
+
+    private static ItemStack withTag(final ItemStack is, final String key, final String value) {
+        final NBTTagCompound tag = new NBTTagCompound();
+        tag.setString(key, value);
+        is.setTagCompound(tag);
+        return is;
+    }
+
+    @Test
+    void equalDefinitionsAreInterned() {
+        assertSame(definitionOf(new ItemStack(Items.diamond, 3)), definitionOf(new ItemStack(Items.diamond, 64)));
+        assertSame(definitionOf(new ItemStack(Blocks.wool, 1, 5)), definitionOf(new ItemStack(Blocks.wool, 2, 5)));
+        assertSame(
+                definitionOf(withTag(new ItemStack(Items.stick), "name", "same")),
+                definitionOf(withTag(new ItemStack(Items.stick), "name", "same")));
+    }
+
+    @Test
+    void variantsStayDistinct() {
+        assertNotSame(definitionOf(new ItemStack(Items.diamond)), definitionOf(new ItemStack(Items.emerald)));
+        assertNotSame(definitionOf(new ItemStack(Blocks.wool, 1, 1)), definitionOf(new ItemStack(Blocks.wool, 1, 2)));
+
+        final AEItemDef plain = definitionOf(new ItemStack(Items.stick));
+        final AEItemDef first = definitionOf(withTag(new ItemStack(Items.stick), "name", "first"));
+        final AEItemDef second = definitionOf(withTag(new ItemStack(Items.stick), "name", "second"));
+        assertNotSame(plain, first);
+        assertNotSame(first, second);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void concurrentInterningYieldsOneInstance() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 50; round++) {
+                // a kind no test converted before, so every thread races to add it
+                final ItemStack kind = withTag(new ItemStack(Items.paper), "id", UUID.randomUUID().toString());
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<AEItemDef>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    final ItemStack copy = kind.copy();
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return definitionOf(copy);
+                    }));
+                }
+                start.countDown();
+
+                final AEItemDef canonical = results.get(0).get(10, TimeUnit.SECONDS);
+                for (Future<AEItemDef> result : results) {
+                    assertSame(canonical, result.get(10, TimeUnit.SECONDS));
+                }
+                assertSame(canonical, definitionOf(kind.copy()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package appeng.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.util.item.AEItemStack;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AEItemStackBenchmark {
+
+    private static final int TYPES = 1024;
+
+    private IAEItemStack[] stacks;
+    private IAEItemStack[] copies;
+    private ItemStack[] itemStacks;
+
+    @Setup
+    public void setup() {
+        this.stacks = BenchmarkFixtures.syntheticStacks(TYPES, 1);
+        this.copies = new IAEItemStack[TYPES];
+        this.itemStacks = new ItemStack[TYPES];
+        for (int i = 0; i < TYPES; i++) {
+            this.copies[i] = this.stacks[i].copy();
+            this.itemStacks[i] = this.stacks[i].getItemStack();
+        }
+    }
+
+    @Benchmark
+    public void hashCodes(final Blackhole bh) {
+        for (final IAEItemStack stack : this.stacks) {
+            bh.consume(stack.hashCode());
+        }
+    }
+
+    @Benchmark
+    public void equalCopies(final Blackhole bh) {
+        for (int i = 0; i < TYPES; i++) {
+            bh.consume(this.stacks[i].equals(this.copies[i]));
+        }
+    }
+
+    @Benchmark
+    public void equalNeighbours(final Blackhole bh) {
+        for (int i = 1; i < TYPES; i++) {
+            bh.consume(this.stacks[i].equals(this.stacks[i - 1]));
+        }
+    }
+
+    @Benchmark
+    public void createFromItemStack(final Blackhole bh) {
+        for (final ItemStack is : this.itemStacks) {
+            bh.consume(AEItemStack.create(is));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package appeng.benchmark;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.IMEInventory;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.StorageChannel;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.me.storage.MEInventoryHandler;
+import appeng.me.storage.NetworkInventoryHandler;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+import appeng.util.prioitylist.PrecisePriorityList;
+
+/**
+ * Headless fixtures shared by the benchmarks. Only the vanilla registries are bootstrapped, so anything depending on a
+ * loaded mod environment (grid caches, AEApi) can't be used from here.
+ */
+public final class BenchmarkFixtures {
+
+    public static final BaseActionSource SOURCE = new BaseActionSource();
+
+    private static boolean bootstrapped = false;
+
+    private BenchmarkFixtures() {}
+
+    public static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            Bootstrap.func_151354_b();
+            bootstrapped = true;
+        }
+    }
+
+    /**
+     * @return {@code types} distinct item stacks, a third of them carrying NBT to exercise NBT hashing and equality
+     */
+    public static IAEItemStack[] syntheticStacks(final int types, final long stackSize) {
+        bootstrap();
+
+        final IAEItemStack[] stacks = new IAEItemStack[types];
+        for (int i = 0; i < types; i++) {
+            final ItemStack is;
+            if (i % 3 == 0) {
+                is = new ItemStack(Items.paper, 1, 0);
+                final NBTTagCompound tag = new NBTTagCompound();
+                tag.setInteger("benchmark", i);
+                tag.setString("name", "Synthetic " + i);
+                is.setTagCompound(tag);
+            } else {
+                is = new ItemStack(Items.dye, 1, i);
+            }
+            stacks[i] = AEItemStack.create(is).setStackSize(stackSize);
+        }
+        return stacks;
+    }
+
+    /**
+     * Builds a network inventory of {@code cells} in-memory cells, with every item type stored in exactly one cell.
+     *
+     * @param partitioned whether each cell is partitioned to the item types it stores
+     */
+    public static NetworkInventoryHandler<IAEItemStack> syntheticNetwork(final int cells, final IAEItemStack[] types,
+            final boolean partitioned) {
+        final NetworkInventoryHandler<IAEItemStack> network = new NetworkInventoryHandler<>(ITEM_STACK_TYPE, null);
+
+        for (int c = 0; c < cells; c++) {
+            final MemoryCell cell = new MemoryCell();
+            final ItemList partition = new ItemList();
+            for (int i = c; i < types.length; i += cells) {
+                cell.injectItems(types[i], Actionable.MODULATE, SOURCE);
+                partition.add(types[i]);
+            }
+
+            final MEInventoryHandler<IAEItemStack> handler = new MEInventoryHandler<>(cell, ITEM_STACK_TYPE);
+            if (partitioned) {
+                handler.setPartitionList(new PrecisePriorityList<>(partition));
+            }
+            network.addNewStorage(handler);
+        }
+
+        return network;
+    }
+
+    /**
+     * Wraps a network inventory the way a storage bus on an interface of a subnetwork exposes it.
+     */
+    public static IMEInventoryHandler<IAEItemStack> subnetworkBus(final NetworkInventoryHandler<IAEItemStack> subnet) {
+        return new MEInventoryHandler<>(subnet, ITEM_STACK_TYPE);
+    }
+
+    /**
+     * Unbounded cell keeping its contents in an {@link ItemList}.
+     */
+    public static final class MemoryCell implements IMEInventory<IAEItemStack> {
+
+        private final ItemList contents = new ItemList();
+
+        @Override
+        public IAEItemStack injectItems(final IAEItemStack input, final Actionable type, final BaseActionSource src) {
+            if (type == Actionable.MODULATE) {
+                this.contents.add(input);
+            }
+            return null;
+        }
+
+        @Override
+        public IAEItemStack extractItems(final IAEItemStack request, final Actionable mode,
+                final BaseActionSource src) {
+            final IAEItemStack stored = this.contents.findPrecise(request);
+            if (stored == null || stored.getStackSize() <= 0) {
+                return null;
+            }
+
+            final IAEItemStack extracted = request.copy();
+            extracted.setStackSize(Math.min(stored.getStackSize(), request.getStackSize()));
+            if (mode == Actionable.MODULATE) {
+                stored.decStackSize(extracted.getStackSize());
+            }
+            return extracted;
+        }
+
+        @Override
+        public IItemList<IAEItemStack> getAvailableItems(final IItemList<IAEItemStack> out, final int iteration) {
+            for (final IAEItemStack stack : this.contents) {
+                out.add(stack);
+            }
+            return out;
+        }
+
+        @Override
+        public StorageChannel getChannel() {
+            return StorageChannel.ITEMS;
+        }
+    }
+}
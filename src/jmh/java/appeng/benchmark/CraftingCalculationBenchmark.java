@@ -0,0 +1,89 @@
+package appeng.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.crafting.v2.CraftingJobV2;
+import appeng.test.mockme.MockAESystem;
+
+/**
+ * Crafting calculations on synthetic layered pattern graphs. {@link CraftingJobV2} needs the grid caches and AEApi of
+ * a loaded mod, so unlike the other benchmarks this one is excluded from {@code gradlew jmh} and runs in-process inside
+ * the functional test server when it is started with {@code -Dae2.benchmarks=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(0)
+public class CraftingCalculationBenchmark {
+
+    /**
+     * Layers, width and requested amount of the pattern graph.
+     */
+    @Param({ "4:4:1000", "8:16:1000", "16:32:1000000" })
+    public String graph;
+
+    private MockAESystem aeSystem;
+    private ItemStack request;
+
+    private static ItemStack syntheticItem(final int layer, final int index, final int size) {
+        final ItemStack stack = new ItemStack(Items.paper, size);
+        final NBTTagCompound tag = new NBTTagCompound();
+        tag.setInteger("layer", layer);
+        tag.setInteger("index", index);
+        stack.setTagCompound(tag);
+        return stack;
+    }
+
+    /**
+     * Builds a layered pattern graph where every item of a layer is crafted from two items of the layer below, and
+     * the bottom layer is stored in the network.
+     */
+    @Setup
+    public void setup() {
+        final String[] params = this.graph.split(":");
+        final int layers = Integer.parseInt(params[0]);
+        final int width = Integer.parseInt(params[1]);
+        final int amount = Integer.parseInt(params[2]);
+
+        this.aeSystem = new MockAESystem(MinecraftServer.getServer().worldServerForDimension(0));
+        for (int layer = 0; layer < layers; layer++) {
+            for (int i = 0; i < width; i++) {
+                this.aeSystem.newProcessingPattern().addInput(syntheticItem(layer + 1, i, 1))
+                        .addInput(syntheticItem(layer + 1, (i + 1) % width, 1)).addOutput(syntheticItem(layer, i, 1))
+                        .buildAndAdd();
+            }
+        }
+        for (int i = 0; i < width; i++) {
+            this.aeSystem.addStoredItem(syntheticItem(layers, i, Integer.MAX_VALUE));
+        }
+        this.request = syntheticItem(0, 0, amount);
+    }
+
+    @Benchmark
+    public CraftingJobV2 calculate() {
+        final CraftingJobV2 job = this.aeSystem.makeCraftingJob(this.request.copy());
+        while (!job.isDone()) {
+            job.simulateFor(1000);
+        }
+        return job;
+    }
+}
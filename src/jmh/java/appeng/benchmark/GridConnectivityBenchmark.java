@@ -0,0 +1,186 @@
+package appeng.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.me.GridConnectivity;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+/**
+ * Breaks a random cable of a synthetic grid and puts it back, comparing the split check of {@link GridConnectivity}
+ * with a traversal of the grid from one side of the cable until the other side is found. Grid nodes need a loaded mod
+ * environment, so the grid is made of plain nodes and connections.
+ * <ul>
+ * <li>tree: every cable is a bridge, breaking one always splits the grid.</li>
+ * <li>lattice: a square lattice of cables, breaking one never splits the grid.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridConnectivityBenchmark {
+
+    @Param({ "1000", "20000" })
+    public int nodes;
+
+    @Param({ "tree", "lattice" })
+    public String topology;
+
+    private static final GridConnectivity.Graph<Node, Edge> GRAPH = new GridConnectivity.Graph<>() {
+
+        @Override
+        public Iterable<Edge> getEdges(final Node node) {
+            return node.edges;
+        }
+
+        @Override
+        public Node getOtherSide(final Edge edge, final Node node) {
+            return edge.a == node ? edge.b : edge.a;
+        }
+
+        @Override
+        public boolean isTreeEdge(final Edge edge) {
+            return edge.tree;
+        }
+
+        @Override
+        public void setTreeEdge(final Edge edge, final boolean treeEdge) {
+            edge.tree = treeEdge;
+        }
+    };
+
+    private final Random random = new Random(42);
+    private final List<Edge> edges = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        final Node[] grid = new Node[this.nodes];
+        for (int i = 0; i < this.nodes; i++) {
+            grid[i] = new Node();
+        }
+
+        if ("tree".equals(this.topology)) {
+            for (int i = 1; i < this.nodes; i++) {
+                this.connect(grid[this.random.nextInt(i)], grid[i]);
+            }
+        } else {
+            final int width = (int) Math.ceil(Math.sqrt(this.nodes));
+            for (int i = 0; i < this.nodes; i++) {
+                if (i % width > 0) {
+                    this.connect(grid[i - 1], grid[i]);
+                }
+                if (i >= width) {
+                    this.connect(grid[i - width], grid[i]);
+                }
+            }
+        }
+
+        // the connections which first reached a node form the spanning tree, as if the grid was built outwards
+        final Set<Node> visited = new ReferenceOpenHashSet<>();
+        final ArrayDeque<Node> open = new ArrayDeque<>();
+        visited.add(grid[0]);
+        open.add(grid[0]);
+        while (!open.isEmpty()) {
+            final Node node = open.poll();
+            for (final Edge edge : node.edges) {
+                final Node next = GRAPH.getOtherSide(edge, node);
+                if (visited.add(next)) {
+                    edge.tree = true;
+                    open.add(next);
+                }
+            }
+        }
+    }
+
+    private void connect(final Node a, final Node b) {
+        final Edge edge = new Edge(a, b);
+        a.edges.add(edge);
+        b.edges.add(edge);
+        this.edges.add(edge);
+    }
+
+    private Edge breakRandomEdge() {
+        final Edge edge = this.edges.get(this.random.nextInt(this.edges.size()));
+        edge.a.edges.remove(edge);
+        edge.b.edges.remove(edge);
+        return edge;
+    }
+
+    private static void rebuild(final Edge edge, final boolean split) {
+        edge.tree = split;
+        edge.a.edges.add(edge);
+        edge.b.edges.add(edge);
+    }
+
+    @Benchmark
+    public boolean breakAndRebuild() {
+        final Edge edge = this.breakRandomEdge();
+        final boolean split = edge.tree && GridConnectivity.findSplit(GRAPH, edge.a, edge.b) != null;
+        rebuild(edge, split);
+        return split;
+    }
+
+    @Benchmark
+    public boolean breakAndRebuildFullTraversal() {
+        final Edge edge = this.breakRandomEdge();
+        final boolean wasTree = edge.tree;
+
+        final Set<Node> visited = new ReferenceOpenHashSet<>();
+        final ArrayDeque<Node> open = new ArrayDeque<>();
+        visited.add(edge.a);
+        open.add(edge.a);
+        boolean split = true;
+        while (split && !open.isEmpty()) {
+            final Node node = open.poll();
+            for (final Edge e : node.edges) {
+                final Node next = GRAPH.getOtherSide(e, node);
+                if (next == edge.b) {
+                    split = false;
+                    break;
+                }
+                if (visited.add(next)) {
+                    open.add(next);
+                }
+            }
+        }
+
+        rebuild(edge, wasTree);
+        return split;
+    }
+
+    private static final class Node {
+
+        private final List<Edge> edges = new ArrayList<>(4);
+    }
+
+    private static final class Edge {
+
+        private final Node a;
+        private final Node b;
+        private boolean tree;
+
+        private Edge(final Node a, final Node b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package appeng.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.util.item.ItemList;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemListBenchmark {
+
+    @Param({ "1000", "60000" })
+    public int types;
+
+    private IAEItemStack[] stacks;
+    private ItemList filled;
+
+    @Setup
+    public void setup() {
+        this.stacks = BenchmarkFixtures.syntheticStacks(this.types, 64);
+        this.filled = new ItemList();
+        for (final IAEItemStack stack : this.stacks) {
+            this.filled.add(stack);
+        }
+    }
+
+    @Benchmark
+    public ItemList addAll() {
+        final ItemList list = new ItemList();
+        for (final IAEItemStack stack : this.stacks) {
+            list.add(stack);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void findPrecise(final Blackhole bh) {
+        for (final IAEItemStack stack : this.stacks) {
+            bh.consume(this.filled.findPrecise(stack));
+        }
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole bh) {
+        for (final IAEItemStack stack : this.filled) {
+            bh.consume(stack);
+        }
+    }
+
+    @Benchmark
+    public void findFuzzy(final Blackhole bh) {
+        for (int i = 0; i < this.stacks.length; i += 100) {
+            bh.consume(this.filled.findFuzzy(this.stacks[i], FuzzyMode.IGNORE_ALL));
+        }
+    }
+}
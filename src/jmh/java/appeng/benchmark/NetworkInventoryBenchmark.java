@@ -0,0 +1,87 @@
+package appeng.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import appeng.api.config.Actionable;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.storage.NetworkInventoryHandler;
+
+/**
+ * Injection and extraction through {@link NetworkInventoryHandler} on synthetic networks, including networks reaching
+ * into nested subnetworks through storage buses on interfaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkInventoryBenchmark {
+
+    @Param({ "16", "400" })
+    public int cells;
+
+    @Param({ "false", "true" })
+    public boolean partitioned;
+
+    @Param({ "0", "3" })
+    public int subnetDepth;
+
+    private static final int TYPES = 4000;
+
+    private IAEItemStack[] stacks;
+    private NetworkInventoryHandler<IAEItemStack> network;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        this.stacks = BenchmarkFixtures.syntheticStacks(TYPES, 1);
+
+        // the innermost network stores the items, every outer network only reaches it through a storage bus
+        NetworkInventoryHandler<IAEItemStack> inner = BenchmarkFixtures
+                .syntheticNetwork(this.cells, this.stacks, this.partitioned);
+        for (int depth = 0; depth < this.subnetDepth; depth++) {
+            final NetworkInventoryHandler<IAEItemStack> outer = BenchmarkFixtures
+                    .syntheticNetwork(0, this.stacks, false);
+            outer.addNewStorage(BenchmarkFixtures.subnetworkBus(inner));
+            // storage bus pointing back at the outer network, which the recursion guard has to stop
+            inner.addNewStorage(BenchmarkFixtures.subnetworkBus(outer));
+            inner = outer;
+        }
+        this.network = inner;
+    }
+
+    private IAEItemStack nextStack() {
+        final IAEItemStack stack = this.stacks[this.next];
+        this.next = (this.next + 1) % TYPES;
+        return stack;
+    }
+
+    @Benchmark
+    public IAEItemStack injectModulate() {
+        return this.network.injectItems(this.nextStack(), Actionable.MODULATE, BenchmarkFixtures.SOURCE);
+    }
+
+    @Benchmark
+    public IAEItemStack injectSimulate() {
+        return this.network.injectItems(this.nextStack(), Actionable.SIMULATE, BenchmarkFixtures.SOURCE);
+    }
+
+    @Benchmark
+    public void extractSimulate(final Blackhole bh) {
+        bh.consume(this.network.extractItems(this.nextStack(), Actionable.SIMULATE, BenchmarkFixtures.SOURCE));
+    }
+}
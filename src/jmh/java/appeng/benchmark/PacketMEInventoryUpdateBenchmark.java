@@ -0,0 +1,118 @@
+package appeng.benchmark;
+
+import static appeng.util.Platform.writeStackByte;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.core.sync.packets.PacketMEInventoryUpdate;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Encoding a full terminal inventory into {@link PacketMEInventoryUpdate}, as done when a player opens a terminal,
+ * compared against the previous encoder which flushed and allocated per stack and compressed byte by byte. The
+ * compressed sizes of both are printed when the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacketMEInventoryUpdateBenchmark {
+
+    private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 16 * 1024 * 1024;
+    private static final int OPERATION_BYTE_LIMIT = 2 * 1024;
+
+    @Param({ "1000", "50000" })
+    public int types;
+
+    private IAEItemStack[] stacks;
+    private int encodedBytes;
+    private int legacyEncodedBytes;
+
+    @Setup
+    public void setup() {
+        this.stacks = BenchmarkFixtures.syntheticStacks(this.types, 1234);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportSizes() {
+        System.out.printf(
+                "%n%d types: %d bytes compressed, %d bytes with the legacy encoder%n",
+                this.types,
+                this.encodedBytes,
+                this.legacyEncodedBytes);
+    }
+
+    /**
+     * @return the compressed size of the inventory
+     */
+    @Benchmark
+    public int encode() throws IOException {
+        PacketMEInventoryUpdate packet = new PacketMEInventoryUpdate();
+        int bytes = 0;
+        for (final IAEItemStack stack : this.stacks) {
+            try {
+                packet.appendItem(stack);
+            } catch (final BufferOverflowException e) {
+                packet.finish();
+                bytes += packet.getLength();
+                packet = new PacketMEInventoryUpdate();
+                packet.appendItem(stack);
+            }
+        }
+        packet.finish();
+        return this.encodedBytes = bytes + packet.getLength();
+    }
+
+    /**
+     * @return the compressed size of the inventory
+     */
+    @Benchmark
+    public int encodeLegacy() throws IOException {
+        final ByteBuf data = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+        final GZIPOutputStream compressFrame = new GZIPOutputStream(new OutputStream() {
+
+            @Override
+            public void write(final int value) {
+                data.writeByte(value);
+            }
+        });
+
+        int writtenBytes = 0;
+        for (final IAEItemStack stack : this.stacks) {
+            final ByteBuf tmp = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+            writeStackByte(stack, tmp);
+
+            compressFrame.flush();
+            if (writtenBytes + tmp.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
+                // 50k synthetic stacks stay well below the limit
+                throw new BufferOverflowException();
+            }
+            writtenBytes += tmp.readableBytes();
+            compressFrame.write(tmp.array(), 0, tmp.readableBytes());
+        }
+        compressFrame.close();
+        return this.legacyEncodedBytes = data.readableBytes();
+    }
+}
@@ -33,6 +33,30 @@ public interface ICraftingMedium {
      */
     boolean pushPattern(ICraftingPatternDetails patternDetails, InventoryCrafting table);
 
+    /**
+     * Mediums able to process several copies of a processing pattern at once can accept them in a single
+     * {@link #pushPatternBatch}, instead of one {@link #pushPattern} per copy. Never asked for crafting table patterns.
+     *
+     * @param patternDetails details
+     * @return how many copies of the pattern the medium would accept in one push right now, 1 if it can't take batches
+     */
+    default int getMaxBatchSize(ICraftingPatternDetails patternDetails) {
+        return 1;
+    }
+
+    /**
+     * instruct a medium to process several copies of a pattern at once, same as that many calls to
+     * {@link #pushPattern}.
+     *
+     * @param patternDetails details
+     * @param table          inputs of all copies, every slot holds copies times the amount of the pattern
+     * @param copies         number of copies, at most {@link #getMaxBatchSize}
+     * @return if the whole batch was successfully pushed, nothing may have been pushed otherwise.
+     */
+    default boolean pushPatternBatch(ICraftingPatternDetails patternDetails, InventoryCrafting table, int copies) {
+        return copies == 1 && this.pushPattern(patternDetails, table);
+    }
+
     /**
      * @return if this is false, the crafting engine will refuse to send new jobs to this medium.
      */
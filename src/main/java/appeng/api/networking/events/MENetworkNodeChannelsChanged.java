@@ -0,0 +1,32 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2013 AlgorithmX2 Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions: The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE
+ * AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package appeng.api.networking.events;
+
+import java.util.Collection;
+
+import appeng.api.networking.IGridNode;
+
+/**
+ * Posted to the grid once after a path update changed the number of channels the included nodes use.
+ * <p>
+ * Unlike {@link MENetworkChannelsChanged}, which only goes to the host of each node, it reaches the grid caches.
+ */
+public class MENetworkNodeChannelsChanged extends MENetworkEvent {
+
+    public final Collection<IGridNode> nodes;
+
+    public MENetworkNodeChannelsChanged(final Collection<IGridNode> n) {
+        this.nodes = n;
+    }
+}
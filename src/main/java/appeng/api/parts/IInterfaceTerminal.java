@@ -5,7 +5,13 @@ import appeng.core.localization.GuiText;
 
 public interface IInterfaceTerminal extends IActionHost {
 
-    boolean needsUpdate();
+    /**
+     * @deprecated the terminal follows the changes of its grid, this is no longer checked
+     */
+    @Deprecated
+    default boolean needsUpdate() {
+        return false;
+    }
 
     default GuiText getName() {
         return GuiText.InterfaceTerminal;
@@ -456,8 +456,6 @@ public class GuiInterfaceTerminal extends AEBaseGui
     private void drawViewport(int relMouseX, int relMouseY) {
         /* Viewport Magic */
         final int scroll = this.getScrollBar().getCurrentScroll();
-        int viewY = -scroll; // current y in viewport coordinates
-        int entryIdx = 0;
         List<InterfaceSection> visibleSections = this.masterList.getVisibleSections();
 
         final float guiScaleX = (float) mc.displayWidth / width;
@@ -469,25 +467,18 @@ public class GuiInterfaceTerminal extends AEBaseGui
                 (int) (this.viewHeight * guiScaleY));
         GL11.glEnable(GL11.GL_SCISSOR_TEST);
 
+        /* Entries drawn last frame may be out of view by now */
+        this.masterList.clearDrawn();
+
         /*
-         * Render each section
+         * Render the sections in view, the ones above it are skipped using their cached offsets
          */
-        while (viewY < this.viewHeight && entryIdx < visibleSections.size()) {
-            InterfaceSection section = visibleSections.get(entryIdx);
-            int sectionHeight = section.getHeight();
-
-            /* Is it viewable/in the viewport at all? */
-            if (viewY + sectionHeight < 0) {
-                entryIdx++;
-                viewY += sectionHeight;
-                section.visible = false;
-                continue;
+        for (int i = this.masterList.firstSectionInView(scroll); i < visibleSections.size(); ++i) {
+            final int viewY = this.masterList.getSectionOffset(i) - scroll; // y in viewport coordinates
+            if (viewY >= this.viewHeight) {
+                break;
             }
-
-            section.visible = true;
-            int advanceY = drawSection(section, viewY, relMouseX, relMouseY);
-            viewY += advanceY;
-            entryIdx++;
+            drawSection(visibleSections.get(i), viewY, relMouseX, relMouseY);
         }
     }
 
@@ -498,11 +489,9 @@ public class GuiInterfaceTerminal extends AEBaseGui
      * @param viewY     current y coordinate relative to gui
      * @param relMouseX transformed mouse coords relative to viewport
      * @param relMouseY transformed mouse coords relative to viewport
-     * @return the height of the section rendered in viewport coordinates, max of viewHeight.
      */
-    private int drawSection(InterfaceSection section, int viewY, int relMouseX, int relMouseY) {
+    private void drawSection(InterfaceSection section, int viewY, int relMouseX, int relMouseY) {
         int title;
-        int renderY = 0;
         final int sectionBottom = viewY + section.getHeight() - 1;
         final int fontColor = GuiColors.InterfaceTerminalInventory.getColor();
         /*
@@ -523,21 +512,14 @@ public class GuiInterfaceTerminal extends AEBaseGui
         GL11.glTranslatef(0.0f, 0.0f, -(ITEM_STACK_OVERLAY_Z + ITEM_STACK_Z + STEP_Z));
         GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
 
-        Iterator<InterfaceTerminalEntry> visible = section.getVisible();
-        while (visible.hasNext()) {
-            InterfaceTerminalEntry entry = visible.next();
-            if (viewY + renderY + entry.rows * 18 + 1 > 0 && viewY + renderY < viewHeight) {
-                renderY += drawEntry(
-                        entry,
-                        viewY + InterfaceSection.TITLE_HEIGHT + renderY,
-                        title,
-                        relMouseX,
-                        relMouseY);
-            } else {
-                entry.dispY = -9999;
-                entry.optionsButton.yPosition = -1;
-                renderY += entry.rows * 18 + 1;
+        /* Only the entries in view are drawn, starting at the first one not above it */
+        final List<InterfaceTerminalEntry> layout = section.getLayout();
+        for (int i = section.firstEntryInView(-viewY); i < layout.size(); ++i) {
+            final int renderY = section.getEntryOffset(i);
+            if (viewY + renderY >= viewHeight) {
+                break;
             }
+            drawEntry(layout.get(i), viewY + InterfaceSection.TITLE_HEIGHT + renderY, title, relMouseX, relMouseY);
         }
         /*
          * Render title
@@ -567,8 +549,6 @@ public class GuiInterfaceTerminal extends AEBaseGui
             fontRendererObj.drawString(section.name, 2, viewY + 2, fontColor);
         }
         GL11.glTranslatef(0.0f, 0.0f, -(ITEM_STACK_OVERLAY_Z + ITEM_STACK_Z + STEP_Z));
-
-        return InterfaceSection.TITLE_HEIGHT + renderY;
     }
 
     /**
@@ -576,21 +556,20 @@ public class GuiInterfaceTerminal extends AEBaseGui
      *
      * @param viewY the gui coordinate z
      */
-    private int drawEntry(InterfaceTerminalEntry entry, int viewY, int titleBottom, int relMouseX, int relMouseY) {
+    private void drawEntry(InterfaceTerminalEntry entry, int viewY, int titleBottom, int relMouseX, int relMouseY) {
         bindTexture(BACKGROUND);
         final Tessellator tessellator = Tessellator.instance;
         tessellator.startDrawingQuads();
-        int relY = 0;
         final int slotLeftMargin = (VIEW_WIDTH - entry.rowSize * 18);
 
         entry.dispY = viewY;
+        masterList.drawn.add(entry);
         /* PASS 1: BG */
         outerBg:
         for (int row = 0; row < entry.rows; ++row) {
             final int rowYTop = row * 18;
             final int rowYBot = rowYTop + 18;
 
-            relY += 18;
             /* Is the slot row in view? */
             if (viewY + rowYBot <= titleBottom) {
                 continue;
@@ -653,18 +632,7 @@ public class GuiInterfaceTerminal extends AEBaseGui
                         && relMouseY >= Math.max(viewY + rowYTop, InterfaceSection.TITLE_HEIGHT)
                         && relMouseY < Math.min(viewY + rowYBot, viewHeight);
                 if (stack != null) {
-                    // just in case non-pattern items show up (like in a GT AE machine), render them normally
-                    final IAEStack<?> displayStack;
-                    if (stack.getItem() instanceof final ItemEncodedPattern iep) {
-                        IAEStack<?> outputAE = iep.getOutputAE(stack);
-                        if (outputAE != null) {
-                            displayStack = outputAE;
-                        } else {
-                            displayStack = AEItemStack.create(stack);
-                        }
-                    } else {
-                        displayStack = AEItemStack.create(stack);
-                    }
+                    final IAEStack<?> displayStack = entry.getDisplayStack(slotIdx);
 
                     GL11.glPushMatrix();
                     GL11.glTranslatef(colLeft, viewY + rowYTop + 1, ITEM_STACK_Z);
@@ -709,7 +677,6 @@ public class GuiInterfaceTerminal extends AEBaseGui
             }
         }
         GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
-        return relY + 1;
     }
 
     @Override
@@ -940,6 +907,7 @@ public class GuiInterfaceTerminal extends AEBaseGui
                 entry.rows = owCmd.rows;
                 entry.rowSize = owCmd.rowSize;
                 entry.numSlots = owCmd.numSlots;
+                entry.guiHeight = 18 * entry.rows + 1;
             }
 
             masterList.isDirty = true;
@@ -957,44 +925,6 @@ public class GuiInterfaceTerminal extends AEBaseGui
         }
     }
 
-    private static boolean itemStackMatchesSearchTerm(final ItemStack itemStack, final String searchTerm, boolean in) {
-        if (itemStack == null) {
-            return false;
-        }
-
-        final NBTTagCompound encodedValue = itemStack.getTagCompound();
-
-        if (encodedValue == null) {
-            return false;
-        }
-
-        final NBTTagList tags = encodedValue.getTagList(in ? "in" : "out", NBT.TAG_COMPOUND);
-        final boolean containsInvalidDisplayName = GuiText.UnknownItem.getLocal().toLowerCase().contains(searchTerm);
-        Predicate<ItemStack> itemFilter;
-
-        if (NEI.searchField.existsSearchField()) {
-            itemFilter = NEI.searchField.getFilter(searchTerm);
-        } else {
-            itemFilter = is -> Platform.getItemDisplayName(AEApi.instance().storage().createItemStack(is)).toLowerCase()
-                    .contains(searchTerm);
-        }
-
-        for (int i = 0; i < tags.tagCount(); i++) {
-            final NBTTagCompound tag = tags.getCompoundTagAt(i);
-            final IAEStack<?> aes = Platform.readStackNBT(tag, true);
-
-            if (aes != null) {
-                if (itemFilter.test(aes.getItemStackForNEI())) {
-                    return true;
-                }
-            } else if (containsInvalidDisplayName && !tag.hasNoTags()) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     private static boolean interfaceSectionMatchesSearchTerm(final InterfaceSection section, final String searchTerm) {
         if (searchTerm.isEmpty()) return true;
 
@@ -1074,6 +1004,11 @@ public class GuiInterfaceTerminal extends AEBaseGui
         private final Map<Long, InterfaceTerminalEntry> list = new HashMap<>();
         private Map<String, InterfaceSection> sections;
         private final List<InterfaceSection> visibleSections = new ArrayList<>();
+        /** Top of each visible section, and the total height at the end */
+        private int[] sectionOffsets = new int[1];
+        /** Entries drawn in the last frame, the only ones that can be clicked */
+        private final List<InterfaceTerminalEntry> drawn = new ArrayList<>();
+        private PatternSearch search = new PatternSearch("", "");
         private boolean isDirty;
         private int height;
         private InterfaceTerminalEntry hoveredEntry;
@@ -1098,9 +1033,12 @@ public class GuiInterfaceTerminal extends AEBaseGui
         private void update() {
             height = 0;
             visibleSections.clear();
+            search = new PatternSearch(
+                    GuiInterfaceTerminal.this.searchFieldInputs.getText().toLowerCase(),
+                    GuiInterfaceTerminal.this.searchFieldOutputs.getText().toLowerCase());
 
+            final String query = GuiInterfaceTerminal.this.searchFieldNames.getText();
             for (InterfaceSection section : sections.values()) {
-                String query = GuiInterfaceTerminal.this.searchFieldNames.getText();
                 if (!interfaceSectionMatchesSearchTerm(section, query)) {
                     continue;
                 }
@@ -1111,9 +1049,46 @@ public class GuiInterfaceTerminal extends AEBaseGui
                     visibleSections.add(section);
                 }
             }
+
+            sectionOffsets = new int[visibleSections.size() + 1];
+            for (int i = 0; i < visibleSections.size(); ++i) {
+                sectionOffsets[i + 1] = sectionOffsets[i] + visibleSections.get(i).getHeight();
+            }
             isDirty = false;
         }
 
+        /**
+         * @return index of the first visible section that isn't entirely above the scroll offset
+         */
+        int firstSectionInView(int scroll) {
+            if (isDirty) {
+                update();
+            }
+            int low = 0;
+            int high = visibleSections.size();
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (sectionOffsets[mid + 1] < scroll) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int getSectionOffset(int idx) {
+            return sectionOffsets[idx];
+        }
+
+        void clearDrawn() {
+            for (InterfaceTerminalEntry entry : drawn) {
+                entry.dispY = -9999;
+                entry.optionsButton.yPosition = -1;
+            }
+            drawn.clear();
+        }
+
         public void markDirty() {
             this.isDirty = true;
             setScrollBar();
@@ -1180,6 +1155,7 @@ public class GuiInterfaceTerminal extends AEBaseGui
 
             if (entry != null) {
                 entry.section.removeEntry(entry);
+                isDirty = true;
             }
         }
 
@@ -1201,8 +1177,8 @@ public class GuiInterfaceTerminal extends AEBaseGui
             if (relMouseX < 0 || relMouseX >= VIEW_WIDTH || relMouseY < 0 || relMouseY >= viewHeight) {
                 return false;
             }
-            for (InterfaceSection section : getVisibleSections()) {
-                if (section.mouseClicked(relMouseX, relMouseY, btn)) {
+            for (InterfaceTerminalEntry entry : drawn) {
+                if (entry.mouseClicked(relMouseX, relMouseY, btn)) {
                     return true;
                 }
             }
@@ -1219,16 +1195,12 @@ public class GuiInterfaceTerminal extends AEBaseGui
 
         String name;
         List<InterfaceTerminalEntry> entries = new ArrayList<>();
-        Set<InterfaceTerminalEntry> visibleEntries = new TreeSet<>(Comparator.comparing(e -> {
-            if (e.dispRep != null) {
-                return e.dispRep.getDisplayName() + e.id;
-            } else {
-                return String.valueOf(e.id);
-            }
-        }));
+        Set<InterfaceTerminalEntry> visibleEntries = new TreeSet<>(Comparator.comparing(e -> e.sortKey));
+        /** The visible entries in order, with the top of each one below the title and the total at the end */
+        private final List<InterfaceTerminalEntry> layout = new ArrayList<>();
+        private int[] entryOffsets = new int[1];
         int height;
         private boolean isDirty = true;
-        boolean visible = false;
 
         InterfaceSection(String name) {
             this.name = name;
@@ -1246,27 +1218,24 @@ public class GuiInterfaceTerminal extends AEBaseGui
 
         private void update() {
             refreshVisible();
-            if (visibleEntries.isEmpty()) {
-                height = 0;
-            } else {
-                height = TITLE_HEIGHT;
-                for (InterfaceTerminalEntry entry : visibleEntries) {
-                    height += entry.guiHeight;
-                }
+            layout.clear();
+            layout.addAll(visibleEntries);
+            entryOffsets = new int[layout.size() + 1];
+            for (int i = 0; i < layout.size(); ++i) {
+                entryOffsets[i + 1] = entryOffsets[i] + layout.get(i).guiHeight;
             }
+            height = layout.isEmpty() ? 0 : TITLE_HEIGHT + entryOffsets[layout.size()];
             isDirty = false;
         }
 
         public void refreshVisible() {
             visibleEntries.clear();
-            String input = GuiInterfaceTerminal.this.searchFieldInputs.getText().toLowerCase();
-            String output = GuiInterfaceTerminal.this.searchFieldOutputs.getText().toLowerCase();
+            final PatternSearch search = masterList.search;
+            final var moleAss = AEApi.instance().definitions().blocks().molecularAssembler().maybeStack(1);
 
             for (InterfaceTerminalEntry entry : entries) {
                 if (!entry.online || entry.p2pOutput) continue;
 
-                var moleAss = AEApi.instance().definitions().blocks().molecularAssembler().maybeStack(1);
-                entry.dispY = -9999;
                 if (onlyMolecularAssemblers
                         && (!moleAss.isPresent() || !Platform.isSameItem(moleAss.get(), entry.dispRep))) {
                     continue;
@@ -1281,25 +1250,12 @@ public class GuiInterfaceTerminal extends AEBaseGui
                 if (onlySubstitute && !entry.hasUseSubstitute()) continue;
 
                 // Find search terms
-                if (!input.isEmpty() || !output.isEmpty()) {
-                    AppEngInternalInventory inv = entry.inv;
-                    boolean shouldAdd = false;
-
-                    for (int i = 0; i < inv.getSizeInventory(); ++i) {
-                        ItemStack stack = inv.getStackInSlot(i);
-                        if (itemStackMatchesSearchTerm(stack, input, true)
-                                && itemStackMatchesSearchTerm(stack, output, false)) {
-                            shouldAdd = true;
-                            entry.filteredRecipes[i] = false;
-                        } else {
-                            entry.filteredRecipes[i] = true;
-                        }
-                    }
-                    if (!shouldAdd) {
+                if (!search.isEmpty()) {
+                    if (!entry.filterRecipes(search)) {
                         continue;
                     }
                 } else {
-                    Arrays.fill(entry.filteredRecipes, false);
+                    entry.clearFilter();
                 }
                 visibleEntries.add(entry);
             }
@@ -1324,15 +1280,179 @@ public class GuiInterfaceTerminal extends AEBaseGui
             return visibleEntries.iterator();
         }
 
-        public boolean mouseClicked(int relMouseX, int relMouseY, int btn) {
-            Iterator<InterfaceTerminalEntry> it = getVisible();
-            boolean ret = false;
+        public List<InterfaceTerminalEntry> getLayout() {
+            if (isDirty) {
+                update();
+            }
+            return layout;
+        }
 
-            while (it.hasNext() && !ret) {
-                ret = it.next().mouseClicked(relMouseX, relMouseY, btn);
+        /**
+         * @param y position relative to the section top
+         * @return index of the first laid out entry that reaches below y
+         */
+        int firstEntryInView(int y) {
+            int low = 0;
+            int high = getLayout().size();
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (entryOffsets[mid + 1] <= y) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
             }
+            return low;
+        }
 
-            return ret;
+        int getEntryOffset(int idx) {
+            return entryOffsets[idx];
+        }
+    }
+
+    /**
+     * The input and output search terms, with the item filters built once for all slots.
+     */
+    private static class PatternSearch {
+
+        final String input;
+        final String output;
+        /** NEI's filters, null without its search field */
+        private final Predicate<ItemStack> inputFilter;
+        private final Predicate<ItemStack> outputFilter;
+        private final boolean inputMatchesUnknown;
+        private final boolean outputMatchesUnknown;
+
+        PatternSearch(String input, String output) {
+            this.input = input;
+            this.output = output;
+            if (NEI.searchField.existsSearchField()) {
+                this.inputFilter = NEI.searchField.getFilter(input);
+                this.outputFilter = NEI.searchField.getFilter(output);
+            } else {
+                this.inputFilter = null;
+                this.outputFilter = null;
+            }
+            final String unknown = GuiText.UnknownItem.getLocal().toLowerCase();
+            this.inputMatchesUnknown = unknown.contains(input);
+            this.outputMatchesUnknown = unknown.contains(output);
+        }
+
+        boolean isEmpty() {
+            return input.isEmpty() && output.isEmpty();
+        }
+
+        /**
+         * Plain name searches only match fewer slots when the terms get longer, NEI's search syntax may not.
+         */
+        boolean narrows(String oldInput, String oldOutput) {
+            return inputFilter == null && input.startsWith(oldInput) && output.startsWith(oldOutput);
+        }
+
+        boolean matches(PatternText text) {
+            return text.matches(true, input, inputFilter, inputMatchesUnknown)
+                    && text.matches(false, output, outputFilter, outputMatchesUnknown);
+        }
+    }
+
+    /**
+     * The inputs and outputs of a pattern, decoded once instead of on every search.
+     */
+    private static class PatternText {
+
+        /** Anything that isn't an encoded pattern, matches no search */
+        private static final PatternText NONE = new PatternText(new ItemStack[0], false, new ItemStack[0], false);
+
+        private final ItemStack[] inputs;
+        private final ItemStack[] outputs;
+        /** Whether some entries couldn't be read, those match searches for the unknown item name */
+        private final boolean unknownInputs;
+        private final boolean unknownOutputs;
+        private String[] inputNames;
+        private String[] outputNames;
+
+        private PatternText(ItemStack[] inputs, boolean unknownInputs, ItemStack[] outputs, boolean unknownOutputs) {
+            this.inputs = inputs;
+            this.unknownInputs = unknownInputs;
+            this.outputs = outputs;
+            this.unknownOutputs = unknownOutputs;
+        }
+
+        static PatternText of(final ItemStack itemStack) {
+            if (itemStack == null || itemStack.getTagCompound() == null) {
+                return NONE;
+            }
+            final NBTTagCompound encodedValue = itemStack.getTagCompound();
+            final List<ItemStack> inputs = new ArrayList<>();
+            final List<ItemStack> outputs = new ArrayList<>();
+            final boolean unknownInputs = readStacks(encodedValue.getTagList("in", NBT.TAG_COMPOUND), inputs);
+            final boolean unknownOutputs = readStacks(encodedValue.getTagList("out", NBT.TAG_COMPOUND), outputs);
+            return new PatternText(
+                    inputs.toArray(new ItemStack[0]),
+                    unknownInputs,
+                    outputs.toArray(new ItemStack[0]),
+                    unknownOutputs);
+        }
+
+        /**
+         * @return whether a non-empty entry couldn't be read
+         */
+        private static boolean readStacks(final NBTTagList tags, final List<ItemStack> stacks) {
+            boolean unknown = false;
+            for (int i = 0; i < tags.tagCount(); i++) {
+                final NBTTagCompound tag = tags.getCompoundTagAt(i);
+                final IAEStack<?> aes = Platform.readStackNBT(tag, true);
+
+                if (aes != null) {
+                    stacks.add(aes.getItemStackForNEI());
+                } else if (!tag.hasNoTags()) {
+                    unknown = true;
+                }
+            }
+            return unknown;
+        }
+
+        boolean matches(boolean in, String searchTerm, Predicate<ItemStack> filter, boolean matchesUnknown) {
+            if ((in ? unknownInputs : unknownOutputs) && matchesUnknown) {
+                return true;
+            }
+            if (filter != null) {
+                for (ItemStack stack : in ? inputs : outputs) {
+                    if (filter.test(stack)) {
+                        return true;
+                    }
+                }
+            } else {
+                for (String name : in ? getInputNames() : getOutputNames()) {
+                    if (name.contains(searchTerm)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private String[] getInputNames() {
+            if (inputNames == null) {
+                inputNames = toNames(inputs);
+            }
+            return inputNames;
+        }
+
+        private String[] getOutputNames() {
+            if (outputNames == null) {
+                outputNames = toNames(outputs);
+            }
+            return outputNames;
+        }
+
+        private static String[] toNames(final ItemStack[] stacks) {
+            final String[] names = new String[stacks.length];
+            for (int i = 0; i < stacks.length; i++) {
+                names[i] = Platform.getItemDisplayName(AEApi.instance().storage().createItemStack(stacks[i]))
+                        .toLowerCase();
+            }
+            return names;
         }
     }
 
@@ -1361,7 +1481,16 @@ public class GuiInterfaceTerminal extends AEBaseGui
         int numItems = 0;
         /** Should recipe be filtered out/grayed out? */
         boolean[] filteredRecipes;
+        /** The search terms filteredRecipes was computed for, null if it has to be computed again */
+        private String filteredInput;
+        private String filteredOutput;
+        private boolean anyRecipeShown;
+        /** Decoded inputs and outputs of each slot, built when first searched */
+        private PatternText[] patternTexts;
+        /** What is drawn for each slot, built when first drawn */
+        private IAEStack<?>[] displayStacks;
         Boolean[] useSubstitute;
+        String sortKey;
         private int hoveredSlotIdx = -1;
 
         InterfaceTerminalEntry(long id, String name, int rows, int rowSize, int numSlots, boolean online,
@@ -1380,6 +1509,8 @@ public class GuiInterfaceTerminal extends AEBaseGui
             this.brokenRecipes = new Boolean[rows * rowSize];
             this.useSubstitute = new Boolean[rows * rowSize];
             this.filteredRecipes = new boolean[rows * rowSize];
+            this.patternTexts = new PatternText[rows * rowSize];
+            this.displayStacks = new IAEStack<?>[rows * rowSize];
         }
 
         InterfaceTerminalEntry setLocation(int x, int y, int z, int dim, int side) {
@@ -1396,6 +1527,7 @@ public class GuiInterfaceTerminal extends AEBaseGui
             // Kotlin would make this pretty easy :(
             this.selfRep = selfRep;
             this.dispRep = dispRep;
+            this.sortKey = dispRep != null ? dispRep.getDisplayName() + id : String.valueOf(id);
 
             return this;
         }
@@ -1404,12 +1536,17 @@ public class GuiInterfaceTerminal extends AEBaseGui
             inv = new AppEngInternalInventory(null, newSize);
             rows = newSize / rowSize;
             brokenRecipes = new Boolean[newSize];
+            useSubstitute = new Boolean[newSize];
+            filteredRecipes = new boolean[newSize];
+            patternTexts = new PatternText[newSize];
+            displayStacks = new IAEStack<?>[newSize];
+            filteredInput = null;
             numItems = 0;
 
             for (int i = 0; i < inv.getSizeInventory(); ++i) {
                 setItemInSlot(ItemStack.loadItemStackFromNBT(items.getCompoundTagAt(i)), i);
             }
-            this.guiHeight = 18 * rows + 4;
+            this.guiHeight = 18 * rows + 1;
         }
 
         InterfaceTerminalEntry setItems(NBTTagList items) {
@@ -1435,6 +1572,60 @@ public class GuiInterfaceTerminal extends AEBaseGui
             // Update item count
             numItems += newHasItem - oldHasItem;
             assert numItems >= 0;
+
+            brokenRecipes[idx] = null;
+            useSubstitute[idx] = null;
+            patternTexts[idx] = null;
+            displayStacks[idx] = null;
+            filteredInput = null;
+        }
+
+        /**
+         * Grays out the slots not matching the search, only checking the slots that still matched if the search
+         * just got narrower.
+         *
+         * @return whether any slot matched
+         */
+        boolean filterRecipes(final PatternSearch search) {
+            if (search.input.equals(filteredInput) && search.output.equals(filteredOutput)) {
+                return anyRecipeShown;
+            }
+            final boolean narrower = filteredInput != null && search.narrows(filteredInput, filteredOutput);
+
+            boolean shown = false;
+            for (int i = 0; i < inv.getSizeInventory(); ++i) {
+                if (narrower && filteredRecipes[i]) {
+                    continue;
+                }
+                if (patternTexts[i] == null) {
+                    patternTexts[i] = PatternText.of(inv.getStackInSlot(i));
+                }
+                filteredRecipes[i] = !search.matches(patternTexts[i]);
+                shown |= !filteredRecipes[i];
+            }
+
+            filteredInput = search.input;
+            filteredOutput = search.output;
+            anyRecipeShown = shown;
+            return shown;
+        }
+
+        void clearFilter() {
+            Arrays.fill(filteredRecipes, false);
+            filteredInput = null;
+        }
+
+        IAEStack<?> getDisplayStack(int idx) {
+            if (displayStacks[idx] == null) {
+                final ItemStack stack = inv.getStackInSlot(idx);
+                // just in case non-pattern items show up (like in a GT AE machine), render them normally
+                IAEStack<?> outputAE = null;
+                if (stack.getItem() instanceof final ItemEncodedPattern iep) {
+                    outputAE = iep.getOutputAE(stack);
+                }
+                displayStacks[idx] = outputAE != null ? outputAE : AEItemStack.create(stack);
+            }
+            return displayStacks[idx];
         }
 
         public boolean hasBrokenSlot() {
@@ -1504,7 +1695,7 @@ public class GuiInterfaceTerminal extends AEBaseGui
         }
 
         public boolean mouseClicked(int mouseX, int mouseY, int btn) {
-            if (!section.visible || btn < 0 || btn > 2) {
+            if (btn < 0 || btn > 2) {
                 return false;
             }
             if (mouseX >= optionsButton.xPosition && mouseX < 2 + optionsButton.width
@@ -197,6 +197,13 @@ public class GuiMEMonitorable extends AEBaseGui
         }
     }
 
+    /**
+     * Forgets every stack, the whole inventory is sent again afterwards.
+     */
+    public void clearItems() {
+        this.repo.clear();
+    }
+
     public void postUpdate(final List<IAEStack<?>> list) {
         for (final IAEStack<?> is : list) {
             this.repo.postUpdate(is);
@@ -11,8 +11,13 @@
 package appeng.client.me;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.function.Predicate;
@@ -40,14 +45,14 @@ import appeng.core.AEConfig;
 import appeng.integration.modules.NEI;
 import appeng.items.storage.ItemViewCell;
 import appeng.util.ItemSorters;
-import appeng.util.Platform;
-import appeng.util.item.OreHelper;
-import appeng.util.item.OreReference;
 import appeng.util.prioitylist.IPartitionList;
 import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
 
 public class ItemRepo implements IDisplayRepo {
 
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
     private final IItemList<IAEStack<?>> list = AEApi.instance().storage().createAEStackList();
     private IAEStack<?>[] pinsRepo = new IAEStack<?>[0];
     private final ArrayList<IAEStack<?>> view = new ArrayList<>();
@@ -57,11 +62,24 @@ public class ItemRepo implements IDisplayRepo {
     private int rowSize = 9;
 
     private String searchString = "";
-    private Map<IAEStack<?>, Boolean> searchCache = new WeakHashMap<>();
+    private final Map<IAEStack<?>, Boolean> searchCache = new WeakHashMap<>();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
     private IPartitionList myPartitionList;
     private boolean hasPower;
     private boolean paused = false;
 
+    /**
+     * List stacks changed since the last {@link #updateView()}, they have already been taken out of the view.
+     */
+    private final Set<IAEStack<?>> changedStacks = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean viewValid = false;
+    private Comparator<IAEStack<?>> viewComparator;
+    private Predicate<IAEStack<?>> viewFilter;
+    private Enum viewSortBy;
+    private Enum viewSortDir;
+    private Enum viewSortDisplay;
+    private Reference2BooleanMap<IAEStackType<?>> viewTypeFilters;
+
     public ItemRepo(final IScrollSource src, final ISortSource sortSrc) {
         this.src = src;
         this.sortSrc = sortSrc;
@@ -69,6 +87,7 @@ public class ItemRepo implements IDisplayRepo {
 
     @Override
     public void setAEPins(IAEStack<?>[] newPins) {
+        this.invalidateView();
         IItemList<IAEStack<?>> oldPins = getPinsCache();
         pinsRepo = new IAEStack<?>[newPins.length];
         for (int i = 0; i < pinsRepo.length; i++) {
@@ -157,16 +176,25 @@ public class ItemRepo implements IDisplayRepo {
         }
 
         if (st != null) {
+            if (this.viewValid && this.changedStacks.add(st)) {
+                // the view is sorted by the old amounts, so the stack has to leave it before they change
+                this.removeFromView(st);
+            }
             st.reset();
             st.add(is);
         } else {
             this.list.add(is);
+            final IAEStack<?> added = this.list.findPrecise(is);
+            if (this.viewValid && added != null) {
+                this.changedStacks.add(added);
+            }
         }
     }
 
     @Override
     public void setViewCell(final ItemStack[] list) {
         this.myPartitionList = ItemViewCell.createFilter(list);
+        this.invalidateView();
         this.updateView();
     }
 
@@ -194,35 +222,129 @@ public class ItemRepo implements IDisplayRepo {
                     entriesToAdd.add(serverEntry);
                 }
             }
-            addEntriesToView(entriesToAdd);
+            addEntriesToView(entriesToAdd, getViewFilter());
+
+            // Don't sort the view if paused.
+            return;
+        }
+
+        final Enum sortBy = this.sortSrc.getSortBy();
+        final Enum sortDir = this.sortSrc.getSortDir();
+        final Enum viewMode = this.sortSrc.getSortDisplay();
+        final Reference2BooleanMap<IAEStackType<?>> typeFilters = this.sortSrc.getTypeFilter();
+
+        ItemSorters.setDirection((appeng.api.config.SortDir) sortDir);
+
+        if (this.viewValid && sortBy == this.viewSortBy
+                && sortDir == this.viewSortDir
+                && viewMode == this.viewSortDisplay
+                && Objects.equals(typeFilters, this.viewTypeFilters)) {
+            for (IAEStack<?> is : this.changedStacks) {
+                if (this.isInView(is)) {
+                    this.insertIntoView(this.toViewEntry(is));
+                }
+            }
+            this.changedStacks.clear();
+            return;
+        }
+
+        this.viewFilter = getViewFilter();
+        this.view.clear();
+        this.view.ensureCapacity(this.list.size());
+        addEntriesToView(this.list, this.viewFilter);
+
+        if (sortBy == SortOrder.MOD) {
+            this.viewComparator = ItemSorters.CONFIG_BASED_SORT_BY_MOD;
+        } else if (sortBy == SortOrder.AMOUNT) {
+            this.viewComparator = ItemSorters.CONFIG_BASED_SORT_BY_SIZE;
+        } else if (sortBy == SortOrder.INVTWEAKS) {
+            this.viewComparator = ItemSorters.CONFIG_BASED_SORT_BY_INV_TWEAKS;
         } else {
-            this.view.clear();
-            this.view.ensureCapacity(this.list.size());
-            addEntriesToView(this.list);
+            this.viewComparator = ItemSorters.CONFIG_BASED_SORT_BY_NAME;
+        }
+        this.view.sort(this.viewComparator);
+
+        this.viewValid = true;
+        this.viewSortBy = sortBy;
+        this.viewSortDir = sortDir;
+        this.viewSortDisplay = viewMode;
+        this.viewTypeFilters = typeFilters == null ? null : new Reference2BooleanOpenHashMap<>(typeFilters);
+        this.changedStacks.clear();
+    }
+
+    /**
+     * Forces the next {@link #updateView()} to filter and sort the whole list again.
+     */
+    private void invalidateView() {
+        this.viewValid = false;
+        this.changedStacks.clear();
+    }
+
+    /**
+     * @return whether a list stack belongs into the view, as long as the view is valid
+     */
+    private boolean isInView(final IAEStack<?> is) {
+        // the list iterator skips stacks which aren't meaningful
+        return is.isMeaningful() && this.viewFilter.test(is);
+    }
+
+    private void removeFromView(final IAEStack<?> is) {
+        if (!this.isInView(is)) {
+            return;
         }
 
-        // Don't sort the view if paused.
-        if (!this.paused) {
-            final Enum SortBy = this.sortSrc.getSortBy();
-            final Enum SortDir = this.sortSrc.getSortDir();
+        final IAEStack<?> entry = this.toViewEntry(is);
+        ItemSorters.setDirection((appeng.api.config.SortDir) this.viewSortDir);
 
-            ItemSorters.setDirection((appeng.api.config.SortDir) SortDir);
+        final int found = Collections.binarySearch(this.view, entry, this.viewComparator);
+        if (found >= 0) {
+            // the comparators have ties, look through all entries sorting equal to this one
+            for (int i = found; i >= 0 && this.viewComparator.compare(this.view.get(i), entry) == 0; i--) {
+                if (this.view.get(i).equals(entry)) {
+                    this.view.remove(i);
+                    return;
+                }
+            }
+            for (int i = found + 1; i < this.view.size()
+                    && this.viewComparator.compare(this.view.get(i), entry) == 0; i++) {
+                if (this.view.get(i).equals(entry)) {
+                    this.view.remove(i);
+                    return;
+                }
+            }
+        }
 
-            if (SortBy == SortOrder.MOD) {
-                this.view.sort(ItemSorters.CONFIG_BASED_SORT_BY_MOD);
-            } else if (SortBy == SortOrder.AMOUNT) {
-                this.view.sort(ItemSorters.CONFIG_BASED_SORT_BY_SIZE);
-            } else if (SortBy == SortOrder.INVTWEAKS) {
-                this.view.sort(ItemSorters.CONFIG_BASED_SORT_BY_INV_TWEAKS);
-            } else {
-                this.view.sort(ItemSorters.CONFIG_BASED_SORT_BY_NAME);
+        // not sorted where expected, e.g. a display name that changed since the view was built
+        this.view.remove(entry);
+    }
+
+    private void insertIntoView(final IAEStack<?> entry) {
+        final int found = Collections.binarySearch(this.view, entry, this.viewComparator);
+        this.view.add(found >= 0 ? found : -found - 1, entry);
+    }
+
+    private IAEStack<?> toViewEntry(IAEStack<?> is) {
+        if (this.sortSrc.getSortDisplay() == ViewItems.CRAFTABLE) {
+            is = is.copy();
+            is.setStackSize(0);
+        }
+        return is;
+    }
+
+    private void addEntriesToView(Iterable<IAEStack<?>> entries, Predicate<IAEStack<?>> filter) {
+        for (IAEStack<?> is : entries) {
+            if (filter.test(is)) {
+                this.view.add(this.toViewEntry(is));
             }
         }
     }
 
-    private void addEntriesToView(Iterable<IAEStack<?>> entries) {
+    /**
+     * @return whether a stack is shown with the current view mode, view cells, type filters and search string
+     */
+    private Predicate<IAEStack<?>> getViewFilter() {
         final Enum viewMode = this.sortSrc.getSortDisplay();
-        Reference2BooleanMap<IAEStackType<?>> typeFilters = this.sortSrc.getTypeFilter();
+        final Reference2BooleanMap<IAEStackType<?>> typeFilters = this.sortSrc.getTypeFilter();
         Predicate<IAEStack<?>> itemFilter = null;
 
         if (!this.searchString.trim().isEmpty()) {
@@ -237,40 +359,33 @@ public class ItemRepo implements IDisplayRepo {
             }
         }
 
-        IItemDisplayRegistry registry = AEApi.instance().registries().itemDisplay();
+        final IItemDisplayRegistry registry = AEApi.instance().registries().itemDisplay();
+        final Predicate<IAEStack<?>> searchFilter = itemFilter;
 
-        for (IAEStack<?> is : entries) {
+        return is -> {
             if (viewMode == ViewItems.CRAFTABLE && !is.isCraftable()) {
-                continue;
+                return false;
             }
 
             if (viewMode == ViewItems.STORED && is.getStackSize() == 0) {
-                continue;
+                return false;
             }
 
             if (this.myPartitionList != null && !this.myPartitionList.isListed(is)) {
-                continue;
+                return false;
             }
 
-            if (typeFilters != null && !typeFilters.getBoolean(is.getStackType())) continue;
+            if (typeFilters != null && !typeFilters.getBoolean(is.getStackType())) return false;
 
             if (is instanceof IAEItemStack ais) {
                 if (registry.isBlacklisted(ais.getItemStack().getItem())
                         || registry.isBlacklisted(ais.getItemStack().getItem().getClass())) {
-                    continue;
+                    return false;
                 }
             }
 
-            if (itemFilter == null || this.searchCache.computeIfAbsent(is, itemFilter::test)) {
-
-                if (viewMode == ViewItems.CRAFTABLE) {
-                    is = is.copy();
-                    is.setStackSize(0);
-                }
-
-                this.view.add(is);
-            }
-        }
+            return searchFilter == null || this.searchCache.computeIfAbsent(is, searchFilter::test);
+        };
     }
 
     private Predicate<IAEStack<?>> getFilter(String innerSearch) {
@@ -282,39 +397,56 @@ public class ItemRepo implements IDisplayRepo {
         final String prefix = innerSearch.substring(0, 1);
 
         if ("#".equals(prefix)) {
-            final Pattern pattern = getPattern(innerSearch.substring(1));
-            return stack -> {
-                String tooltip = String.join("\n", Platform.getTooltip(stack));
-                return pattern.matcher(tooltip).find();
-            };
+            final Predicate<String> matcher = getMatcher(innerSearch.substring(1));
+            return stack -> matcher.test(this.searchIndex.get(stack).getTooltip());
         } else if ("@".equals(prefix)) {
-            final Pattern pattern = getPattern(innerSearch.substring(1));
-            return stack -> {
-                String mod = stack.getModId();
-                return pattern.matcher(mod).find();
-            };
+            final Predicate<String> matcher = getMatcher(innerSearch.substring(1));
+            return stack -> matcher.test(this.searchIndex.get(stack).getModId());
         } else if ("$".equals(prefix)) {
-            final Pattern pattern = getPattern(innerSearch.substring(1));
-            return stack -> {
-                if (stack instanceof IAEItemStack ais) {
-                    OreReference ores = OreHelper.INSTANCE.isOre(ais.getItemStack());
-                    return ores != null && pattern.matcher(String.join("\n", ores.getEquivalents())).find();
-                }
-                return false;
-            };
+            final Predicate<String> matcher = getMatcher(innerSearch.substring(1));
+            return stack -> stack instanceof IAEItemStack && matcher.test(this.searchIndex.get(stack).getOres());
         } else {
-            final Pattern pattern = getPattern(innerSearch);
+            final Predicate<String> matcher = getMatcher(innerSearch);
             return stack -> {
-                String name = stack.getDisplayName();
+                final ItemSearchIndex.Entry entry = this.searchIndex.get(stack);
+                return matcher.test(entry.getName()) || matcher.test(entry.getTooltip());
+            };
+        }
+    }
 
-                if (pattern.matcher(name).find()) {
-                    return true;
-                }
+    /**
+     * @return a test against the lower cased texts of the search index, plain text skips the regex engine
+     */
+    private static Predicate<String> getMatcher(String search) {
+        if (isLiteral(search)) {
+            final String needle = search.toLowerCase(Locale.ROOT);
+            return text -> text.contains(needle);
+        }
 
-                String tooltip = String.join("\n", Platform.getTooltip(stack));
-                return pattern.matcher(tooltip).find();
-            };
+        final Pattern pattern = getPattern(search);
+        return text -> pattern.matcher(text).find();
+    }
+
+    private static boolean isLiteral(String search) {
+        for (int i = 0; i < search.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(search.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether every stack matching {@code next} also matched {@code previous}, which holds when plain text is only
+     * extended. NEI has its own search syntax, so its filters are never refined.
+     */
+    private static boolean isRefinement(String previous, String next) {
+        if (previous.isEmpty() || !next.startsWith(previous) || NEI.searchField.existsSearchField()) {
+            return false;
         }
+
+        final boolean prefixed = "#@$".indexOf(next.charAt(0)) >= 0;
+        return isLiteral(prefixed ? next.substring(1) : next);
     }
 
     private static Pattern getPattern(String search) {
@@ -333,6 +465,7 @@ public class ItemRepo implements IDisplayRepo {
 
     @Override
     public void clear() {
+        this.invalidateView();
         this.list.resetStatus();
     }
 
@@ -364,8 +497,14 @@ public class ItemRepo implements IDisplayRepo {
     @Override
     public void setSearchString(@Nonnull final String searchString) {
         if (!searchString.equals(this.searchString)) {
+            if (isRefinement(this.searchString, searchString)) {
+                // stacks which didn't match can't match a longer search either
+                this.searchCache.values().removeIf(Boolean::booleanValue);
+            } else {
+                this.searchCache.clear();
+            }
             this.searchString = searchString;
-            this.searchCache.clear();
+            this.invalidateView();
 
             if (NEI.searchField.existsSearchField()) {
                 final Enum searchMode = AEConfig.instance.settings.getSetting(Settings.SEARCH_MODE);
@@ -386,6 +525,7 @@ public class ItemRepo implements IDisplayRepo {
     public void setPaused(boolean paused) {
         if (this.paused != paused) {
             this.paused = paused;
+            this.invalidateView();
 
             // Update view when un-paused
             if (!paused) {
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.client.me;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.util.Platform;
+import appeng.util.item.OreHelper;
+import appeng.util.item.OreReference;
+
+/**
+ * Lower cased search texts of the stacks shown by a terminal. They are computed on first use and kept independent of
+ * the search string, so only stacks that were never searched before pay for their tooltip.
+ */
+class ItemSearchIndex {
+
+    private final Map<IAEStack<?>, Entry> entries = new HashMap<>();
+
+    Entry get(final IAEStack<?> stack) {
+        Entry entry = this.entries.get(stack);
+        if (entry == null) {
+            entry = new Entry(stack.copy());
+            this.entries.put(entry.stack, entry);
+        }
+        return entry;
+    }
+
+    static final class Entry {
+
+        private final IAEStack<?> stack;
+        private String name;
+        private String modId;
+        private String ores;
+        private String tooltip;
+
+        private Entry(final IAEStack<?> stack) {
+            this.stack = stack;
+        }
+
+        String getName() {
+            if (this.name == null) {
+                this.name = lowerCase(this.stack.getDisplayName());
+            }
+            return this.name;
+        }
+
+        String getModId() {
+            if (this.modId == null) {
+                this.modId = lowerCase(this.stack.getModId());
+            }
+            return this.modId;
+        }
+
+        String getOres() {
+            if (this.ores == null) {
+                String joined = "";
+                if (this.stack instanceof IAEItemStack ais) {
+                    final OreReference ores = OreHelper.INSTANCE.isOre(ais.getItemStack());
+                    if (ores != null) {
+                        joined = String.join("\n", ores.getEquivalents());
+                    }
+                }
+                this.ores = lowerCase(joined);
+            }
+            return this.ores;
+        }
+
+        String getTooltip() {
+            if (this.tooltip == null) {
+                this.tooltip = lowerCase(String.join("\n", Platform.getTooltip(this.stack)));
+            }
+            return this.tooltip;
+        }
+
+        private static String lowerCase(final String text) {
+            return text == null ? "" : text.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -1060,6 +1060,19 @@ public abstract class AEBaseContainer extends Container {
         this.isContainerValid = isContainerValid;
     }
 
+    /**
+     * @return whether a player still has this container open, containers that were dropped without being closed, e.g.
+     *         when their player disconnected, are not
+     */
+    public boolean isOpenForAnyPlayer() {
+        for (final Object crafter : this.crafters) {
+            if (crafter instanceof EntityPlayerMP player && player.openContainer == this && !player.isDead) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public ContainerOpenContext getOpenContext() {
         return this.openContext;
     }
@@ -0,0 +1,131 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.container;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+
+/**
+ * Update packets encoded once and sent by several containers showing the same thing. Packets are kept until every
+ * container sent them, so a container that runs its update after another one encoded the changes still gets them, in
+ * order.
+ * <p>
+ * Containers whose player no longer has them open are dropped, they would never send their updates and keep the
+ * history from being trimmed.
+ */
+public final class UpdateHistory<C extends AEBaseContainer, P> {
+
+    // the serial of a packet is its position in the history plus historyStart
+    private final ArrayDeque<P> history = new ArrayDeque<>();
+    private long historyStart = 0;
+    // serial of the next packet each container has to send
+    private final Reference2LongMap<C> viewers = new Reference2LongOpenHashMap<>();
+
+    /**
+     * Adds the container, or moves it past everything published so far, it only gets packets published afterwards.
+     */
+    public void join(final C viewer) {
+        this.viewers.put(viewer, this.nextSerial());
+        this.trim();
+    }
+
+    /**
+     * @return whether any container is left
+     */
+    public boolean leave(final C viewer) {
+        this.viewers.removeLong(viewer);
+        return this.prune();
+    }
+
+    public boolean contains(final C viewer) {
+        return this.viewers.containsKey(viewer);
+    }
+
+    public boolean isEmpty() {
+        return this.viewers.isEmpty();
+    }
+
+    public int size() {
+        return this.viewers.size();
+    }
+
+    public void publish(final P packet) {
+        this.history.addLast(packet);
+    }
+
+    /**
+     * @return the packets the container hasn't sent yet, they count as sent from now on
+     */
+    public List<P> poll(final C viewer) {
+        if (!this.viewers.containsKey(viewer)) {
+            return Collections.emptyList();
+        }
+
+        final long serial = this.viewers.getLong(viewer);
+        if (serial >= this.nextSerial()) {
+            return Collections.emptyList();
+        }
+
+        final List<P> pending = new ArrayList<>();
+        long current = this.historyStart;
+        for (final P packet : this.history) {
+            if (current++ >= serial) {
+                pending.add(packet);
+            }
+        }
+        this.viewers.put(viewer, this.nextSerial());
+        this.prune();
+        return pending;
+    }
+
+    /**
+     * Drops the containers whose player no longer has them open, and the packets every remaining one sent.
+     *
+     * @return whether any container is left
+     */
+    public boolean prune() {
+        this.viewers.keySet().removeIf(viewer -> !viewer.isOpenForAnyPlayer());
+        if (this.viewers.isEmpty()) {
+            this.clear();
+            return false;
+        }
+        this.trim();
+        return true;
+    }
+
+    /**
+     * Forgets all packets, for when no container is left to send them.
+     */
+    public void clear() {
+        this.historyStart += this.history.size();
+        this.history.clear();
+    }
+
+    private long nextSerial() {
+        return this.historyStart + this.history.size();
+    }
+
+    private void trim() {
+        long oldest = this.nextSerial();
+        for (final long serial : this.viewers.values()) {
+            oldest = Math.min(oldest, serial);
+        }
+        while (this.historyStart < oldest) {
+            this.history.removeFirst();
+            this.historyStart++;
+        }
+    }
+}
@@ -11,39 +11,22 @@
 
 package appeng.container.implementations;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Set;
-
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.nbt.NBTTagList;
 import net.minecraftforge.common.util.ForgeDirection;
 
-import com.google.common.primitives.Ints;
-
 import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridNode;
 import appeng.api.parts.IInterfaceTerminal;
-import appeng.api.util.DimensionalCoord;
-import appeng.api.util.IInterfaceViewable;
 import appeng.container.AEBaseContainer;
-import appeng.core.features.registries.InterfaceTerminalRegistry;
 import appeng.core.sync.network.NetworkHandler;
 import appeng.core.sync.packets.PacketInterfaceTerminalUpdate;
 import appeng.helpers.InventoryAction;
 import appeng.items.misc.ItemEncodedPattern;
-import appeng.parts.AEBasePart;
-import appeng.parts.p2p.PartP2PTunnel;
+import appeng.me.cache.InterfaceTerminalCache;
 import appeng.util.InventoryAdaptor;
 import appeng.util.Platform;
 import appeng.util.inv.AdaptorPlayerHand;
@@ -51,13 +34,11 @@ import appeng.util.inv.ItemSlot;
 
 public final class ContainerInterfaceTerminal extends AEBaseContainer {
 
-    private int nextId = 0;
-
-    private final Map<IInterfaceViewable, InvTracker> tracked = new HashMap<>();
-    private final Map<Long, InvTracker> trackedById = new HashMap<>();
-    private PacketInterfaceTerminalUpdate dirty;
-    private boolean isDirty;
     private IGrid grid;
+    // shared by all terminals of the grid, which get the same updates
+    private InterfaceTerminalCache terminals;
+    // the whole list, sent once the terminal is online
+    private PacketInterfaceTerminalUpdate initial;
     private final IInterfaceTerminal anchor;
     private boolean wasOff;
 
@@ -66,17 +47,21 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
         assert anchor != null;
         this.anchor = anchor;
         if (Platform.isServer()) {
-            this.grid = anchor.getActionableNode().getGrid();
-            dirty = this.updateList();
-            if (dirty != null) {
-                this.isDirty = true;
-            } else {
-                dirty = new PacketInterfaceTerminalUpdate();
-            }
+            this.setGrid(anchor.getActionableNode().getGrid());
         }
         this.bindPlayerInventory(ip, 14, 3);
     }
 
+    private void setGrid(final IGrid grid) {
+        if (this.terminals != null) {
+            this.terminals.leave(this);
+        }
+
+        this.grid = grid;
+        this.terminals = grid == null ? null : grid.getCache(InterfaceTerminalCache.class);
+        this.initial = this.terminals == null ? null : this.terminals.join(this);
+    }
+
     @Override
     public void detectAndSendChanges() {
         if (Platform.isClient()) {
@@ -85,11 +70,16 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
 
         super.detectAndSendChanges();
 
-        if (this.grid == null) {
-            return;
+        final IGridNode agn = this.anchor.getActionableNode();
+
+        if (agn.getGrid() != this.grid) {
+            // the terminal was moved to another grid, start over with its list
+            this.setGrid(agn.getGrid());
         }
 
-        final IGridNode agn = this.anchor.getActionableNode();
+        if (this.terminals == null) {
+            return;
+        }
 
         if (!agn.isActive()) {
             /*
@@ -109,24 +99,30 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
         }
         this.wasOff = false;
 
-        if (anchor.needsUpdate()) {
-            PacketInterfaceTerminalUpdate update = this.updateList();
-            if (update != null) {
-                update.encode();
-                NetworkHandler.instance.sendTo(update, (EntityPlayerMP) this.getPlayerInv().player);
-            }
-        } else if (isDirty) {
-            this.dirty.encode();
-            NetworkHandler.instance.sendTo(this.dirty, (EntityPlayerMP) this.getPlayerInv().player);
-            this.dirty = new PacketInterfaceTerminalUpdate();
-            this.isDirty = false;
+        if (this.initial != null) {
+            NetworkHandler.instance.sendTo(this.initial, (EntityPlayerMP) this.getPlayerInv().player);
+            this.initial = null;
+        }
+
+        for (final PacketInterfaceTerminalUpdate update : this.terminals.getUpdates(this)) {
+            NetworkHandler.instance.sendTo(update, (EntityPlayerMP) this.getPlayerInv().player);
+        }
+    }
+
+    @Override
+    public void onContainerClosed(final EntityPlayer player) {
+        super.onContainerClosed(player);
+
+        if (this.terminals != null) {
+            this.terminals.leave(this);
+            this.terminals = null;
         }
     }
 
     @Override
     public void doAction(final EntityPlayerMP player, final InventoryAction action, final int slot, final long id) {
-        final InvTracker inv = this.trackedById.get(id);
-        if (inv != null) {
+        final IInventory patterns = this.terminals == null ? null : this.terminals.getPatterns(id);
+        if (patterns != null) {
             final ItemStack handStack = player.inventory.getItemStack();
 
             if (handStack != null && !(handStack.getItem() instanceof ItemEncodedPattern)) {
@@ -134,16 +130,16 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
                 return;
             }
 
-            final ItemStack slotStack = inv.patterns.getStackInSlot(slot);
+            final ItemStack slotStack = patterns.getStackInSlot(slot);
             final InventoryAdaptor playerHand = new AdaptorPlayerHand(player);
 
             switch (action) {
                 /* Set down/pickup. This is the same as SPLIT_OR_PLACE_SINGLE as our max stack sizes are 1 in slots. */
                 case PICKUP_OR_SET_DOWN -> {
                     if (handStack != null) {
-                        for (int s = 0; s < inv.patterns.getSizeInventory(); s++) {
+                        for (int s = 0; s < patterns.getSizeInventory(); s++) {
                             /* Is there a duplicate pattern here? */
-                            if (Platform.isSameItemPrecise(inv.patterns.getStackInSlot(s), handStack)) {
+                            if (Platform.isSameItemPrecise(patterns.getStackInSlot(s), handStack)) {
                                 /* We're done here - dupe found. */
                                 return;
                             }
@@ -156,10 +152,10 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
                             /* Nothing happens */
                             return;
                         }
-                        if (!inv.patterns.isItemValidForSlot(slot, handStack)) {
+                        if (!patterns.isItemValidForSlot(slot, handStack)) {
                             return;
                         }
-                        inv.patterns.setInventorySlotContents(slot, playerHand.removeItems(1, null, null));
+                        patterns.setInventorySlotContents(slot, playerHand.removeItems(1, null, null));
                     } else {
                         /* Exchange? */
                         if (handStack != null && handStack.stackSize > 1) {
@@ -167,13 +163,13 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
                             return;
                         }
                         // if exchanging, make sure the item that we're inserting is valid
-                        if (handStack != null && !inv.patterns.isItemValidForSlot(slot, handStack)) {
+                        if (handStack != null && !patterns.isItemValidForSlot(slot, handStack)) {
                             return;
                         }
-                        inv.patterns.setInventorySlotContents(slot, playerHand.removeItems(1, null, null));
+                        patterns.setInventorySlotContents(slot, playerHand.removeItems(1, null, null));
                         playerHand.addItems(slotStack.copy());
                     }
-                    syncIfaceSlot(inv, id, slot, inv.patterns.getStackInSlot(slot));
+                    this.terminals.markSlotsChanged(id);
                 }
                 /* Shift click from slot -> player. Player -> slot is not supported. */
                 case SHIFT_CLICK -> {
@@ -181,17 +177,17 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
                     ItemStack leftOver = mergeToPlayerInventory(playerInv, slotStack);
 
                     if (leftOver == null) {
-                        inv.patterns.setInventorySlotContents(slot, null);
-                        syncIfaceSlot(inv, id, slot, null);
+                        patterns.setInventorySlotContents(slot, null);
+                        this.terminals.markSlotsChanged(id);
                     }
                 }
                 /* Move all blank patterns -> player */
                 case MOVE_REGION -> {
                     final InventoryAdaptor playerInv = InventoryAdaptor.getAdaptor(player, ForgeDirection.UNKNOWN);
-                    List<Integer> valid = new ArrayList<>();
+                    boolean moved = false;
 
-                    for (int i = 0; i < inv.patterns.getSizeInventory(); i++) {
-                        ItemStack toExtract = inv.patterns.getStackInSlot(i);
+                    for (int i = 0; i < patterns.getSizeInventory(); i++) {
+                        ItemStack toExtract = patterns.getStackInSlot(i);
 
                         if (toExtract == null) {
                             continue;
@@ -202,18 +198,12 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
                         if (leftOver != null) {
                             break;
                         } else {
-                            inv.patterns.setInventorySlotContents(i, null);
+                            patterns.setInventorySlotContents(i, null);
                         }
-                        valid.add(i);
+                        moved = true;
                     }
-                    if (valid.size() > 0) {
-                        int[] validIndices = Ints.toArray(valid);
-                        NBTTagList tag = new NBTTagList();
-                        for (int i = 0; i < valid.size(); ++i) {
-                            tag.appendTag(new NBTTagCompound());
-                        }
-                        dirty.addOverwriteEntry(id).setItems(validIndices, tag);
-                        isDirty = true;
+                    if (moved) {
+                        this.terminals.markSlotsChanged(id);
                     }
                 }
                 case CREATIVE_DUPLICATE -> {
@@ -230,29 +220,6 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
         }
     }
 
-    /**
-     * Since we are not using "slots" like MC and instead taking the Thaumic Energistics route, this is used to
-     * eventually send a packet to the client to indicate that a slot has changed. <br/>
-     * Why weren't slots used? Because at first I was more concerned about performance issues, and by the time I
-     * realized I was perhaps making a huge mistake in not using the notion of a "slot", I had already finished
-     * implementing my own version of a "slot". Because of this everything in this GUI is basically hand written. Also,
-     * the previous implementation was seemingly allocating slots. <br/>
-     * // rant over
-     */
-    private void syncIfaceSlot(InvTracker inv, long id, int slot, ItemStack stack) {
-        int[] validIndices = { slot };
-        NBTTagList list = new NBTTagList();
-        NBTTagCompound item = new NBTTagCompound();
-
-        if (stack != null) {
-            stack.writeToNBT(item);
-        }
-        list.appendTag(item);
-        inv.updateNBT();
-        this.dirty.addOverwriteEntry(id).setItems(validIndices, list);
-        this.isDirty = true;
-    }
-
     /**
      * Merge from slot -> player inv. Returns the items not added.
      */
@@ -268,182 +235,4 @@ public final class ContainerInterfaceTerminal extends AEBaseContainer {
         }
         return playerInv.addItems(stack);
     }
-
-    /**
-     * Finds out whether any updates are needed, and if so, incrementally updates the list.
-     */
-    private PacketInterfaceTerminalUpdate updateList() {
-        PacketInterfaceTerminalUpdate update = null;
-        var supported = InterfaceTerminalRegistry.instance().getSupportedClasses();
-        Set<IInterfaceViewable> visited = new HashSet<>();
-
-        for (Class<? extends IInterfaceViewable> c : supported) {
-            for (IGridNode node : grid.getMachines(c)) {
-                IInterfaceViewable machine = (IInterfaceViewable) node.getMachine();
-                /* First check if we are already tracking this node */
-                if (tracked.containsKey(machine)) {
-                    /* Check for updates */
-                    InvTracker known = tracked.get(machine);
-
-                    /* Name changed? */
-                    String name = machine.getName();
-
-                    if (!Objects.equals(known.name, name)) {
-                        if (update == null) update = new PacketInterfaceTerminalUpdate();
-                        update.addRenamedEntry(known.id, name);
-                        known.name = name;
-                    }
-
-                    /* Status changed? */
-                    boolean isActive = node.isActive();
-
-                    if (!known.online && isActive) {
-                        /* Node offline -> online */
-                        known.online = true;
-                        if (update == null) update = new PacketInterfaceTerminalUpdate();
-                        known.updateNBT();
-                        update.addOverwriteEntry(known.id).setOnline(true).setItems(new int[0], known.invNbt);
-                    } else if (known.online && !isActive) {
-                        /* Node online -> offline */
-                        known.online = false;
-                        if (update == null) update = new PacketInterfaceTerminalUpdate();
-                        update.addOverwriteEntry(known.id).setOnline(false);
-                    }
-
-                    // the machine should no longer be displayed
-                    // not displayed -> displayed is not possible here, we wouldn't be tracking it
-                    final boolean machineShouldDisplay = machine.shouldDisplay();
-                    if (known.shouldDisplay && !machineShouldDisplay) {
-                        known.shouldDisplay = false;
-                        // don't count the machine as visited, it will be removed
-                        continue;
-                    }
-
-                    // If the size changed, we need to do a full update of inventory
-                    if (known.rows != machine.rows() || known.rowSize != machine.rowSize()
-                            || known.numSlots != machine.numSlots()) {
-                        known.rows = machine.rows();
-                        known.rowSize = machine.rowSize();
-                        known.numSlots = machine.numSlots();
-                        known.updateNBT();
-                        if (update == null) update = new PacketInterfaceTerminalUpdate();
-                        update.addOverwriteEntry(known.id).setItems(new int[0], known.invNbt)
-                                .setSize(known.rows, known.rowSize, known.numSlots);
-                    }
-
-                    visited.add(machine);
-                } else {
-                    if (!machine.shouldDisplay()) continue;
-                    /* Add a new entry */
-                    if (update == null) update = new PacketInterfaceTerminalUpdate();
-                    InvTracker entry = new InvTracker(nextId++, machine, node.isActive());
-                    update.addNewEntry(entry.id, entry.name, entry.online)
-                            .setLoc(entry.x, entry.y, entry.z, entry.dim, entry.side.ordinal())
-                            .setItems(entry.rows, entry.rowSize, entry.numSlots, entry.invNbt)
-                            .setReps(machine.getSelfRep(), machine.getDisplayRep())
-                            .setP2POutput(machine instanceof PartP2PTunnel<?>p2pTunnel && p2pTunnel.isOutput());
-                    tracked.put(machine, entry);
-                    trackedById.put(entry.id, entry);
-                    visited.add(machine);
-                }
-            }
-        }
-
-        /* Now find any entries that we need to remove */
-        Iterator<Entry<IInterfaceViewable, InvTracker>> it = tracked.entrySet().iterator();
-        while (it.hasNext()) {
-            var entry = it.next();
-            if (visited.contains(entry.getKey())) {
-                continue;
-            }
-
-            if (update == null) update = new PacketInterfaceTerminalUpdate();
-
-            trackedById.remove(entry.getValue().id);
-            it.remove();
-            update.addRemovalEntry(entry.getValue().id);
-        }
-        return update;
-    }
-
-    private boolean isDifferent(final ItemStack a, final ItemStack b) {
-        if (a == null && b == null) {
-            return false;
-        }
-
-        if (a == null || b == null) {
-            return true;
-        }
-
-        return !ItemStack.areItemStacksEqual(a, b);
-    }
-
-    private static class InvTracker {
-
-        private final long id;
-        private boolean shouldDisplay;
-        private String name;
-        private final IInventory patterns;
-        private int rows;
-        private int rowSize;
-        private int numSlots;
-        private final int x;
-        private final int y;
-        private final int z;
-        private final int dim;
-        private final ForgeDirection side;
-        private boolean online;
-        private NBTTagList invNbt;
-
-        InvTracker(long id, IInterfaceViewable machine, boolean online) {
-            DimensionalCoord location = machine.getLocation();
-
-            this.id = id;
-            this.shouldDisplay = machine.shouldDisplay();
-            this.name = machine.getName();
-            this.patterns = machine.getPatterns();
-            this.rowSize = machine.rowSize();
-            this.rows = machine.rows();
-            this.numSlots = machine.numSlots();
-            this.x = location.x;
-            this.y = location.y;
-            this.z = location.z;
-            this.dim = location.getDimension();
-            this.side = machine instanceof AEBasePart hasSide ? hasSide.getSide() : ForgeDirection.UNKNOWN;
-            this.online = online;
-            this.invNbt = new NBTTagList();
-            updateNBT();
-        }
-
-        /**
-         * Refresh nbt items in the row, item idx.
-         */
-        private void updateNBT(int row, int idx) {
-            ItemStack stack = this.patterns.getStackInSlot(row * this.rowSize + idx);
-
-            if (stack != null) {
-                NBTTagCompound itemNbt = this.invNbt.getCompoundTagAt(idx);
-                stack.writeToNBT(itemNbt);
-            } else {
-                // replace
-                this.invNbt.func_150304_a(idx, new NBTTagCompound());
-            }
-        }
-
-        /**
-         * Refreshes all nbt tags.
-         */
-        private void updateNBT() {
-            this.invNbt = new NBTTagList();
-            for (int slot = 0; slot < this.numSlots; ++slot) {
-                ItemStack stack = this.patterns.getStackInSlot(slot);
-
-                if (stack != null) {
-                    this.invNbt.appendTag(stack.writeToNBT(new NBTTagCompound()));
-                } else {
-                    this.invNbt.appendTag(new NBTTagCompound());
-                }
-            }
-        }
-    }
 }
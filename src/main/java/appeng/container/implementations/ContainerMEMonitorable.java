@@ -16,13 +16,10 @@ import static appeng.util.IterationCounter.fetchNewId;
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
 import java.io.IOException;
-import java.nio.BufferOverflowException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 
@@ -59,11 +56,8 @@ import appeng.api.networking.IGridNode;
 import appeng.api.networking.crafting.ICraftingCPU;
 import appeng.api.networking.crafting.ICraftingGrid;
 import appeng.api.networking.energy.IEnergyGrid;
-import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.security.PlayerSource;
-import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.storage.IMEMonitor;
-import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.ITerminalHost;
 import appeng.api.storage.ITerminalPins;
 import appeng.api.storage.ITerminalTypeFilterProvider;
@@ -72,7 +66,6 @@ import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
-import appeng.api.storage.data.IItemList;
 import appeng.api.util.IConfigManager;
 import appeng.api.util.IConfigurableObject;
 import appeng.container.AEBaseContainer;
@@ -80,8 +73,8 @@ import appeng.container.guisync.GuiSync;
 import appeng.container.slot.AppEngSlot;
 import appeng.container.slot.SlotRestrictedInput;
 import appeng.core.AELog;
+import appeng.core.sync.AppEngPacket;
 import appeng.core.sync.network.NetworkHandler;
-import appeng.core.sync.packets.PacketMEInventoryUpdate;
 import appeng.core.sync.packets.PacketMonitorableTypeFilter;
 import appeng.core.sync.packets.PacketValueConfig;
 import appeng.helpers.IPinsHandler;
@@ -102,13 +95,13 @@ import it.unimi.dsi.fastutil.objects.ObjectLongPair;
 import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
 
 public class ContainerMEMonitorable extends AEBaseContainer
-        implements IConfigManagerHost, IConfigurableObject, IMEMonitorHandlerReceiver<IAEStack<?>>, IPinsHandler {
+        implements IConfigManagerHost, IConfigurableObject, IPinsHandler {
 
     private final SlotRestrictedInput[] cellView = new SlotRestrictedInput[5];
 
     private final IMEMonitor<IAEItemStack> itemMonitor;
     private final Map<IAEStackType<?>, IMEMonitor<?>> monitors = new IdentityHashMap<>();
-    private final Map<IAEStackType<?>, Set<IAEStack<?>>> updateQueue = new IdentityHashMap<>();
+    private TerminalSyncGroup syncGroup;
 
     private final IConfigManager clientCM;
     private final ITerminalHost host;
@@ -152,9 +145,7 @@ public class ContainerMEMonitorable extends AEBaseContainer
             for (IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
                 IMEMonitor<?> monitor = monitorable.getMEMonitor(type);
                 if (monitor != null) {
-                    monitor.addListener(this, null);
                     this.monitors.put(type, monitor);
-                    this.updateQueue.put(type, new HashSet<>());
                 }
             }
             this.itemMonitor = this.getMonitor(ITEM_STACK_TYPE);
@@ -243,35 +234,8 @@ public class ContainerMEMonitorable extends AEBaseContainer
                 }
             }
 
-            try {
-                final PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
-
-                for (var entry : this.updateQueue.entrySet()) {
-                    IItemList list = this.monitors.get(entry.getKey()).getStorageList();
-                    for (IAEStack<?> aes : entry.getValue()) {
-                        final IAEStack<?> send = list.findPrecise(aes);
-                        if (send == null) {
-                            aes.setStackSize(0);
-                            piu.appendItem(aes);
-                        } else {
-                            piu.appendItem(send);
-                        }
-                    }
-                }
-
-                if (!piu.isEmpty()) {
-                    for (var list : this.updateQueue.values()) {
-                        list.clear();
-                    }
-
-                    for (final Object c : this.crafters) {
-                        if (c instanceof EntityPlayer) {
-                            NetworkHandler.instance.sendTo(piu, (EntityPlayerMP) c);
-                        }
-                    }
-                }
-            } catch (final IOException e) {
-                AELog.debug(e);
+            if (this.syncGroup != null) {
+                this.syncGroup.sendUpdates(this);
             }
 
             this.updatePowerStatus();
@@ -332,51 +296,29 @@ public class ContainerMEMonitorable extends AEBaseContainer
                 }
             }
 
-            this.queueInventory(player);
+            this.syncGroup = TerminalSyncGroup.of(this.monitors);
+            this.syncGroup.sendInventory(this, player);
         }
     }
 
-    private void queueInventory(final EntityPlayerMP player) {
-        try {
-            PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
-
-            for (var monitor : this.monitors.values()) {
-                piu = queueInventoryList(piu, monitor.getStorageList(), player);
-            }
-
-            NetworkHandler.instance.sendTo(piu, player);
-        } catch (final IOException e) {
-            AELog.debug(e);
-        }
+    void sendToPlayer(final AppEngPacket packet, final EntityPlayerMP player) {
+        NetworkHandler.instance.sendTo(packet, player);
     }
 
-    @SuppressWarnings({ "rawtypes" })
-    private PacketMEInventoryUpdate queueInventoryList(PacketMEInventoryUpdate piu, IItemList monitorCache,
-            EntityPlayerMP player) {
-        try {
-            for (final IAEStack<?> send : (IItemList<?>) monitorCache) {
-                try {
-                    piu.appendItem(send);
-                } catch (final BufferOverflowException boe) {
-                    NetworkHandler.instance.sendTo(piu, player);
-
-                    piu = new PacketMEInventoryUpdate();
-                    piu.appendItem(send);
-                }
+    void sendToPlayers(final AppEngPacket packet) {
+        for (final Object c : this.crafters) {
+            if (c instanceof EntityPlayerMP player) {
+                NetworkHandler.instance.sendTo(packet, player);
             }
-        } catch (Exception ignored) {}
-
-        return piu;
+        }
     }
 
     @Override
     public void removeCraftingFromCrafters(final ICrafting c) {
         super.removeCraftingFromCrafters(c);
 
-        if (this.crafters.isEmpty()) {
-            for (IMEMonitor<?> monitor : this.monitors.values()) {
-                monitor.removeListener(this);
-            }
+        if (this.crafters.isEmpty() && this.syncGroup != null) {
+            this.syncGroup.leave(this);
         }
     }
 
@@ -384,30 +326,8 @@ public class ContainerMEMonitorable extends AEBaseContainer
     public void onContainerClosed(final EntityPlayer player) {
         super.onContainerClosed(player);
 
-        for (IMEMonitor<?> monitor : this.monitors.values()) {
-            monitor.removeListener(this);
-        }
-    }
-
-    @Override
-    public boolean isValid(final Object verificationToken) {
-        return true;
-    }
-
-    @Override
-    public void postChange(IBaseMonitor<IAEStack<?>> monitor, Iterable<IAEStack<?>> change,
-            BaseActionSource actionSource) {
-        for (final IAEStack<?> aes : change) {
-            this.updateQueue.get(aes.getStackType()).add(aes);
-        }
-    }
-
-    @Override
-    public void onListUpdate() {
-        for (final Object c : this.crafters) {
-            if (c instanceof EntityPlayerMP player) {
-                this.queueInventory(player);
-            }
+        if (this.syncGroup != null) {
+            this.syncGroup.leave(this);
         }
     }
 
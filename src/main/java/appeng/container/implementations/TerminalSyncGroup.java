@@ -0,0 +1,340 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.container.implementations;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.storage.IBaseMonitor;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.AEStackTypeRegistry;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IAEStackType;
+import appeng.api.storage.data.IItemList;
+import appeng.container.UpdateHistory;
+import appeng.core.AELog;
+import appeng.core.sync.packets.PacketMEInventoryDictionaryUpdate;
+import appeng.core.sync.packets.PacketMEInventoryDictionaryUpdate.StackDictionary;
+
+/**
+ * Inventory updates shared by all terminals looking at the same monitors, usually the terminals of one network. The
+ * changes are collected and encoded once against a shared {@link StackDictionary}, and the same packets are sent to
+ * the players of every terminal, instead of each terminal tracking, looking up and compressing the same changes.
+ * <p>
+ * Encoded packets are kept in an {@link UpdateHistory} until every terminal sent them.
+ */
+final class TerminalSyncGroup implements IMEMonitorHandlerReceiver<IAEStack<?>> {
+
+    private static final Map<List<IMEMonitor<?>>, TerminalSyncGroup> GROUPS = new HashMap<>();
+
+    private final List<IMEMonitor<?>> key;
+    private final Map<IAEStackType<?>, IMEMonitor<?>> monitors;
+    private final Map<IAEStackType<?>, Set<IAEStack<?>>> changes = new IdentityHashMap<>();
+    private StackDictionary dictionary = new StackDictionary();
+    private final UpdateHistory<ContainerMEMonitorable, PacketMEInventoryDictionaryUpdate> members;
+
+    private TerminalSyncGroup(final List<IMEMonitor<?>> key, final Map<IAEStackType<?>, IMEMonitor<?>> monitors) {
+        this.key = key;
+        this.monitors = monitors;
+        this.members = new UpdateHistory<>();
+        for (final IAEStackType<?> type : monitors.keySet()) {
+            this.changes.put(type, new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * @return the group of the monitors, a terminal joins it by {@link #sendInventory sending the inventory}
+     */
+    static TerminalSyncGroup of(final Map<IAEStackType<?>, IMEMonitor<?>> monitors) {
+        final List<IMEMonitor<?>> key = new ArrayList<>();
+        for (final IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
+            final IMEMonitor<?> monitor = monitors.get(type);
+            if (monitor != null) {
+                key.add(monitor);
+            }
+        }
+
+        TerminalSyncGroup group = GROUPS.get(key);
+        if (group == null) {
+            group = new TerminalSyncGroup(key, new IdentityHashMap<>(monitors));
+            for (final IMEMonitor<?> monitor : monitors.values()) {
+                monitor.addListener(group, null);
+            }
+            GROUPS.put(key, group);
+        }
+        return group;
+    }
+
+    void leave(final ContainerMEMonitorable container) {
+        if (!this.members.contains(container)) {
+            return;
+        }
+
+        if (!this.members.leave(container)) {
+            for (final IMEMonitor<?> monitor : this.monitors.values()) {
+                monitor.removeListener(this);
+            }
+            GROUPS.remove(this.key, this);
+        }
+    }
+
+    /**
+     * Sends the whole inventory to a player opening the terminal, the terminal receives the updates from now on.
+     */
+    void sendInventory(final ContainerMEMonitorable container, final EntityPlayerMP player) {
+        // other players of the same terminal must not miss what was encoded so far
+        this.sendUpdates(container);
+
+        final List<IAEStack<?>> claimed = new ArrayList<>();
+        for (final PacketMEInventoryDictionaryUpdate piu : this.encodeInventory(claimed)) {
+            container.sendToPlayer(piu, player);
+        }
+
+        // the other terminals need the definitions of stacks that got their handle just now
+        if (!claimed.isEmpty() && !this.members.isEmpty()) {
+            try {
+                PacketMEInventoryDictionaryUpdate piu = new PacketMEInventoryDictionaryUpdate(this.dictionary);
+                for (final IAEStack<?> stack : claimed) {
+                    piu = this.append(piu, stack, true);
+                }
+                this.publish(piu);
+            } catch (final IOException e) {
+                AELog.debug(e);
+            }
+        }
+        this.retire(this.dictionary.getUnmarked());
+
+        // the players of a terminal that is a member already get the packets published above with its next update
+        if (!this.members.contains(container)) {
+            this.members.join(container);
+        }
+    }
+
+    /**
+     * Sends the changes the terminal hasn't sent yet, encoding the collected changes if nobody did so far.
+     */
+    void sendUpdates(final ContainerMEMonitorable container) {
+        if (!this.members.contains(container)) {
+            return;
+        }
+        this.encodeChanges();
+
+        for (final PacketMEInventoryDictionaryUpdate piu : this.members.poll(container)) {
+            container.sendToPlayers(piu);
+        }
+    }
+
+    /**
+     * @return the dictionary the packets are encoded against at the moment
+     */
+    StackDictionary getDictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * Retires the handles of stacks that left the storage without a change being posted for them.
+     */
+    private void retire(final List<IAEStack<?>> gone) {
+        if (gone.isEmpty()) {
+            return;
+        }
+
+        try {
+            PacketMEInventoryDictionaryUpdate piu = new PacketMEInventoryDictionaryUpdate(this.dictionary);
+            for (final IAEStack<?> stack : gone) {
+                piu = this.retire(piu, stack.copy().reset());
+            }
+            this.publish(piu);
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+    }
+
+    private void publish(final PacketMEInventoryDictionaryUpdate piu) {
+        if (!piu.isEmpty()) {
+            this.members.publish(piu);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void encodeChanges() {
+        try {
+            PacketMEInventoryDictionaryUpdate piu = null;
+            for (final Map.Entry<IAEStackType<?>, Set<IAEStack<?>>> entry : this.changes.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+                if (piu == null) {
+                    piu = new PacketMEInventoryDictionaryUpdate(this.dictionary);
+                }
+
+                final IItemList list = this.monitors.get(entry.getKey()).getStorageList();
+                for (final IAEStack<?> aes : entry.getValue()) {
+                    final IAEStack<?> send = list.findPrecise(aes);
+                    if (send == null || !send.isMeaningful()) {
+                        // gone from the storage, the clients drop it and its handle is free again
+                        piu = this.retire(piu, send == null ? aes.copy().reset() : send);
+                    } else {
+                        piu = this.append(piu, send, false);
+                    }
+                }
+                entry.getValue().clear();
+            }
+            if (piu != null) {
+                this.publish(piu);
+            }
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+    }
+
+    /**
+     * Encodes what the storage holds now and marks every stack in it, stacks the dictionary knows that are left
+     * unmarked afterwards are gone from the storage.
+     *
+     * @param claimed collects the stacks that weren't known to the dictionary before
+     */
+    private List<PacketMEInventoryDictionaryUpdate> encodeInventory(final List<IAEStack<?>> claimed) {
+        final List<PacketMEInventoryDictionaryUpdate> packets = new ArrayList<>();
+        this.dictionary.startSweep();
+        try {
+            PacketMEInventoryDictionaryUpdate piu = new PacketMEInventoryDictionaryUpdate(this.dictionary);
+
+            for (final IMEMonitor<?> monitor : this.monitors.values()) {
+                for (final IAEStack<?> stack : (IItemList<?>) monitor.getStorageList()) {
+                    if (!stack.isMeaningful()) {
+                        continue;
+                    }
+                    if (!this.dictionary.isKnown(stack)) {
+                        claimed.add(stack);
+                    }
+                    piu = this.append(packets, piu, stack, true);
+                    this.dictionary.mark(stack);
+                }
+            }
+
+            // always sent, the client starts its dictionary over with the first packet of a new terminal
+            packets.add(piu);
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+        return packets;
+    }
+
+    private PacketMEInventoryDictionaryUpdate append(final PacketMEInventoryDictionaryUpdate piu,
+            final IAEStack<?> stack, final boolean define) throws IOException {
+        final List<PacketMEInventoryDictionaryUpdate> full = new ArrayList<>(1);
+        final PacketMEInventoryDictionaryUpdate next = this.append(full, piu, stack, define);
+        for (final PacketMEInventoryDictionaryUpdate packet : full) {
+            this.publish(packet);
+        }
+        return next;
+    }
+
+    private PacketMEInventoryDictionaryUpdate retire(PacketMEInventoryDictionaryUpdate piu, final IAEStack<?> stack)
+            throws IOException {
+        try {
+            piu.appendRetirement(stack);
+        } catch (final BufferOverflowException boe) {
+            this.publish(piu);
+            piu = new PacketMEInventoryDictionaryUpdate(this.dictionary);
+            piu.appendRetirement(stack);
+        }
+        return piu;
+    }
+
+    /**
+     * Appends the stack, starting a new packet once the current one is full.
+     */
+    private PacketMEInventoryDictionaryUpdate append(final List<PacketMEInventoryDictionaryUpdate> full,
+            PacketMEInventoryDictionaryUpdate piu, final IAEStack<?> stack, final boolean define) throws IOException {
+        try {
+            if (define) {
+                piu.appendDefinition(stack);
+            } else {
+                piu.appendItem(stack);
+            }
+        } catch (final BufferOverflowException boe) {
+            full.add(piu);
+            piu = new PacketMEInventoryDictionaryUpdate(this.dictionary);
+            if (define) {
+                piu.appendDefinition(stack);
+            } else {
+                piu.appendItem(stack);
+            }
+        }
+        return piu;
+    }
+
+    @Override
+    public boolean isValid(final Object verificationToken) {
+        return this.hasMembers();
+    }
+
+    private boolean hasMembers() {
+        if (!this.members.prune()) {
+            // the monitor drops this listener, the next terminal starts a new group
+            GROUPS.remove(this.key, this);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void postChange(final IBaseMonitor<IAEStack<?>> monitor, final Iterable<IAEStack<?>> change,
+            final BaseActionSource actionSource) {
+        for (final IAEStack<?> aes : change) {
+            final Set<IAEStack<?>> queue = this.changes.get(aes.getStackType());
+            if (queue != null) {
+                queue.add(aes);
+            }
+        }
+    }
+
+    @Override
+    public void onListUpdate() {
+        // changes queued so far are covered by the inventory sent now
+        for (final Set<IAEStack<?>> queue : this.changes.values()) {
+            queue.clear();
+        }
+        if (!this.hasMembers()) {
+            return;
+        }
+
+        final List<IAEStack<?>> claimed = new ArrayList<>();
+        List<PacketMEInventoryDictionaryUpdate> packets = this.encodeInventory(claimed);
+        List<IAEStack<?>> gone = this.dictionary.getUnmarked();
+        if (gone.size() * 2 > this.dictionary.size() - claimed.size()) {
+            // mostly a different storage, a new session is cheaper than retiring the handles one by one, the clients
+            // start over with its first packet
+            this.dictionary = new StackDictionary();
+            packets = this.encodeInventory(new ArrayList<>());
+            gone = Collections.emptyList();
+        }
+
+        for (final PacketMEInventoryDictionaryUpdate piu : packets) {
+            this.publish(piu);
+        }
+        this.retire(gone);
+    }
+}
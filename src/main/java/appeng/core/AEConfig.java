@@ -129,6 +129,10 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     public int maxRecursiveDepth = 100;
     public int maxMachineChecks = 10000;
 
+    public boolean incrementalStorageList = false;
+    public int gridTickBudgetMicros = 0;
+    public int craftingCalculationThreads = 0;
+
     public AEConfig(final File configFile) {
         super(configFile);
         this.configFile = configFile;
@@ -273,6 +277,19 @@ public final class AEConfig extends Configuration implements IConfigurableObject
         this.maxMachineChecks = this.get("networksearch", "maxMachineChecks", this.maxMachineChecks)
                 .getInt(this.maxMachineChecks);
 
+        final Property incrementalList = this.get("performance", "IncrementalStorageList", this.incrementalStorageList);
+        incrementalList.comment = "Keep the network storage list up to date by applying changes to it instead of rebuilding it from every storage after each change";
+        this.incrementalStorageList = incrementalList.getBoolean(this.incrementalStorageList);
+
+        final Property tickBudget = this.get("performance", "GridTickBudgetMicros", this.gridTickBudgetMicros);
+        tickBudget.comment = "Time in microseconds a grid may spend ticking its devices per tick before devices which aren't running at their fastest rate are put off to the next tick, 0 to disable";
+        this.gridTickBudgetMicros = Math.max(0, tickBudget.getInt(this.gridTickBudgetMicros));
+
+        final Property craftingThreads = this
+                .get("performance", "CraftingCalculationThreads", this.craftingCalculationThreads);
+        craftingThreads.comment = "Number of threads crafting calculations run on, shared fairly between players. 0 runs them on the server thread during the world tick instead";
+        this.craftingCalculationThreads = Math.max(0, craftingThreads.getInt(this.craftingCalculationThreads));
+
         this.clientSync();
 
         for (final AEFeature feature : AEFeature.values()) {
@@ -74,6 +74,7 @@ import appeng.items.materials.ItemMultiMaterial;
 import appeng.me.cache.CraftingGridCache;
 import appeng.me.cache.EnergyGridCache;
 import appeng.me.cache.GridStorageCache;
+import appeng.me.cache.InterfaceTerminalCache;
 import appeng.me.cache.P2PCache;
 import appeng.me.cache.PathGridCache;
 import appeng.me.cache.SecurityCache;
@@ -546,6 +547,7 @@ public final class Registration {
         gcr.registerGridCache(ISpatialCache.class, SpatialPylonCache.class);
         gcr.registerGridCache(ISecurityGrid.class, SecurityCache.class);
         gcr.registerGridCache(ICraftingGrid.class, CraftingGridCache.class);
+        gcr.registerGridCache(InterfaceTerminalCache.class, InterfaceTerminalCache.class);
 
         registries.externalStorage().addExternalStorageInterface(new AEExternalHandler());
 
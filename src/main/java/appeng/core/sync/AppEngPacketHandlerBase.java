@@ -33,6 +33,7 @@ import appeng.core.sync.packets.PacketHighlightBlockStorage;
 import appeng.core.sync.packets.PacketInterfaceTerminalUpdate;
 import appeng.core.sync.packets.PacketInventoryAction;
 import appeng.core.sync.packets.PacketLightning;
+import appeng.core.sync.packets.PacketMEInventoryDictionaryUpdate;
 import appeng.core.sync.packets.PacketMEInventoryUpdate;
 import appeng.core.sync.packets.PacketMatterCannon;
 import appeng.core.sync.packets.PacketMockExplosion;
@@ -137,7 +138,8 @@ public class AppEngPacketHandlerBase {
         PACKET_MONITORABLE_TYPE_FILTER(PacketMonitorableTypeFilter.class),
         PACKET_VIRTUAL_SLOT(PacketVirtualSlot.class),
         PACKET_COLOR_SELECT(PacketColorSelect.class),
-        PACKET_REMOTE_RENAME(PacketRemoteRename.class);
+        PACKET_REMOTE_RENAME(PacketRemoteRename.class),
+        PACKET_ME_INVENTORY_DICTIONARY_UPDATE(PacketMEInventoryDictionaryUpdate.class);
 
         private final Class<? extends AppEngPacket> packetClass;
         private final Constructor<? extends AppEngPacket> packetConstructor;
@@ -121,6 +121,10 @@ public class PacketInterfaceTerminalUpdate extends AppEngPacket {
         }
     }
 
+    public boolean isEmpty() {
+        return this.commands.isEmpty() && this.statusFlags == 0;
+    }
+
     /**
      * Remove all entries on the terminal. This is done BEFORE any entries are processed, so you can set this to clear
      * old entries, and add new ones after in one packet.
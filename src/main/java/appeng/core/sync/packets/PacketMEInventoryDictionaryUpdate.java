@@ -0,0 +1,387 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.sync.packets;
+
+import static appeng.util.Platform.readStackByte;
+import static appeng.util.Platform.readVarLong;
+import static appeng.util.Platform.writeStackByte;
+import static appeng.util.Platform.writeVarLong;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.entity.player.EntityPlayer;
+
+import appeng.api.storage.data.IAEStack;
+import appeng.client.gui.implementations.GuiMEMonitorable;
+import appeng.core.AELog;
+import appeng.core.sync.AppEngPacket;
+import appeng.core.sync.network.INetworkInfo;
+import cpw.mods.fml.common.network.ByteBufUtils;
+import cpw.mods.fml.common.network.internal.FMLProxyPacket;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Terminal inventory update where every stack is tied to a handle of a per container {@link StackDictionary}. The first
+ * time a stack is sent its full identity is written and the client remembers it under its handle, afterwards only the
+ * handle and the current amounts are sent. Once a stack left the storage its handle is retired, both sides forget it
+ * and the handle is handed out again for another stack.
+ */
+public class PacketMEInventoryDictionaryUpdate extends AppEngPacket {
+
+    private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 16 * 1024 * 1024;
+    private static final int OPERATION_BYTE_LIMIT = 2 * 1024;
+    private static final int TEMP_BUFFER_SIZE = 8 * 1024;
+
+    private static final int RECORD_DEFINE = 0;
+    private static final int RECORD_AMOUNT = 1;
+
+    private static final int FLAG_CRAFTABLE = 1;
+    private static final int FLAG_REQUESTABLE = 2;
+    private static final int FLAG_REQUESTABLE_CRAFTS = 4;
+    private static final int FLAG_RETIRED = 8;
+
+    private static final AtomicInteger SESSION_IDS = new AtomicInteger();
+
+    /**
+     * Stacks the client has been sent for the terminal it currently displays, only touched by the network thread.
+     */
+    private static final Int2ObjectMap<IAEStack<?>> CLIENT_DICTIONARY = new Int2ObjectOpenHashMap<>();
+    private static int clientSession = -1;
+
+    // input.
+    @Nullable
+    private final List<IAEStack<?>> list;
+
+    // output...
+    @Nullable
+    private final StackDictionary dictionary;
+
+    @Nullable
+    private final ByteBuf data;
+
+    @Nullable
+    private final GZIPOutputStream compressFrame;
+
+    @Nullable
+    private final ByteBuf stackBuffer;
+
+    private int writtenBytes = 0;
+    private boolean empty = true;
+    // the first packet of a session carries the whole inventory, whatever the client shows is replaced
+    private boolean startsSession = false;
+    private boolean finished = false;
+
+    // automatic.
+    public PacketMEInventoryDictionaryUpdate(final ByteBuf stream) throws IOException {
+        this.dictionary = null;
+        this.data = null;
+        this.compressFrame = null;
+        this.stackBuffer = null;
+        this.list = new ArrayList<>();
+
+        final int sessionId = stream.readInt();
+        if (sessionId != clientSession) {
+            CLIENT_DICTIONARY.clear();
+            clientSession = sessionId;
+            this.startsSession = true;
+        }
+
+        final ByteBuf uncompressed = Unpooled.buffer(stream.readableBytes() * 4);
+        try (GZIPInputStream gzReader = new GZIPInputStream(new ByteBufInputStream(stream), TEMP_BUFFER_SIZE)) {
+            while (uncompressed.writeBytes(gzReader, TEMP_BUFFER_SIZE) != -1) {
+                // read everything in bulk before decoding the records
+            }
+        }
+
+        while (uncompressed.readableBytes() > 0) {
+            final int header = ByteBufUtils.readVarInt(uncompressed, 5);
+            final int handle = header >>> 1;
+
+            if ((header & 1) == RECORD_DEFINE) {
+                final IAEStack<?> stack = readStackByte(uncompressed);
+                CLIENT_DICTIONARY.put(handle, stack.copy());
+                this.list.add(stack);
+                continue;
+            }
+
+            final int flags = uncompressed.readUnsignedByte();
+            final long stackSize = readVarLong(uncompressed);
+            final long requestable = (flags & FLAG_REQUESTABLE) != 0 ? readVarLong(uncompressed) : 0;
+            final long requestableCrafts = (flags & FLAG_REQUESTABLE_CRAFTS) != 0 ? readVarLong(uncompressed) : 0;
+
+            final IAEStack<?> known = CLIENT_DICTIONARY.get(handle);
+            if (known == null) {
+                AELog.debug("Received amount for unknown stack handle %d of session %d", handle, sessionId);
+                continue;
+            }
+
+            final IAEStack<?> stack = known.copy();
+            stack.setStackSize(stackSize);
+            stack.setCountRequestable(requestable);
+            stack.setCountRequestableCrafts(requestableCrafts);
+            stack.setCraftable((flags & FLAG_CRAFTABLE) != 0);
+            this.list.add(stack);
+
+            if ((flags & FLAG_RETIRED) != 0) {
+                CLIENT_DICTIONARY.remove(handle);
+            }
+        }
+
+        this.empty = this.list.isEmpty();
+    }
+
+    // api
+    public PacketMEInventoryDictionaryUpdate(final StackDictionary dictionary) throws IOException {
+        this.dictionary = dictionary;
+        this.data = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+        this.data.writeInt(this.getPacketID());
+        this.data.writeInt(dictionary.id);
+
+        this.compressFrame = new GZIPOutputStream(new ByteBufOutputStream(this.data), TEMP_BUFFER_SIZE);
+        this.stackBuffer = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+
+        this.list = null;
+    }
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void clientPacketData(final INetworkInfo network, final AppEngPacket packet, final EntityPlayer player) {
+        final GuiScreen gs = Minecraft.getMinecraft().currentScreen;
+
+        if (gs instanceof GuiMEMonitorable) {
+            if (this.startsSession) {
+                ((GuiMEMonitorable) gs).clearItems();
+            }
+            ((GuiMEMonitorable) gs).postUpdate(this.list);
+        }
+    }
+
+    @Nullable
+    @Override
+    public FMLProxyPacket getProxy() {
+        try {
+            this.finish();
+
+            this.configureWrite(this.data);
+            return super.getProxy();
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Completes the compressed stream, no more stacks can be appended afterwards.
+     */
+    public void finish() throws IOException {
+        if (!this.finished) {
+            this.finished = true;
+            this.compressFrame.close();
+        }
+    }
+
+    public void appendItem(final IAEStack<?> is) throws IOException, BufferOverflowException {
+        this.append(is, false);
+    }
+
+    /**
+     * Appends the full stack even if the dictionary already knows it, for clients which didn't receive its definition.
+     */
+    public void appendDefinition(final IAEStack<?> is) throws IOException, BufferOverflowException {
+        this.append(is, true);
+    }
+
+    /**
+     * Sends the last amounts of a stack that left the storage and retires its handle, unless the dictionary never
+     * handed one out for it: clients don't know such a stack and don't need to hear about it.
+     *
+     * @return whether anything was appended
+     */
+    public boolean appendRetirement(final IAEStack<?> is) throws IOException, BufferOverflowException {
+        final int handle = this.dictionary.handles.getInt(is);
+        if (handle == -1) {
+            return false;
+        }
+
+        final ByteBuf tmp = this.stackBuffer;
+        tmp.clear();
+        writeAmounts(tmp, handle, is, FLAG_RETIRED);
+        this.write(tmp);
+
+        // only release the handle once the retirement is part of the packet
+        this.dictionary.handles.removeInt(is);
+        this.dictionary.freeHandles.push(handle);
+        return true;
+    }
+
+    private void append(final IAEStack<?> is, final boolean define) throws IOException, BufferOverflowException {
+        final ByteBuf tmp = this.stackBuffer;
+        tmp.clear();
+
+        final int known = this.dictionary.handles.getInt(is);
+        final int handle = known == -1 ? this.dictionary.peekHandle() : known;
+
+        if (known == -1 || define) {
+            ByteBufUtils.writeVarInt(tmp, handle << 1 | RECORD_DEFINE, 5);
+            writeStackByte(is, tmp);
+        } else {
+            writeAmounts(tmp, handle, is, 0);
+        }
+        this.write(tmp);
+
+        // only claim the handle once the definition is part of the packet
+        if (known == -1) {
+            this.dictionary.handles.put(is.copy(), this.dictionary.claimHandle());
+        }
+    }
+
+    private static void writeAmounts(final ByteBuf tmp, final int handle, final IAEStack<?> is, final int extraFlags) {
+        final long requestable = is.getCountRequestable();
+        final long requestableCrafts = is.getCountRequestableCrafts();
+        final int flags = (is.isCraftable() ? FLAG_CRAFTABLE : 0) | (requestable != 0 ? FLAG_REQUESTABLE : 0)
+                | (requestableCrafts != 0 ? FLAG_REQUESTABLE_CRAFTS : 0) | extraFlags;
+
+        ByteBufUtils.writeVarInt(tmp, handle << 1 | RECORD_AMOUNT, 5);
+        tmp.writeByte(flags);
+        writeVarLong(tmp, is.getStackSize());
+        if (requestable != 0) {
+            writeVarLong(tmp, requestable);
+        }
+        if (requestableCrafts != 0) {
+            writeVarLong(tmp, requestableCrafts);
+        }
+    }
+
+    private void write(final ByteBuf tmp) throws IOException, BufferOverflowException {
+        if (this.writtenBytes + tmp.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
+            throw new BufferOverflowException();
+        }
+
+        this.writtenBytes += tmp.readableBytes();
+        this.compressFrame.write(tmp.array(), tmp.arrayOffset() + tmp.readerIndex(), tmp.readableBytes());
+        this.empty = false;
+    }
+
+    public int getLength() {
+        return this.data.readableBytes();
+    }
+
+    public boolean isEmpty() {
+        return this.empty;
+    }
+
+    /**
+     * Server side half of the dictionary, shared by the terminals looking at the same storage. Every packet created
+     * from it has to be sent to the players of all those terminals, otherwise their clients miss definitions.
+     */
+    public static final class StackDictionary {
+
+        private final int id = SESSION_IDS.incrementAndGet();
+        private final Object2IntMap<IAEStack<?>> handles = new Object2IntOpenHashMap<>();
+        // handles of retired stacks, handed out again before new ones so handles stay small
+        private final IntArrayList freeHandles = new IntArrayList();
+        private int nextHandle = 0;
+        // handles of the stacks the running sweep came across, see startSweep
+        private final BitSet marked = new BitSet();
+        private int markedCount = 0;
+
+        public StackDictionary() {
+            this.handles.defaultReturnValue(-1);
+        }
+
+        private int peekHandle() {
+            return this.freeHandles.isEmpty() ? this.nextHandle : this.freeHandles.topInt();
+        }
+
+        private int claimHandle() {
+            return this.freeHandles.isEmpty() ? this.nextHandle++ : this.freeHandles.popInt();
+        }
+
+        public boolean isKnown(final IAEStack<?> stack) {
+            return this.handles.containsKey(stack);
+        }
+
+        /**
+         * @return the handle of the stack, or -1 if none was handed out for it
+         */
+        public int getHandle(final IAEStack<?> stack) {
+            return this.handles.getInt(stack);
+        }
+
+        /**
+         * @return the number of stacks holding a handle
+         */
+        public int size() {
+            return this.handles.size();
+        }
+
+        /**
+         * Starts looking for stacks that left the storage unnoticed, every stack still in it has to be
+         * {@link #mark marked} before asking for the {@link #getUnmarked unmarked} ones.
+         */
+        public void startSweep() {
+            this.marked.clear();
+            this.markedCount = 0;
+        }
+
+        /**
+         * Marks the stack as still in the storage, stacks without a handle are ignored.
+         */
+        public void mark(final IAEStack<?> stack) {
+            final int handle = this.handles.getInt(stack);
+            if (handle != -1 && !this.marked.get(handle)) {
+                this.marked.set(handle);
+                this.markedCount++;
+            }
+        }
+
+        /**
+         * @return the stacks holding a handle that weren't marked since the sweep started, with the amounts they had
+         *         when their handle was handed out. The handles are only walked when some stack wasn't marked.
+         */
+        public List<IAEStack<?>> getUnmarked() {
+            if (this.markedCount == this.handles.size()) {
+                return Collections.emptyList();
+            }
+
+            final List<IAEStack<?>> unmarked = new ArrayList<>(this.handles.size() - this.markedCount);
+            for (final Object2IntMap.Entry<IAEStack<?>> entry : this.handles.object2IntEntrySet()) {
+                if (!this.marked.get(entry.getIntValue())) {
+                    unmarked.add(entry.getKey());
+                }
+            }
+            return unmarked;
+        }
+    }
+}
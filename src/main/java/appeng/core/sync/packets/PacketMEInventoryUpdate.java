@@ -14,10 +14,8 @@ import static appeng.util.Platform.readStackByte;
 import static appeng.util.Platform.writeStackByte;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.BufferOverflowException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -41,14 +39,15 @@ import cpw.mods.fml.common.network.internal.FMLProxyPacket;
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 
 public class PacketMEInventoryUpdate extends AppEngPacket {
 
     private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 16 * 1024 * 1024;
     private static final int OPERATION_BYTE_LIMIT = 2 * 1024;
-    private static final int TEMP_BUFFER_SIZE = 1024;
-    private static final int STREAM_MASK = 0xff;
+    private static final int TEMP_BUFFER_SIZE = 8 * 1024;
 
     // input.
     @Nullable
@@ -62,39 +61,31 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
     @Nullable
     private final GZIPOutputStream compressFrame;
 
+    /**
+     * Staging buffer every stack is serialized into before it is handed to the compressor, reused for all stacks of
+     * this packet.
+     */
+    @Nullable
+    private final ByteBuf stackBuffer;
+
     private int writtenBytes = 0;
     private boolean empty = true;
+    private boolean finished = false;
 
     // automatic.
     public PacketMEInventoryUpdate(final ByteBuf stream) throws IOException {
         this.data = null;
         this.compressFrame = null;
-        this.list = new LinkedList<>();
+        this.stackBuffer = null;
+        this.list = new ArrayList<>();
         this.ref = stream.readByte();
 
-        // int originalBytes = stream.readableBytes();
-
-        final GZIPInputStream gzReader = new GZIPInputStream(new InputStream() {
-
-            @Override
-            public int read() throws IOException {
-                if (stream.readableBytes() <= 0) {
-                    return -1;
-                }
-
-                return stream.readByte() & STREAM_MASK;
-            }
-        });
-
-        final ByteBuf uncompressed = Unpooled.buffer(stream.readableBytes());
-        final byte[] tmp = new byte[TEMP_BUFFER_SIZE];
-        while (gzReader.available() != 0) {
-            final int bytes = gzReader.read(tmp);
-            if (bytes > 0) {
-                uncompressed.writeBytes(tmp, 0, bytes);
+        final ByteBuf uncompressed = Unpooled.buffer(stream.readableBytes() * 4);
+        try (GZIPInputStream gzReader = new GZIPInputStream(new ByteBufInputStream(stream), TEMP_BUFFER_SIZE)) {
+            while (uncompressed.writeBytes(gzReader, TEMP_BUFFER_SIZE) != -1) {
+                // read everything in bulk before decoding the stacks
             }
         }
-        gzReader.close();
 
         while (uncompressed.readableBytes() > 0) {
             this.list.add(readStackByte(uncompressed));
@@ -115,13 +106,9 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
         this.data.writeInt(this.getPacketID());
         this.data.writeByte(this.ref);
 
-        this.compressFrame = new GZIPOutputStream(new OutputStream() {
-
-            @Override
-            public void write(final int value) throws IOException {
-                PacketMEInventoryUpdate.this.data.writeByte(value);
-            }
-        });
+        // bulk writes straight into the packet, without flushing the compressor per stack
+        this.compressFrame = new GZIPOutputStream(new ByteBufOutputStream(this.data), TEMP_BUFFER_SIZE);
+        this.stackBuffer = Unpooled.buffer(OPERATION_BYTE_LIMIT);
 
         this.list = null;
     }
@@ -156,7 +143,7 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
     @Override
     public FMLProxyPacket getProxy() {
         try {
-            this.compressFrame.close();
+            this.finish();
 
             this.configureWrite(this.data);
             return super.getProxy();
@@ -167,16 +154,26 @@ public class PacketMEInventoryUpdate extends AppEngPacket {
         return null;
     }
 
+    /**
+     * Completes the compressed stream, no more stacks can be appended afterwards.
+     */
+    public void finish() throws IOException {
+        if (!this.finished) {
+            this.finished = true;
+            this.compressFrame.close();
+        }
+    }
+
     public void appendItem(final IAEStack<?> is) throws IOException, BufferOverflowException {
-        final ByteBuf tmp = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+        final ByteBuf tmp = this.stackBuffer;
+        tmp.clear();
         writeStackByte(is, tmp);
 
-        this.compressFrame.flush();
         if (this.writtenBytes + tmp.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
             throw new BufferOverflowException();
         } else {
             this.writtenBytes += tmp.readableBytes();
-            this.compressFrame.write(tmp.array(), 0, tmp.readableBytes());
+            this.compressFrame.write(tmp.array(), tmp.arrayOffset() + tmp.readerIndex(), tmp.readableBytes());
             this.empty = false;
         }
     }
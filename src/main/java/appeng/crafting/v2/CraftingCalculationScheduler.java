@@ -0,0 +1,131 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting.v2;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import appeng.api.networking.crafting.ICraftingJob;
+import appeng.api.networking.security.PlayerSource;
+import appeng.core.AEConfig;
+import appeng.core.AELog;
+
+/**
+ * Runs crafting calculations on a fixed number of worker threads instead of the world tick. Jobs are run in slices of
+ * {@link AEConfig#craftingCalculationTimePerTick}, and the slices are handed out round-robin over the players (or
+ * grids, for jobs not started by a player) owning the jobs, so a player queueing many large jobs can't starve the
+ * calculations of everyone else.
+ */
+public final class CraftingCalculationScheduler {
+
+    public static final CraftingCalculationScheduler INSTANCE = new CraftingCalculationScheduler();
+
+    private final Map<Object, ArrayDeque<ICraftingJob<?>>> jobsByOwner = new HashMap<>();
+    private final ArrayDeque<Object> owners = new ArrayDeque<>();
+    private ExecutorService workers;
+
+    private CraftingCalculationScheduler() {}
+
+    /**
+     * @return true if crafting calculations should be run by this scheduler rather than the world tick
+     */
+    public static boolean isEnabled() {
+        return AEConfig.instance != null && AEConfig.instance.craftingCalculationThreads > 0;
+    }
+
+    /**
+     * @return the owner jobs are shared fairly between: the player who started the job or else its grid
+     */
+    public static Object getOwner(final CraftingContext context) {
+        if (context.actionSource instanceof PlayerSource ps && ps.player != null) {
+            return ps.player.getUniqueID();
+        }
+        return context.meGrid;
+    }
+
+    /**
+     * @return the worker threads, created with the configured thread count, at least one, on first use
+     */
+    public synchronized ExecutorService getWorkers() {
+        if (this.workers == null) {
+            final int threads = AEConfig.instance == null ? 1
+                    : Math.max(1, AEConfig.instance.craftingCalculationThreads);
+            final AtomicInteger count = new AtomicInteger();
+            final ThreadFactory factory = r -> {
+                final Thread thread = new Thread(r, "AE Crafting Calculator #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            };
+            this.workers = Executors.newFixedThreadPool(threads, factory);
+        }
+        return this.workers;
+    }
+
+    /**
+     * Queues the job for calculation, it keeps being simulated until {@link ICraftingJob#simulateFor(int)} reports
+     * that it is done.
+     */
+    public void submit(final ICraftingJob<?> job, final Object owner) {
+        synchronized (this) {
+            this.enqueue(job, owner);
+        }
+        this.getWorkers().execute(this::runSlice);
+    }
+
+    private void enqueue(final ICraftingJob<?> job, final Object owner) {
+        ArrayDeque<ICraftingJob<?>> jobs = this.jobsByOwner.get(owner);
+        if (jobs == null) {
+            this.jobsByOwner.put(owner, jobs = new ArrayDeque<>());
+            this.owners.addLast(owner);
+        }
+        jobs.addLast(job);
+    }
+
+    /**
+     * Every queued job has exactly one pending slice task, but a task doesn't run the job it was submitted for. It runs
+     * the next job of the next owner in line, which keeps the pool fair between owners.
+     */
+    private void runSlice() {
+        final Object owner;
+        final ICraftingJob<?> job;
+        synchronized (this) {
+            owner = this.owners.pollFirst();
+            if (owner == null) {
+                return;
+            }
+            final ArrayDeque<ICraftingJob<?>> jobs = this.jobsByOwner.get(owner);
+            job = jobs.pollFirst();
+            if (jobs.isEmpty()) {
+                this.jobsByOwner.remove(owner);
+            } else {
+                this.owners.addLast(owner);
+            }
+        }
+
+        boolean needsMoreWork;
+        try {
+            needsMoreWork = job.simulateFor(Math.max(1, AEConfig.instance.craftingCalculationTimePerTick));
+        } catch (final Throwable t) {
+            AELog.error(t, "Crafting calculation failed");
+            needsMoreWork = false;
+        }
+
+        if (needsMoreWork) {
+            this.submit(job, owner);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package appeng.crafting.v2;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -10,11 +11,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -39,13 +46,14 @@ import appeng.api.storage.data.IItemList;
 import appeng.container.ContainerNull;
 import appeng.core.AEConfig;
 import appeng.crafting.MECraftingInventory;
+import appeng.crafting.v2.resolvers.CraftableItemResolver.CraftFromPatternTask;
 import appeng.crafting.v2.resolvers.CraftingTask;
 import appeng.crafting.v2.resolvers.CraftingTask.State;
+import appeng.hooks.TickHandler;
 import appeng.me.cache.CraftingGridCache;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.util.Platform;
 import appeng.util.item.AEItemStack;
-import appeng.util.item.OreListMultiMap;
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.relauncher.Side;
 
@@ -54,6 +62,9 @@ import cpw.mods.fml.relauncher.Side;
  */
 public final class CraftingContext {
 
+    // how long a step waits for the server thread before the calculation is given up
+    private static final long SERVER_THREAD_TIMEOUT_SECONDS = 30;
+
     public final World world;
     public final IGrid meGrid;
     public final ICraftingGrid craftingGrid;
@@ -126,11 +137,18 @@ public final class CraftingContext {
     // State at the point when the last task executed.
     private CraftingTask.State finishedState = CraftingTask.State.FAILURE;
     private final ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> availablePatterns;
+    private final CraftingPlanCache.PatternSet patternSet;
     private final Map<IAEStack<?>, List<ICraftingPatternDetails>> precisePatternCache = new HashMap<>();
     private final Map<ICraftingPatternDetails, IAEItemStack> crafterIconCache = new HashMap<>();
-    private final OreListMultiMap<ICraftingPatternDetails> fuzzyPatternCache = new OreListMultiMap<>();
-    private final IdentityHashMap<ICraftingPatternDetails, Boolean> isPatternComplexCache = new IdentityHashMap<>();
     private final ClassToInstanceMap<Object> userCaches = MutableClassToInstanceMap.create();
+    // resolved up front, so a calculation running off the server thread doesn't touch the shared fake player cache
+    private final EntityPlayer craftingPlayer;
+    // crafter icons look at the world, so off the server thread they are only filled in once the job is done
+    private boolean deferCrafterIcons = false;
+    // set while the calculation runs on a worker thread, the world and the crafting event are then off limits
+    private volatile boolean offServerThread = false;
+    // substitute checks asked of the server thread, by pattern, ingredient and candidate
+    private final Map<List<Object>, Boolean> substituteChecks = new HashMap<>();
 
     public CraftingContext(@Nonnull World world, @Nonnull IGrid meGrid, @Nonnull BaseActionSource actionSource) {
         this.world = world;
@@ -141,7 +159,10 @@ public final class CraftingContext {
         this.itemModel = new MECraftingInventory(sg, true, false, true);
         this.byproductsInventory = new MECraftingInventory();
         this.availableCache = new MECraftingInventory(sg, false, false, false);
-        this.availablePatterns = craftingGrid.getCraftingMultiPatterns();
+        this.patternSet = craftingGrid instanceof CraftingGridCache cgc ? cgc.getPatternSet()
+                : new CraftingPlanCache.PatternSet(craftingGrid.getCraftingMultiPatterns());
+        this.availablePatterns = patternSet.getPatterns();
+        this.craftingPlayer = world instanceof WorldServer ? Platform.getPlayer((WorldServer) world) : null;
     }
 
     /**
@@ -174,7 +195,86 @@ public final class CraftingContext {
         queueNextTaskOf(processing, true);
     }
 
+    /**
+     * Prepares the calculation to continue on a worker thread, called on the server thread. From then on,
+     * {@link #getCrafterIconForPattern(ICraftingPatternDetails)} returns null until
+     * {@link #resolveDeferredCrafterIcons()} is called on the server thread, and work needing the world is passed to
+     * {@link #callOnServerThread(Supplier)}.
+     */
+    public void moveOffServerThread() {
+        this.deferCrafterIcons = true;
+        this.offServerThread = true;
+    }
+
+    /**
+     * Runs work which needs the world, like simulating a craft or matching a recipe. Off the server thread the work is
+     * queued for the next server tick, and only the calling step waits for it, the rest of the calculation stays where
+     * it runs.
+     */
+    public <V> V callOnServerThread(Supplier<V> work) {
+        if (!this.offServerThread) {
+            return work.get();
+        }
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        TickHandler.INSTANCE.addCallable(null, ignored -> {
+            try {
+                result.complete(work.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+            return null;
+        });
+        try {
+            return result.get(SERVER_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the server thread", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // the server is stopping or stuck, the calculation is given up
+            throw new IllegalStateException("Timed out waiting for the server thread", e);
+        }
+    }
+
+    /**
+     * Checks whether a stack may replace an ingredient of a pattern. Crafting patterns match their recipe for this,
+     * which needs the world, so off the server thread every answer is asked for once and then remembered.
+     *
+     * @param ingredient the slot or the stack of the ingredient in the pattern
+     */
+    public boolean isValidSubstitute(ICraftingPatternDetails pattern, Object ingredient, IAEStack<?> stack,
+            BooleanSupplier check) {
+        if (!this.offServerThread || !pattern.isCraftable()) {
+            return check.getAsBoolean();
+        }
+        return this.substituteChecks.computeIfAbsent(
+                Arrays.asList(pattern, ingredient, stack.copy()),
+                ignored -> this.callOnServerThread(check::getAsBoolean));
+    }
+
+    /**
+     * Fills in the crafter icons of the resolved tasks which were left out while the icons were deferred.
+     */
+    public void resolveDeferredCrafterIcons() {
+        if (!this.deferCrafterIcons) {
+            return;
+        }
+        this.deferCrafterIcons = false;
+        for (CraftingTask task : resolvedTasks) {
+            if (task instanceof CraftFromPatternTask cfpt && cfpt.craftingMachine == null) {
+                cfpt.craftingMachine = getCrafterIconForPattern(cfpt.pattern);
+            }
+        }
+    }
+
     public IAEItemStack getCrafterIconForPattern(@Nonnull ICraftingPatternDetails pattern) {
+        if (deferCrafterIcons) {
+            return crafterIconCache.get(pattern);
+        }
         return crafterIconCache.computeIfAbsent(pattern, ignored -> {
             if (craftingGrid instanceof CraftingGridCache) {
                 final List<ICraftingMedium> mediums = ((CraftingGridCache) craftingGrid).getMediums(pattern);
@@ -201,19 +301,7 @@ public final class CraftingContext {
 
     public List<ICraftingPatternDetails> getFuzzyPatternsFor(@Nonnull IAEStack<?> stack) {
         if (stack instanceof IAEItemStack aiStack) {
-            if (!fuzzyPatternCache.isPopulated()) {
-                for (final ImmutableList<ICraftingPatternDetails> patternSet : availablePatterns.values()) {
-                    for (final ICraftingPatternDetails pattern : patternSet) {
-                        if (pattern.canBeSubstitute()) {
-                            for (final IAEStack<?> output : pattern.getOutputs()) {
-                                if (output instanceof IAEItemStack ais) fuzzyPatternCache.put(ais.copy(), pattern);
-                            }
-                        }
-                    }
-                }
-                fuzzyPatternCache.freeze();
-            }
-            return fuzzyPatternCache.get(aiStack);
+            return patternSet.getFuzzyPatterns().get(aiStack);
         } else return getPrecisePatternsFor(stack);
     }
 
@@ -225,21 +313,75 @@ public final class CraftingContext {
         if (!pattern.isCraftable()) {
             return false;
         }
-        final Boolean cached = isPatternComplexCache.get(pattern);
-        if (cached != null) {
-            return cached;
+        return Arrays.stream(getCraftLeftovers(pattern)).anyMatch(Objects::nonNull);
+    }
+
+    private IAEItemStack[] getCraftLeftovers(ICraftingPatternDetails pattern) {
+        IAEItemStack[] leftovers = patternSet.getCraftLeftovers(pattern);
+        if (leftovers == null) {
+            simulatePatterns(Collections.singletonList(pattern));
+            leftovers = patternSet.getCraftLeftovers(pattern);
+        }
+        return leftovers;
+    }
+
+    /**
+     * Simulates a craft with those of the crafting patterns which weren't yet, for every calculation on the same
+     * patterns. Only the patterns a calculation looks at are simulated, and off the server thread those found for one
+     * request are simulated together in one server tick.
+     */
+    public void simulatePatterns(Collection<ICraftingPatternDetails> patterns) {
+        final List<ICraftingPatternDetails> missing = new ArrayList<>();
+        for (ICraftingPatternDetails pattern : patterns) {
+            if (pattern.isCraftable() && patternSet.getCraftLeftovers(pattern) == null) {
+                missing.add(pattern);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
         }
+        callOnServerThread(() -> {
+            for (ICraftingPatternDetails pattern : missing) {
+                patternSet.setCraftLeftovers(
+                        pattern,
+                        simulateCraftingOnServerThread((IAEItemStack[]) pattern.getAEInputs(), pattern));
+            }
+            return null;
+        });
+    }
 
-        final IAEStack<?>[] inputs = pattern.getAEInputs();
-        final IAEItemStack[] mcOutputs = simulateComplexCrafting((IAEItemStack[]) inputs, pattern);
+    /**
+     * Like {@link #simulateComplexCrafting(IAEItemStack[], ICraftingPatternDetails)}, but off the server thread a craft
+     * with the pattern's own inputs reuses the leftovers simulated for the pattern, only crafts with substituted inputs
+     * wait for the server thread.
+     */
+    public IAEItemStack[] getComplexCraftingLeftovers(IAEItemStack[] inputSlots, ICraftingPatternDetails pattern) {
+        if (!offServerThread || !hasOwnInputs(inputSlots, pattern)) {
+            return simulateComplexCrafting(inputSlots, pattern);
+        }
+        final IAEItemStack[] leftovers = getCraftLeftovers(pattern);
+        final IAEItemStack[] copy = new IAEItemStack[leftovers.length];
+        for (int i = 0; i < leftovers.length; i++) {
+            copy[i] = leftovers[i] == null ? null : leftovers[i].copy();
+        }
+        return copy;
+    }
 
-        final boolean isComplex = Arrays.stream(mcOutputs).anyMatch(Objects::nonNull);
-        isPatternComplexCache.put(pattern, isComplex);
-        return isComplex;
+    private static boolean hasOwnInputs(IAEItemStack[] inputSlots, ICraftingPatternDetails pattern) {
+        final IAEStack<?>[] ownInputs = pattern.getAEInputs();
+        for (int i = 0; i < Math.max(ownInputs.length, inputSlots.length); i++) {
+            final IAEStack<?> own = i < ownInputs.length ? ownInputs[i] : null;
+            final IAEItemStack input = i < inputSlots.length ? inputSlots[i] : null;
+            if (own == null ? input != null : input == null || !own.isSameType(input)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Simulates doing 1 craft with a crafting table.
+     * Simulates doing 1 craft with a crafting table. It fires the crafting event, so off the server thread it waits
+     * for the server thread to do it.
      *
      * @param inputSlots 3x3 crafting matrix contents
      * @return What remains in the 3x3 crafting matrix
@@ -248,13 +390,17 @@ public final class CraftingContext {
         if (inputSlots.length > 9) {
             throw new IllegalArgumentException(inputSlots.length + " slots supplied to a simulated crafting task");
         }
+        return callOnServerThread(() -> simulateCraftingOnServerThread(inputSlots, pattern));
+    }
+
+    private IAEItemStack[] simulateCraftingOnServerThread(IAEItemStack[] inputSlots, ICraftingPatternDetails pattern) {
         final InventoryCrafting simulatedWorkbench = new InventoryCrafting(new ContainerNull(), 3, 3);
         for (int i = 0; i < inputSlots.length; i++) {
             simulatedWorkbench.setInventorySlotContents(i, inputSlots[i] == null ? null : inputSlots[i].getItemStack());
         }
-        if (world instanceof WorldServer) {
+        if (craftingPlayer != null) {
             FMLCommonHandler.instance().firePlayerCraftingEvent(
-                    Platform.getPlayer((WorldServer) world),
+                    craftingPlayer,
                     pattern.getOutput(simulatedWorkbench, world),
                     simulatedWorkbench);
         }
@@ -54,7 +54,10 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
         CANCELLED
     }
 
-    protected State state = State.RUNNING;
+    protected volatile State state = State.RUNNING;
+    // set when the calculation runs off the server thread, the result is then published on the server thread
+    protected boolean completeOnServerThread = false;
+    protected boolean completing = false;
 
     public CraftingJobV2(final World world, final IGrid meGrid, final BaseActionSource actionSource,
             final StackType what, final ICraftingCallback callback) {
@@ -192,8 +195,8 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
     }
 
     @Override
-    public boolean simulateFor(int milli) {
-        if (this.state != State.RUNNING) {
+    public synchronized boolean simulateFor(int milli) {
+        if (this.state != State.RUNNING || this.completing) {
             return false;
         }
         final long startTime = System.currentTimeMillis();
@@ -207,31 +210,57 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
         } catch (Exception e) {
             AELog.error(e, "Error while simulating crafting for " + originalRequest);
             errorMessage = e.toString();
-            this.state = State.CANCELLED;
-            if (callback != null) {
-                callback.calculationComplete(this);
-            }
+            this.complete(State.CANCELLED);
             return false;
         }
 
         if (!taskState.needsMoreWork) {
             getByteTotal();
-            this.state = State.FINISHED;
+            this.complete(State.FINISHED);
+        }
+
+        return taskState.needsMoreWork;
+    }
+
+    private void complete(State result) {
+        if (!this.completeOnServerThread) {
+            this.finish(result);
+            return;
+        }
+        this.completing = true;
+        TickHandler.INSTANCE.addCallable(null, ignored -> {
+            this.finish(result);
+            return null;
+        });
+    }
+
+    private void finish(State result) {
+        if (result == State.FINISHED) {
+            if (this.state != State.RUNNING) {
+                // cancelled while waiting for the server thread
+                return;
+            }
+            context.resolveDeferredCrafterIcons();
             if (AELog.isCraftingDebugLogEnabled()) {
                 AELog.log(Level.INFO, "Crafting job for %s finished with resolved steps:", originalRequest.toString());
                 AELog.logSimple(Level.INFO, context.toString());
             }
-            if (callback != null) {
-                callback.calculationComplete(this);
-            }
         }
-
-        return taskState.needsMoreWork;
+        this.state = result;
+        if (callback != null) {
+            callback.calculationComplete(this);
+        }
     }
 
     @Override
     public Future<ICraftingJob<StackType>> schedule() {
-        TickHandler.INSTANCE.registerCraftingSimulation(this.context.world, this);
+        if (CraftingCalculationScheduler.isEnabled()) {
+            this.completeOnServerThread = true;
+            this.context.moveOffServerThread();
+            CraftingCalculationScheduler.INSTANCE.submit(this, CraftingCalculationScheduler.getOwner(this.context));
+        } else {
+            TickHandler.INSTANCE.registerCraftingSimulation(this.context.world, this);
+        }
         return this;
     }
 
@@ -276,7 +305,10 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
 
     @Override
     public CraftingJobV2 get() throws InterruptedException, ExecutionException {
-        this.simulateFor(Integer.MAX_VALUE);
+        if (this.state == State.RUNNING) {
+            // a worker may be inside simulateFor waiting for the server thread, don't wait for it when done already
+            this.simulateFor(Integer.MAX_VALUE);
+        }
         return this;
     }
 
@@ -0,0 +1,358 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting.v2;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import appeng.api.config.CraftingMode;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.crafting.ICraftingGrid;
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.storage.IBaseMonitor;
+import appeng.api.networking.storage.IStorageGrid;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.AEStackTypeRegistry;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IAEStackType;
+import appeng.crafting.v2.CraftingContext.RequestInProcessing;
+import appeng.crafting.v2.CraftingRequest.SubstitutionMode;
+import appeng.util.item.OreListMultiMap;
+
+/**
+ * Per grid memory of crafting calculations, so repeated requests don't redo work whose inputs haven't changed.
+ * <ul>
+ * <li>The {@link PatternSet} holds everything the calculations derive from the patterns alone. It is shared by all
+ * jobs until the patterns of the grid change.</li>
+ * <li>Machines (interfaces, level emitters) keep requesting the same amount of an item while it can't be crafted.
+ * Such failed plans are remembered and handed out again, until the patterns change or storage changes on one of the
+ * stacks the plan looked at.</li>
+ * </ul>
+ * Everything but the {@link PatternSet} is only used from the server thread.
+ */
+public class CraftingPlanCache implements IMEMonitorHandlerReceiver<IAEStack> {
+
+    private static final int MAX_FAILED_PLANS = 256;
+    // larger plans are cheaper to recalculate than to track
+    private static final int MAX_INVOLVED_STACKS = 4096;
+
+    private final IGrid grid;
+    private volatile PatternSet patternSet;
+    private int patternVersion = 0;
+    private final Map<PlanKey, FailedPlan> failedPlans = new LinkedHashMap<PlanKey, FailedPlan>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<PlanKey, FailedPlan> eldest) {
+            if (this.size() > MAX_FAILED_PLANS) {
+                CraftingPlanCache.this.unindex(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<IAEStack<?>, Set<PlanKey>> plansByStack = new HashMap<>();
+    private final Map<CraftingJobV2<?>, PendingPlan> pendingPlans = new WeakHashMap<>();
+    private boolean listening = false;
+
+    public CraftingPlanCache(final IGrid grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * @return the pattern derived data for the current patterns of the grid, only to be called on the server thread
+     */
+    public PatternSet getPatternSet(final ICraftingGrid craftingGrid) {
+        PatternSet set = this.patternSet;
+        if (set == null) {
+            this.patternSet = set = new PatternSet(craftingGrid.getCraftingMultiPatterns());
+        }
+        return set;
+    }
+
+    /**
+     * Forgets everything derived from the previous patterns.
+     */
+    public void onPatternsChanged() {
+        this.patternSet = null;
+        this.patternVersion++;
+        this.clearFailedPlans();
+    }
+
+    /**
+     * @return a failed plan of a previous request for the same amount which is still up to date, or null
+     */
+    public CraftingJobV2<?> getFailedPlan(final IAEStack<?> stack, final CraftingMode mode) {
+        final FailedPlan plan = this.failedPlans.get(new PlanKey(stack, mode));
+        return plan == null ? null : plan.job;
+    }
+
+    /**
+     * Starts collecting storage changes for a job, so its result can be discarded if they affect it.
+     */
+    public void onJobStarted(final CraftingJobV2<?> job, final IAEStack<?> stack, final CraftingMode mode) {
+        if (!this.listening) {
+            final IStorageGrid storage = this.grid.getCache(IStorageGrid.class);
+            for (IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
+                final IMEMonitor monitor = storage.getMEMonitor(type);
+                if (monitor != null) {
+                    monitor.addListener(this, this.grid);
+                }
+            }
+            this.listening = true;
+        }
+        this.pendingPlans.put(job, new PendingPlan(new PlanKey(stack, mode), this.patternVersion));
+    }
+
+    /**
+     * Remembers the job if it failed, nothing changed since it started and it was precise enough to tell which
+     * storage changes make it outdated.
+     */
+    public void onJobCompleted(final CraftingJobV2<?> job) {
+        final PendingPlan pending = this.pendingPlans.remove(job);
+        if (pending == null || pending.outdated || pending.patternVersion != this.patternVersion) {
+            return;
+        }
+        if (job.isCancelled() || !job.isSimulation()) {
+            return;
+        }
+
+        final Set<IAEStack<?>> involved = new HashSet<>();
+        for (RequestInProcessing request : job.getContext().getLiveRequests()) {
+            if (request.request.substitutionMode == SubstitutionMode.ACCEPT_FUZZY) {
+                return;
+            }
+            final IAEStack<?> stack = request.request.stack.copy();
+            stack.setStackSize(0);
+            involved.add(stack);
+            if (involved.size() > MAX_INVOLVED_STACKS) {
+                return;
+            }
+        }
+        for (IAEStack<?> stack : involved) {
+            if (pending.changed.contains(stack)) {
+                return;
+            }
+        }
+
+        final FailedPlan previous = this.failedPlans.put(pending.key, new FailedPlan(job, involved));
+        if (previous != null) {
+            this.unindex(pending.key, previous);
+        }
+
+        for (IAEStack<?> stack : involved) {
+            this.plansByStack.computeIfAbsent(stack, s -> new HashSet<>()).add(pending.key);
+        }
+    }
+
+    /**
+     * Stops listening to storage and forgets all plans, for when the grid is split or dropped. Listening starts again
+     * with the next job.
+     */
+    public void detach() {
+        if (this.listening) {
+            final IStorageGrid storage = this.grid.getCache(IStorageGrid.class);
+            for (IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
+                final IMEMonitor monitor = storage.getMEMonitor(type);
+                if (monitor != null) {
+                    monitor.removeListener(this);
+                }
+            }
+            this.listening = false;
+        }
+        this.clearFailedPlans();
+    }
+
+    private void unindex(final PlanKey key, final FailedPlan plan) {
+        for (IAEStack<?> stack : plan.involved) {
+            final Set<PlanKey> keys = this.plansByStack.get(stack);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                this.plansByStack.remove(stack);
+            }
+        }
+    }
+
+    private void clearFailedPlans() {
+        this.failedPlans.clear();
+        this.plansByStack.clear();
+        for (PendingPlan pending : this.pendingPlans.values()) {
+            pending.outdated = true;
+        }
+    }
+
+    @Override
+    public boolean isValid(final Object verificationToken) {
+        return verificationToken == this.grid;
+    }
+
+    @Override
+    public void postChange(final IBaseMonitor<IAEStack> monitor, final Iterable<IAEStack> change,
+            final BaseActionSource actionSource) {
+        if (this.failedPlans.isEmpty() && this.pendingPlans.isEmpty()) {
+            return;
+        }
+
+        for (IAEStack<?> stack : change) {
+            final Set<PlanKey> keys = this.plansByStack.remove(stack);
+            if (keys != null) {
+                for (PlanKey key : keys) {
+                    final FailedPlan plan = this.failedPlans.remove(key);
+                    if (plan != null) {
+                        this.unindex(key, plan);
+                    }
+                }
+            }
+
+            for (PendingPlan pending : this.pendingPlans.values()) {
+                if (pending.outdated) {
+                    continue;
+                }
+                if (pending.changed.size() >= MAX_INVOLVED_STACKS) {
+                    pending.outdated = true;
+                } else {
+                    final IAEStack<?> changed = stack.copy();
+                    changed.setStackSize(0);
+                    pending.changed.add(changed);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onListUpdate() {
+        this.clearFailedPlans();
+    }
+
+    /**
+     * Pattern derived data shared between the crafting calculations of a grid. Calculations may run off the server
+     * thread, so everything here is immutable or safe for concurrent use.
+     */
+    public static final class PatternSet {
+
+        private final ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> patterns;
+        private volatile OreListMultiMap<ICraftingPatternDetails> fuzzyPatterns;
+        // written on the server thread only, crafting can't be simulated elsewhere
+        private final Map<ICraftingPatternDetails, IAEItemStack[]> craftLeftovers = Collections
+                .synchronizedMap(new IdentityHashMap<>());
+
+        public PatternSet(final ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> patterns) {
+            this.patterns = patterns;
+        }
+
+        public ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> getPatterns() {
+            return this.patterns;
+        }
+
+        /**
+         * @return the substitutable patterns, indexed by the ore dictionary entries of their outputs
+         */
+        public OreListMultiMap<ICraftingPatternDetails> getFuzzyPatterns() {
+            OreListMultiMap<ICraftingPatternDetails> fuzzy = this.fuzzyPatterns;
+            if (fuzzy == null) {
+                synchronized (this) {
+                    fuzzy = this.fuzzyPatterns;
+                    if (fuzzy == null) {
+                        fuzzy = new OreListMultiMap<>();
+                        for (final ImmutableList<ICraftingPatternDetails> patternSet : this.patterns.values()) {
+                            for (final ICraftingPatternDetails pattern : patternSet) {
+                                if (pattern.canBeSubstitute()) {
+                                    for (final IAEStack<?> output : pattern.getOutputs()) {
+                                        if (output instanceof IAEItemStack ais) fuzzy.put(ais.copy(), pattern);
+                                    }
+                                }
+                            }
+                        }
+                        fuzzy.freeze();
+                        this.fuzzyPatterns = fuzzy;
+                    }
+                }
+            }
+            return fuzzy;
+        }
+
+        /**
+         * @return what one craft with the pattern's own inputs leaves in the crafting grid, or null if it wasn't
+         *         simulated yet
+         */
+        public IAEItemStack[] getCraftLeftovers(final ICraftingPatternDetails pattern) {
+            return this.craftLeftovers.get(pattern);
+        }
+
+        public void setCraftLeftovers(final ICraftingPatternDetails pattern, final IAEItemStack[] leftovers) {
+            this.craftLeftovers.put(pattern, leftovers);
+        }
+    }
+
+    private static final class PlanKey {
+
+        private final IAEStack<?> stack;
+        private final long amount;
+        private final CraftingMode mode;
+
+        private PlanKey(final IAEStack<?> stack, final CraftingMode mode) {
+            this.stack = stack.copy();
+            this.amount = stack.getStackSize();
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey other)) {
+                return false;
+            }
+            return this.amount == other.amount && this.mode == other.mode && this.stack.equals(other.stack);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.stack, this.amount, this.mode);
+        }
+    }
+
+    private static final class FailedPlan {
+
+        private final CraftingJobV2<?> job;
+        private final Set<IAEStack<?>> involved;
+
+        private FailedPlan(final CraftingJobV2<?> job, final Set<IAEStack<?>> involved) {
+            this.job = job;
+            this.involved = involved;
+        }
+    }
+
+    private static final class PendingPlan {
+
+        private final PlanKey key;
+        private final int patternVersion;
+        private final Set<IAEStack<?>> changed = new HashSet<>();
+        private boolean outdated = false;
+
+        private PendingPlan(final PlanKey key, final int patternVersion) {
+            this.key = key;
+            this.patternVersion = patternVersion;
+        }
+    }
+}
@@ -363,7 +363,7 @@ public class CraftableItemResolver implements CraftingRequestResolver {
                             inputs[slot] = resolvedItem.copy();
                         }
                     }
-                    final IAEStack<?>[] leftovers = context.simulateComplexCrafting(inputs, pattern);
+                    final IAEStack<?>[] leftovers = context.getComplexCraftingLeftovers(inputs, pattern);
 
                     for (IAEStack<?> leftover : leftovers) {
                         if (leftover == null || leftover.getStackSize() <= 0) {
@@ -442,7 +442,11 @@ public class CraftableItemResolver implements CraftingRequestResolver {
                                 childMode,
                                 allowSimulation,
                                 request.craftingMode,
-                                stack -> this.isValidSubstitute(input, stack, context.world, finalSlot));
+                                stack -> context.isValidSubstitute(
+                                        pattern,
+                                        finalSlot,
+                                        stack,
+                                        () -> this.isValidSubstitute(input, stack, context.world, finalSlot)));
                         complexRequestPerSlot.add(req);
                         newChildren.add(req);
                         childRequests.add(new RequestAndPerCraftAmount(req, input.getStackSize()));
@@ -468,7 +472,11 @@ public class CraftableItemResolver implements CraftingRequestResolver {
                                     childMode,
                                     allowSimulation,
                                     request.craftingMode,
-                                    stack -> this.isValidSubstitute(recInput, stack, context.world));
+                                    stack -> context.isValidSubstitute(
+                                            pattern,
+                                            recInput,
+                                            stack,
+                                            () -> this.isValidSubstitute(recInput, stack, context.world)));
                             newChildren.add(req);
                             childRecursionRequests.put(recInput, req);
                         }
@@ -496,7 +504,11 @@ public class CraftableItemResolver implements CraftingRequestResolver {
                                 childMode,
                                 allowSimulation,
                                 request.craftingMode,
-                                stack -> this.isValidSubstitute(input, stack, context.world));
+                                stack -> context.isValidSubstitute(
+                                        pattern,
+                                        input,
+                                        stack,
+                                        () -> this.isValidSubstitute(input, stack, context.world)));
                         newChildren.add(req);
                         childRequests.add(new RequestAndPerCraftAmount(req, input.getStackSize()));
                     }
@@ -679,6 +691,7 @@ public class CraftableItemResolver implements CraftingRequestResolver {
             fuzzyPatterns.sort(Comparator.comparing(ICraftingPatternDetails::getPriority).reversed());
             patterns.addAll(fuzzyPatterns);
         }
+        context.simulatePatterns(patterns);
         int priority = CraftingTask.PRIORITY_CRAFT_OFFSET + patterns.size() - 1;
 
         tasks.ensureCapacity(patterns.size() + 1);
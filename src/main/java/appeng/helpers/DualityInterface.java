@@ -138,6 +138,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
     public static final int NUMBER_OF_STORAGE_SLOTS = 9;
     public static final int NUMBER_OF_CONFIG_SLOTS = 9;
     public static final int NUMBER_OF_PATTERN_SLOTS = 9;
+    private static final int MAX_BATCH_SIZE = 64;
 
     private static final Collection<Block> BAD_BLOCKS = new HashSet<>(100);
     private final int[] sides = { 0, 1, 2, 3, 4, 5, 6, 7, 8 };
@@ -1216,6 +1217,86 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
     @Override
     public boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table) {
+        return this.pushPattern(patternDetails, table, false);
+    }
+
+    /**
+     * Batches of item patterns go to neighbouring inventories that take all inputs of that many copies. Each input is
+     * simulated on its own, so a full inventory may still leave some behind, to be sent later like for single pushes.
+     */
+    @Override
+    public int getMaxBatchSize(final ICraftingPatternDetails patternDetails) {
+        if (this.hasItemsToSend() || this.isBlocking()
+                || !this.gridProxy.isActive()
+                || this.craftingList == null
+                || !this.craftingList.contains(patternDetails)
+                || this.cm.getSetting(Settings.LOCK_CRAFTING_MODE) != LockCraftingMode.NONE) {
+            return 1;
+        }
+
+        final IAEStack<?>[] inputs = patternDetails.getCondensedAEInputs();
+        for (final IAEStack<?> input : inputs) {
+            if (!(input instanceof IAEItemStack)) {
+                return 1;
+            }
+        }
+
+        final TileEntity tile = this.iHost.getTileEntity();
+        final World w = tile.getWorldObj();
+        final List<InventoryAdaptor> targets = new ArrayList<>();
+        for (final ForgeDirection s : this.iHost.getTargets()) {
+            final TileEntity te = w
+                    .getTileEntity(tile.xCoord + s.offsetX, tile.yCoord + s.offsetY, tile.zCoord + s.offsetZ);
+            if (te == null || te.getClass().getName().equals("li.cil.oc.common.tileentity.Adapter")) continue;
+
+            // crafting machines take one plan per push
+            if (te instanceof ICraftingMachine cm && cm.acceptsPlans()) return 1;
+
+            final InventoryAdaptor ad = InventoryAdaptor.getAdaptor(te, s.getOpposite());
+            if (ad != null) {
+                targets.add(ad);
+            }
+        }
+
+        int copies = MAX_BATCH_SIZE;
+        while (copies > 1 && !this.acceptsCopies(targets, inputs, copies)) {
+            copies /= 2;
+        }
+        return copies;
+    }
+
+    private boolean acceptsCopies(final List<InventoryAdaptor> targets, final IAEStack<?>[] inputs, final int copies) {
+        for (final InventoryAdaptor ad : targets) {
+            boolean fits = true;
+            for (final IAEStack<?> input : inputs) {
+                final IAEStack<?> batch = input.copy();
+                batch.setStackSize(input.getStackSize() * copies);
+                final IAEStack<?> leftover = ad.simulateAddStack(batch, getInsertionMode());
+                if (leftover != null && leftover.getStackSize() > 0) {
+                    fits = false;
+                    break;
+                }
+            }
+            if (fits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean pushPatternBatch(final ICraftingPatternDetails patternDetails, final InventoryCrafting table,
+            final int copies) {
+        // the crafting lock only expects the outputs of a single copy
+        if (copies > 1 && this.cm.getSetting(Settings.LOCK_CRAFTING_MODE) != LockCraftingMode.NONE) {
+            scheduledReason = ScheduledReason.LOCK_MODE;
+            return false;
+        }
+        return this.pushPattern(patternDetails, table, copies > 1);
+    }
+
+    private boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table,
+            final boolean batch) {
         if (this.hasItemsToSend() || !this.gridProxy.isActive() || !this.craftingList.contains(patternDetails)) {
             scheduledReason = ScheduledReason.SOMETHING_STUCK;
             return false;
@@ -1264,7 +1345,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
             if (te instanceof ICraftingMachine cm) {
                 if (cm.acceptsPlans()) {
-                    if (cm.pushPattern(patternDetails, table, s.getOpposite())) {
+                    if (!batch && cm.pushPattern(patternDetails, table, s.getOpposite())) {
                         onPushPatternSuccess(te, s.getOpposite(), patternDetails);
                         return true;
                     }
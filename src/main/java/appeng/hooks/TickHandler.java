@@ -17,6 +17,7 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.WeakHashMap;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
@@ -54,7 +55,8 @@ import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
 public class TickHandler {
 
     public static final TickHandler INSTANCE = new TickHandler();
-    private final Queue<IWorldCallable<?>> serverQueue = new LinkedList<>();
+    // must be a thread safe collection since crafting calculations complete on their own threads
+    private final Queue<IWorldCallable<?>> serverQueue = new ConcurrentLinkedQueue<>();
     private final Multimap<World, ICraftingJob> craftingJobs = LinkedListMultimap.create();
     private final WeakHashMap<World, Queue<IWorldCallable<?>>> callQueue = new WeakHashMap<>();
     private final HandlerRep server = new HandlerRep();
@@ -12,8 +12,6 @@ import appeng.api.features.IWirelessTermHandler;
 import appeng.api.implementations.guiobjects.IGuiItemObject;
 import appeng.api.networking.IGridHost;
 import appeng.api.networking.IGridNode;
-import appeng.api.networking.events.MENetworkBootingStatusChange;
-import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.api.parts.IInterfaceTerminal;
 import appeng.api.util.AECableType;
 import appeng.container.interfaces.IInventorySlotAware;
@@ -27,7 +25,6 @@ import cpw.mods.fml.relauncher.SideOnly;
 public class WirelessInterfaceTerminalGuiObject implements IInterfaceTerminal, IGuiItemObject, ICustomButtonProvider,
         IInventorySlotAware, IPrimaryGuiIconProvider {
 
-    private boolean needsUpdate;
     private final IGridNode node;
     private final ItemStack is;
     private final int slotIndex;
@@ -76,21 +73,6 @@ public class WirelessInterfaceTerminalGuiObject implements IInterfaceTerminal, I
     @Override
     public void securityBreak() {}
 
-    @Override
-    public boolean needsUpdate() {
-        boolean ret = needsUpdate;
-
-        needsUpdate = false;
-        return ret;
-    }
-
-    @MENetworkEventSubscribe
-    public void onNetworkBootingChanged(MENetworkBootingStatusChange event) {
-        if (!event.isBooting) {
-            this.needsUpdate = true;
-        }
-    }
-
     @Override
     public ItemStack getItemStack() {
         return this.is;
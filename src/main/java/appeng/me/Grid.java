@@ -34,6 +34,7 @@ import appeng.core.AEConfig;
 import appeng.core.worlddata.WorldData;
 import appeng.hooks.TickHandler;
 import appeng.me.cache.CraftingGridCache;
+import appeng.me.profiler.GridProfiler;
 import appeng.parts.misc.PartStorageBus;
 import appeng.util.ReadOnlyCollection;
 
@@ -210,6 +211,13 @@ public class Grid implements IGrid {
         return new ReadOnlyCollection<>(machineKeys);
     }
 
+    /**
+     * @return the live set of machines of the class, or null if none of them ever joined this grid
+     */
+    MachineSet getMachineSet(final Class<?> c) {
+        return this.machines.get(c);
+    }
+
     @Override
     public IMachineSet getMachines(final Class<? extends IGridHost> c) {
         final MachineSet s = this.machines.get(c);
@@ -262,14 +270,24 @@ public class Grid implements IGrid {
     }
 
     public void update() {
+        final boolean profileAll = GridProfiler.isEnabled();
         long time = 0;
-        if (isProfiling()) time = System.nanoTime();
+        if (isProfiling() || profileAll) time = System.nanoTime();
         for (final IGridCache gc : this.caches.values()) {
             // are there any nodes left?
             if (this.pivot != null) {
-                gc.onUpdateTick();
+                if (profileAll) {
+                    final long cacheTime = System.nanoTime();
+                    gc.onUpdateTick();
+                    GridProfiler.recordCacheTick(this, gc.getClass(), System.nanoTime() - cacheTime);
+                } else {
+                    gc.onUpdateTick();
+                }
             }
         }
+        if (profileAll) {
+            GridProfiler.recordGridTick(this, System.nanoTime() - time);
+        }
         if (isProfiling()) {
             ++timeStatisticsIndex;
             if (timeStatisticsIndex == PROFILING_SAMPLE_COUNT) {
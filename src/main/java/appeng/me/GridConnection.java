@@ -11,7 +11,9 @@
 package appeng.me;
 
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -33,6 +35,8 @@ import appeng.api.util.IReadOnlyCollection;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
+import appeng.me.cache.CraftingGridCache;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.Platform;
 import appeng.util.ReadOnlyCollection;
@@ -42,6 +46,28 @@ public class GridConnection implements IGridConnection, IPathItem {
     private static final String EXISTING_CONNECTION_MESSAGE = "Connection between node [machine=%s, %s] and [machine=%s, %s] on [%s] already exists.";
 
     private static final MENetworkChannelsChanged EVENT = new MENetworkChannelsChanged();
+    private static final GridConnectivity.Graph<GridNode, IGridConnection> GRAPH = new GridConnectivity.Graph<>() {
+
+        @Override
+        public Iterable<IGridConnection> getEdges(final GridNode node) {
+            return node.getConnections();
+        }
+
+        @Override
+        public GridNode getOtherSide(final IGridConnection edge, final GridNode node) {
+            return (GridNode) edge.getOtherSide(node);
+        }
+
+        @Override
+        public boolean isTreeEdge(final IGridConnection edge) {
+            return ((GridConnection) edge).treeEdge;
+        }
+
+        @Override
+        public void setTreeEdge(final IGridConnection edge, final boolean treeEdge) {
+            ((GridConnection) edge).treeEdge = treeEdge;
+        }
+    };
     /**
      * Will be modified during pathing and should not be exposed outside of that purpose.
      */
@@ -51,6 +77,9 @@ public class GridConnection implements IGridConnection, IPathItem {
      */
     private int lastUsedChannels = 0;
     private Object visitorIterationNumber = null;
+    // number given by the last pathing calculation that reached this item
+    private Object pathingCalculation = null;
+    private int pathingIndex = -1;
     /**
      * Note that in grids with a controller, following this side will always lead down the closest path towards the
      * controller.
@@ -58,6 +87,10 @@ public class GridConnection implements IGridConnection, IPathItem {
     private GridNode sideA;
     private ForgeDirection fromAtoB;
     private GridNode sideB;
+    /**
+     * Part of the spanning tree of the grid, only removing those can split it. See {@link GridConnectivity}.
+     */
+    private boolean treeEdge;
 
     @Override
     public IGridNode getOtherSide(final IGridNode gridNode) {
@@ -95,13 +128,42 @@ public class GridConnection implements IGridConnection, IPathItem {
 
         // a connection was destroyed RE-PATH!!
         final IPathingGrid p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        if (p instanceof PathGridCache pathGrid) {
+            pathGrid.onConnectionRemoved(this);
+        } else {
+            p.repath();
+        }
 
         this.sideA.removeConnection(this);
         this.sideB.removeConnection(this);
 
-        this.sideA.validateGrid();
-        this.sideB.validateGrid();
+        if (this.treeEdge) {
+            this.splitGrid();
+        }
+    }
+
+    /**
+     * Moves the smaller of the two halves into a new grid, the larger one keeps the grid.
+     */
+    private void splitGrid() {
+        final Set<GridNode> half = GridConnectivity.findSplit(GRAPH, this.sideA, this.sideB);
+        if (half == null) {
+            return;
+        }
+
+        final Grid grid = this.sideA.getInternalGrid();
+        if (half.contains(grid.getPivot())) {
+            // hand the pivot to the larger half, so it stays with the grid and only the smaller half is walked
+            grid.setPivot(half.contains(this.sideA) ? this.sideB : this.sideA);
+        }
+
+        CraftingGridCache.pauseRebuilds();
+        final Iterator<GridNode> nodes = half.iterator();
+        final Grid newGrid = new Grid(nodes.next());
+        while (nodes.hasNext()) {
+            nodes.next().setGrid(newGrid);
+        }
+        CraftingGridCache.unpauseRebuilds();
     }
 
     @Override
@@ -156,6 +218,22 @@ public class GridConnection implements IGridConnection, IPathItem {
         this.usedChannels += usedChannels;
     }
 
+    @Override
+    public int getAssignedChannels() {
+        return this.usedChannels;
+    }
+
+    @Override
+    public void setPathingIndex(final Object calculation, final int index) {
+        this.pathingCalculation = calculation;
+        this.pathingIndex = index;
+    }
+
+    @Override
+    public int getPathingIndex(final Object calculation) {
+        return this.pathingCalculation == calculation ? this.pathingIndex : -1;
+    }
+
     @Override
     public EnumSet<GridFlags> getFlags() {
         return EnumSet.noneOf(GridFlags.class);
@@ -247,6 +325,8 @@ public class GridConnection implements IGridConnection, IPathItem {
         this.sideA = a;
         this.fromAtoB = fromAtoB == null ? ForgeDirection.UNKNOWN : fromAtoB;
         this.sideB = b;
+        // joining two grids extends the spanning tree, a connection inside a grid is redundant
+        this.treeEdge = a.getMyGrid() == null || a.getMyGrid() != b.getMyGrid();
 
         mergeGrids(a, b);
 
@@ -258,10 +338,15 @@ public class GridConnection implements IGridConnection, IPathItem {
             AELog.info("Repath is triggered by adding connection from [%s] to [%s]", aCoordinates, bCoordinates);
             AELog.printStackTrace(Level.INFO);
         }
-        p.repath();
 
         this.sideA.addConnection(this);
         this.sideB.addConnection(this);
+
+        if (p instanceof PathGridCache pathGrid) {
+            pathGrid.onConnectionAdded(this);
+        } else {
+            p.repath();
+        }
     }
 
     /**
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+/**
+ * Tells whether removing a connection split a grid, without walking the whole grid.
+ * <p>
+ * The connections of every grid are divided into a spanning tree and the remaining connections. A connection joining
+ * two grids becomes part of the tree, one inside a grid doesn't. Removing a connection outside of the tree can't split
+ * the grid. Removing a tree connection breaks the tree into two halves, which are walked at the same pace until the
+ * smaller one is complete, so the cost only depends on the size of the smaller half. Any connection leaving that half
+ * replaces the removed one in the tree, if there is none the grid split.
+ */
+public final class GridConnectivity {
+
+    private GridConnectivity() {}
+
+    /**
+     * The nodes and connections the spanning tree is kept for.
+     */
+    public interface Graph<N, E> {
+
+        Iterable<E> getEdges(N node);
+
+        N getOtherSide(E edge, N node);
+
+        boolean isTreeEdge(E edge);
+
+        void setTreeEdge(E edge, boolean treeEdge);
+    }
+
+    /**
+     * To be called once a tree connection between a and b was removed from the graph.
+     *
+     * @return null if a and b are still connected, otherwise the nodes of the smaller of the two new grids
+     */
+    public static <N, E> Set<N> findSplit(final Graph<N, E> graph, final N a, final N b) {
+        final Set<N> visitedA = new ReferenceOpenHashSet<>();
+        final Set<N> visitedB = new ReferenceOpenHashSet<>();
+        final ArrayDeque<N> openA = new ArrayDeque<>();
+        final ArrayDeque<N> openB = new ArrayDeque<>();
+        visitedA.add(a);
+        openA.add(a);
+        visitedB.add(b);
+        openB.add(b);
+
+        final Set<N> half;
+        while (true) {
+            if (openA.isEmpty()) {
+                half = visitedA;
+                break;
+            }
+            if (openB.isEmpty()) {
+                half = visitedB;
+                break;
+            }
+            visitTreeEdges(graph, openA.poll(), visitedA, openA);
+            visitTreeEdges(graph, openB.poll(), visitedB, openB);
+        }
+
+        for (final N node : half) {
+            for (final E edge : graph.getEdges(node)) {
+                if (!graph.isTreeEdge(edge) && !half.contains(graph.getOtherSide(edge, node))) {
+                    graph.setTreeEdge(edge, true);
+                    return null;
+                }
+            }
+        }
+        return half;
+    }
+
+    /**
+     * @return all nodes connected to the start node
+     */
+    public static <N, E> Set<N> collect(final Graph<N, E> graph, final N start) {
+        final Set<N> visited = new ReferenceOpenHashSet<>();
+        final ArrayDeque<N> open = new ArrayDeque<>();
+        visited.add(start);
+        open.add(start);
+        while (!open.isEmpty()) {
+            visitTreeEdges(graph, open.poll(), visited, open);
+        }
+        return visited;
+    }
+
+    private static <N, E> void visitTreeEdges(final Graph<N, E> graph, final N node, final Set<N> visited,
+            final ArrayDeque<N> open) {
+        for (final E edge : graph.getEdges(node)) {
+            if (graph.isTreeEdge(edge)) {
+                final N other = graph.getOtherSide(edge, node);
+                if (visited.add(other)) {
+                    open.add(other);
+                }
+            }
+        }
+    }
+}
@@ -45,6 +45,7 @@ import appeng.core.features.AEFeature;
 import appeng.core.worlddata.WorldData;
 import appeng.hooks.TickHandler;
 import appeng.me.cache.CraftingGridCache;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.tile.networking.TileController;
 import appeng.util.IWorldCallable;
@@ -64,6 +65,9 @@ public class GridNode implements IGridNode, IPathItem {
     private GridStorage myStorage = null;
     private Grid myGrid;
     private Object visitorIterationNumber = null;
+    // number given by the last pathing calculation that reached this item
+    private Object pathingCalculation = null;
+    private int pathingIndex = -1;
     // connection criteria
     private int compressedData = 0;
     /**
@@ -136,15 +140,6 @@ public class GridNode implements IGridNode, IPathItem {
         return false;
     }
 
-    void validateGrid() {
-        final GridSplitDetector gsd = new GridSplitDetector(this.getInternalGrid().getPivot());
-        this.beginVisit(gsd);
-        if (!gsd.isPivotFound()) {
-            final IGridVisitor gp = new GridPropagator(new Grid(this));
-            this.beginVisit(gp);
-        }
-    }
-
     public Grid getInternalGrid() {
         if (this.myGrid == null) {
             this.myGrid = new Grid(this);
@@ -602,6 +597,22 @@ public class GridNode implements IGridNode, IPathItem {
         this.usedChannels += usedChannels;
     }
 
+    @Override
+    public int getAssignedChannels() {
+        return this.usedChannels;
+    }
+
+    @Override
+    public void setPathingIndex(final Object calculation, final int index) {
+        this.pathingCalculation = calculation;
+        this.pathingIndex = index;
+    }
+
+    @Override
+    public int getPathingIndex(final Object calculation) {
+        return this.pathingCalculation == calculation ? this.pathingIndex : -1;
+    }
+
     @Override
     public EnumSet<GridFlags> getFlags() {
         return this.gridProxy.getFlags();
@@ -620,6 +631,7 @@ public class GridNode implements IGridNode, IPathItem {
 
             if (this.getInternalGrid() != null) {
                 this.getInternalGrid().postEventTo(this, EVENT);
+                ((PathGridCache) this.getInternalGrid().getCache(IPathingGrid.class)).onChannelsChanged(this);
             }
         }
     }
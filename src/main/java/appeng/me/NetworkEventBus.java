@@ -10,6 +10,11 @@
 
 package appeng.me;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,8 +34,13 @@ public class NetworkEventBus {
 
     private static final Collection<Class> READ_CLASSES = new HashSet<>();
     private static final Map<Class<? extends MENetworkEvent>, Map<Class, MENetworkEventInfo>> EVENTS = new HashMap<>();
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    // the subscribers of each event type present on the grid, rebuilt when a new machine class joins it
+    private final Map<Class<? extends MENetworkEvent>, Subscriber[]> subscribersByEvent = new HashMap<>();
 
     void readClass(final Class listAs, final Class c) {
+        this.subscribersByEvent.clear();
         if (READ_CLASSES.contains(c)) {
             return;
         }
@@ -73,22 +83,20 @@ public class NetworkEventBus {
     }
 
     MENetworkEvent postEvent(final Grid g, final MENetworkEvent e) {
-        final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(e.getClass());
+        final Subscriber[] subscribers = this.getSubscribers(g, e.getClass());
         int x = 0;
 
         try {
-            if (subscribers != null) {
-                for (final Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet()) {
-                    final MENetworkEventInfo target = subscriber.getValue();
-                    final IGridCache cache = g.getCaches().get(subscriber.getKey());
-                    if (cache != null) {
-                        x++;
-                        target.invoke(cache, e);
-                    }
+            for (final Subscriber subscriber : subscribers) {
+                if (subscriber.cache != null) {
+                    x++;
+                    subscriber.target.invoke(subscriber.cache, e);
+                }
 
-                    for (final IGridNode obj : g.getMachines(subscriber.getKey())) {
+                if (subscriber.machines != null) {
+                    for (final IGridNode obj : subscriber.machines) {
                         x++;
-                        target.invoke(obj.getMachine(), e);
+                        subscriber.target.invoke(obj.getMachine(), e);
                     }
                 }
             }
@@ -100,6 +108,28 @@ public class NetworkEventBus {
         return e;
     }
 
+    private Subscriber[] getSubscribers(final Grid g, final Class<? extends MENetworkEvent> event) {
+        Subscriber[] subscribers = this.subscribersByEvent.get(event);
+        if (subscribers == null) {
+            final Map<Class, MENetworkEventInfo> targets = EVENTS.get(event);
+            if (targets == null) {
+                subscribers = NO_SUBSCRIBERS;
+            } else {
+                final List<Subscriber> present = new ArrayList<>();
+                for (final Entry<Class, MENetworkEventInfo> target : targets.entrySet()) {
+                    final IGridCache cache = g.getCaches().get(target.getKey());
+                    final MachineSet machines = g.getMachineSet(target.getKey());
+                    if (cache != null || machines != null) {
+                        present.add(new Subscriber(target.getValue(), cache, machines));
+                    }
+                }
+                subscribers = present.toArray(NO_SUBSCRIBERS);
+            }
+            this.subscribersByEvent.put(event, subscribers);
+        }
+        return subscribers;
+    }
+
     MENetworkEvent postEventTo(final Grid grid, final GridNode node, final MENetworkEvent e) {
         final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(e.getClass());
         int x = 0;
@@ -125,21 +155,41 @@ public class NetworkEventBus {
         private static final long serialVersionUID = -3079021487019171205L;
     }
 
+    interface EventInvoker {
+
+        void invoke(Object obj, MENetworkEvent e) throws Throwable;
+    }
+
+    private static final class Subscriber {
+
+        private final MENetworkEventInfo target;
+        private final IGridCache cache;
+        private final MachineSet machines;
+
+        private Subscriber(final MENetworkEventInfo target, final IGridCache cache, final MachineSet machines) {
+            this.target = target;
+            this.cache = cache;
+            this.machines = machines;
+        }
+    }
+
     private class EventMethod {
 
         private final Class objClass;
         private final Method objMethod;
         private final Class objEvent;
+        private final EventInvoker invoker;
 
         public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) {
             this.objClass = ObjClass;
             this.objMethod = ObjMethod;
             this.objEvent = Event;
+            this.invoker = createInvoker(ObjClass, ObjMethod, Event);
         }
 
         private void invoke(final Object obj, final MENetworkEvent e) throws NetworkEventDone {
             try {
-                this.objMethod.invoke(obj, e);
+                this.invoker.invoke(obj, e);
             } catch (final Throwable e1) {
                 AELog.error("[AppEng] Network Event caused exception:");
                 AELog.error("Offending Class: " + obj.getClass().getName());
@@ -154,6 +204,37 @@ public class NetworkEventBus {
         }
     }
 
+    /**
+     * Generates a direct call to the subscriber method. Methods of classes this class can't see are called through a
+     * method handle instead.
+     */
+    private static EventInvoker createInvoker(final Class objClass, final Method method, final Class event) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            final MethodHandle target = lookup.unreflect(method);
+            final CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "invoke",
+                    MethodType.methodType(EventInvoker.class),
+                    MethodType.methodType(void.class, Object.class, MENetworkEvent.class),
+                    target,
+                    MethodType.methodType(void.class, objClass, event));
+            return (EventInvoker) site.getTarget().invokeExact();
+        } catch (final Throwable t) {
+            // not accessible from here, fall through to the slower method handle.
+            AELog.debug(t, "Falling back to a method handle for ME Network Event Subscriber " + method);
+        }
+
+        try {
+            method.setAccessible(true);
+            final MethodHandle target = lookup.unreflect(method)
+                    .asType(MethodType.methodType(void.class, Object.class, MENetworkEvent.class));
+            return (obj, e) -> target.invokeExact(obj, e);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access ME Network Event Subscriber " + method, e);
+        }
+    }
+
     private class MENetworkEventInfo {
 
         private final List<EventMethod> methods = new ArrayList<>();
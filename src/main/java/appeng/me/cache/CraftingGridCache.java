@@ -20,6 +20,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -28,9 +29,7 @@ import java.util.TreeSet;
 import java.util.UUID;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
@@ -45,6 +44,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Futures;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
@@ -74,9 +74,12 @@ import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.api.networking.events.MENetworkPostCacheConstruction;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.security.PlayerSource;
+import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.networking.storage.IStorageGrid;
 import appeng.api.storage.ICellProvider;
 import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.AEStackTypeRegistry;
 import appeng.api.storage.data.IAEItemStack;
@@ -86,28 +89,29 @@ import appeng.api.storage.data.IItemList;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.CraftingLinkNexus;
 import appeng.crafting.CraftingWatcher;
+import appeng.crafting.v2.CraftingCalculationScheduler;
 import appeng.crafting.v2.CraftingJobV2;
+import appeng.crafting.v2.CraftingPlanCache;
+import appeng.hooks.TickHandler;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.me.helpers.GenericInterestManager;
 import appeng.tile.crafting.TileCraftingStorageTile;
 import appeng.tile.crafting.TileCraftingTile;
 import appeng.util.ItemSorters;
 import appeng.util.item.OreListMultiMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 public class CraftingGridCache
         implements ICraftingGrid, ICraftingProviderHelper, ICellProvider, IMEInventoryHandler<IAEStack> {
 
-    private static final ExecutorService CRAFTING_POOL;
     private static final Comparator<ICraftingPatternDetails> COMPARATOR = (firstDetail,
             nextDetail) -> nextDetail.getPriority() - firstDetail.getPriority();
 
-    static {
-        final ThreadFactory factory = ar -> new Thread(ar, "AE Crafting Calculator");
-
-        CRAFTING_POOL = Executors.newCachedThreadPool(factory);
-    }
-
     private final Set<CraftingCPUCluster> craftingCPUClusters = new HashSet<>();
+    // the CPUs with a job or items left to store, idle CPUs are not ticked
+    private final Set<CraftingCPUCluster> activeCPUClusters = new LinkedHashSet<>();
+    // registered with the storage monitors while a CPU is in missing mode
+    private IMEMonitorHandlerReceiver<IAEStack> missingItemsListener;
     private final Set<ICraftingProvider> craftingProviders = new HashSet<>();
     private final Map<IGridNode, ICraftingWatcher> craftingWatchers = new HashMap<>();
     private final IGrid grid;
@@ -117,7 +121,18 @@ public class CraftingGridCache
     private final Map<IAEItemStack, ImmutableList<ICraftingPatternDetails>> craftableItemsLegacy = new HashMap<>();
     private final Map<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> craftableItems = new HashMap<>();
     private final Set<IAEStack<?>> emitableItems = new HashSet<>();
+    private final Object2IntOpenHashMap<IAEStack<?>> emitableCounts = new Object2IntOpenHashMap<>();
+    // every pattern with a given output, in the order they were added
+    private final Map<IAEStack<?>, Set<ICraftingPatternDetails>> patternsByOutput = new HashMap<>();
+    // what each provider provided when it was last polled
+    private final Map<ICraftingProvider, ProvidedPatterns> providedPatterns = new HashMap<>();
+    private final Set<ICraftingProvider> changedProviders = new HashSet<>();
+    private boolean fullRebuildNeeded = false;
     private final Map<UUID, ICraftingPatternDetails> inputOnlyPatterns = new HashMap<>();
+    // published copies of the above, read by crafting calculations running off the server thread
+    private volatile ImmutableSet<IAEStack<?>> emitableSnapshot = ImmutableSet.of();
+    private volatile ImmutableMap<UUID, ICraftingPatternDetails> inputOnlySnapshot = ImmutableMap.of();
+    private final CraftingPlanCache planCache;
     private final Map<String, CraftingLinkNexus> craftingLinks = new HashMap<>();
     private final Multimap<IAEStack, CraftingWatcher> interests = HashMultimap.create();
     private final GenericInterestManager<CraftingWatcher> interestManager = new GenericInterestManager<>(
@@ -133,6 +148,7 @@ public class CraftingGridCache
 
     public CraftingGridCache(final IGrid grid) {
         this.grid = grid;
+        this.planCache = new CraftingPlanCache(grid);
     }
 
     @MENetworkEventSubscribe
@@ -152,14 +168,75 @@ public class CraftingGridCache
 
         this.craftingLinks.values().removeIf(craftingLinkNexus -> craftingLinkNexus.isDead(this.grid, this));
 
-        for (final CraftingCPUCluster cpu : this.craftingCPUClusters) {
+        if (this.activeCPUClusters.isEmpty()) {
+            return;
+        }
+
+        // jobs may be submitted from completion callbacks
+        for (final CraftingCPUCluster cpu : this.activeCPUClusters.toArray(new CraftingCPUCluster[0])) {
             cpu.tryExtractItems();
             cpu.updateCraftingLogic(this.grid, this.energyGrid, this);
+            if (cpu.isMissingMode() && this.missingItemsListener == null) {
+                this.listenForMissingItems();
+            }
+        }
+        this.activeCPUClusters.removeIf(CraftingCPUCluster::isIdle);
+    }
+
+    /**
+     * Lets CPUs in missing mode know when storage gains items they are missing, instead of only polling for them.
+     */
+    private void listenForMissingItems() {
+        this.missingItemsListener = new IMEMonitorHandlerReceiver<>() {
+
+            @Override
+            public boolean isValid(final Object verificationToken) {
+                return verificationToken == CraftingGridCache.this.grid;
+            }
+
+            @Override
+            public void postChange(final IBaseMonitor<IAEStack> monitor, final Iterable<IAEStack> change,
+                    final BaseActionSource actionSource) {
+                for (final CraftingCPUCluster cpu : CraftingGridCache.this.activeCPUClusters) {
+                    cpu.onStorageChange(change);
+                }
+            }
+
+            @Override
+            public void onListUpdate() {}
+        };
+        for (final IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
+            final IMEMonitor monitor = this.storageGrid.getMEMonitor(type);
+            if (monitor != null) {
+                monitor.addListener(this.missingItemsListener, this.grid);
+            }
         }
     }
 
+    /**
+     * Removes the listener for missing items, the next tick with a CPU in missing mode registers it again.
+     */
+    private void stopListeningForMissingItems() {
+        if (this.missingItemsListener == null) {
+            return;
+        }
+        for (final IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
+            final IMEMonitor monitor = this.storageGrid.getMEMonitor(type);
+            if (monitor != null) {
+                monitor.removeListener(this.missingItemsListener);
+            }
+        }
+        this.missingItemsListener = null;
+    }
+
     @Override
     public void removeNode(final IGridNode gridNode, final IGridHost machine) {
+        if (this.grid.getNodes().size() <= 1) {
+            // the last node is leaving, the grid is dropped
+            this.planCache.detach();
+            this.stopListeningForMissingItems();
+        }
+
         if (machine instanceof ICraftingWatcherHost) {
             final ICraftingWatcher craftingWatcher = this.craftingWatchers.get(machine);
             if (craftingWatcher != null) {
@@ -180,8 +257,9 @@ public class CraftingGridCache
             this.updateList = true;
         }
 
-        if (machine instanceof ICraftingProvider) {
-            this.craftingProviders.remove(machine);
+        if (machine instanceof ICraftingProvider provider) {
+            this.craftingProviders.remove(provider);
+            this.changedProviders.add(provider);
             this.updatePatterns();
         }
     }
@@ -206,14 +284,18 @@ public class CraftingGridCache
             this.updateList = true;
         }
 
-        if (machine instanceof ICraftingProvider) {
-            this.craftingProviders.add((ICraftingProvider) machine);
+        if (machine instanceof ICraftingProvider provider) {
+            this.craftingProviders.add(provider);
+            this.changedProviders.add(provider);
             this.updatePatterns();
         }
     }
 
     @Override
-    public void onSplit(final IGridStorage destinationStorage) { // nothing!
+    public void onSplit(final IGridStorage destinationStorage) {
+        // plans may have looked at storage which is now part of the other grid
+        this.planCache.detach();
+        this.stopListeningForMissingItems();
     }
 
     @Override
@@ -242,22 +324,34 @@ public class CraftingGridCache
     }
 
     private void updatePatterns() {
-        // coalesce change events during a grid traversal to a single rebuild
+        // coalesce change events during a grid traversal to a single update
         if (pauseRebuilds != 0) {
             rebuildNeeded.add(this);
             return;
         }
 
+        if (this.fullRebuildNeeded) {
+            this.fullRebuildNeeded = false;
+            this.changedProviders.clear();
+            this.rebuildPatterns();
+        } else if (!this.changedProviders.isEmpty()) {
+            this.updateChangedProviders();
+        }
+    }
+
+    private void rebuildPatterns() {
         // erase list.
         this.craftingMethods.clear();
-        this.craftableItems.clear();
-        this.craftableItemSubstitutes.clear();
         this.emitableItems.clear();
-        this.inputOnlyPatterns.clear();
+        this.emitableCounts.clear();
+        this.providedPatterns.clear();
 
         // re-create list..
         for (final ICraftingProvider provider : this.craftingProviders) {
-            provider.provideCrafting(this);
+            final ProvidedPatterns provided = new ProvidedPatterns();
+            provider.provideCrafting(provided);
+            this.providedPatterns.put(provider, provided);
+            this.addProvidedPatterns(provided, null, null);
         }
 
         setPatternsFromCraftingMethods();
@@ -278,17 +372,218 @@ public class CraftingGridCache
         }
     }
 
+    /**
+     * Polls only the providers which changed and applies the difference to their previous patterns, posting the
+     * craftables which appeared or disappeared.
+     */
+    private void updateChangedProviders() {
+        // whether each touched pattern and emitable was there before the update
+        final Map<ICraftingPatternDetails, Boolean> touchedPatterns = new HashMap<>();
+        final Map<IAEStack<?>, Boolean> touchedEmitables = new HashMap<>();
+
+        final List<ICraftingProvider> providers = new ArrayList<>(this.changedProviders);
+        this.changedProviders.clear();
+        for (final ICraftingProvider provider : providers) {
+            final ProvidedPatterns previous = this.providedPatterns.remove(provider);
+            if (previous != null) {
+                this.removeProvidedPatterns(previous, touchedPatterns, touchedEmitables);
+            }
+
+            if (this.craftingProviders.contains(provider)) {
+                final ProvidedPatterns provided = new ProvidedPatterns();
+                provider.provideCrafting(provided);
+                this.providedPatterns.put(provider, provided);
+                this.addProvidedPatterns(provided, touchedPatterns, touchedEmitables);
+            }
+        }
+
+        // a pattern moving between providers, or an emitable being set again, doesn't change anything
+        final Set<ICraftingPatternDetails> changedPatterns = new HashSet<>();
+        for (final Entry<ICraftingPatternDetails, Boolean> e : touchedPatterns.entrySet()) {
+            if (e.getValue() != this.craftingMethods.containsKey(e.getKey())) {
+                changedPatterns.add(e.getKey());
+            }
+        }
+        final Set<IAEStack<?>> changedEmitables = new HashSet<>();
+        for (final Entry<IAEStack<?>, Boolean> e : touchedEmitables.entrySet()) {
+            if (e.getValue() != this.emitableItems.contains(e.getKey())) {
+                changedEmitables.add(e.getKey());
+            }
+        }
+
+        if (!changedPatterns.isEmpty() || !changedEmitables.isEmpty()) {
+            this.applyPatternChanges(changedPatterns, changedEmitables);
+        }
+    }
+
+    private void addProvidedPatterns(final ProvidedPatterns provided,
+            final Map<ICraftingPatternDetails, Boolean> touchedPatterns,
+            final Map<IAEStack<?>, Boolean> touchedEmitables) {
+        for (int i = 0; i < provided.patterns.size(); i++) {
+            final ICraftingPatternDetails details = provided.patterns.get(i);
+            if (touchedPatterns != null) {
+                touchedPatterns.putIfAbsent(details, this.craftingMethods.containsKey(details));
+            }
+            this.addCraftingOption(provided.mediums.get(i), details);
+        }
+        for (final IAEStack<?> emitable : provided.emitables) {
+            if (touchedEmitables != null) {
+                touchedEmitables.putIfAbsent(emitable, this.emitableItems.contains(emitable));
+            }
+            if (this.emitableCounts.addTo(emitable, 1) == 0) {
+                this.emitableItems.add(emitable);
+            }
+        }
+    }
+
+    private void removeProvidedPatterns(final ProvidedPatterns provided,
+            final Map<ICraftingPatternDetails, Boolean> touchedPatterns,
+            final Map<IAEStack<?>, Boolean> touchedEmitables) {
+        for (int i = 0; i < provided.patterns.size(); i++) {
+            final ICraftingPatternDetails details = provided.patterns.get(i);
+            final List<ICraftingMedium> mediums = this.craftingMethods.get(details);
+            if (mediums == null) {
+                continue;
+            }
+            touchedPatterns.putIfAbsent(details, true);
+            final ICraftingMedium medium = provided.mediums.get(i);
+            mediums.remove(medium);
+            if (mediums.isEmpty()) {
+                this.craftingMethods.remove(details);
+            }
+        }
+        for (final IAEStack<?> emitable : provided.emitables) {
+            touchedEmitables.putIfAbsent(emitable, this.emitableItems.contains(emitable));
+            if (this.emitableCounts.addTo(emitable, -1) <= 1) {
+                this.emitableCounts.removeInt(emitable);
+                this.emitableItems.remove(emitable);
+            }
+        }
+    }
+
+    /**
+     * Updates everything derived from the patterns for the patterns which were added or removed completely.
+     */
+    private void applyPatternChanges(final Set<ICraftingPatternDetails> changedPatterns,
+            final Set<IAEStack<?>> changedEmitables) {
+        final Set<IAEStack<?>> affectedOutputs = new HashSet<>();
+        boolean substitutesChanged = false;
+
+        for (final ICraftingPatternDetails details : changedPatterns) {
+            final boolean present = this.craftingMethods.containsKey(details);
+            if (details.isInputOnly()) {
+                this.updateInputOnlyPattern(details, present);
+                continue;
+            }
+            substitutesChanged |= details.canBeSubstitute();
+            for (final IAEStack<?> output : details.getAEOutputs()) {
+                final IAEStack<?> out = toCraftable(output);
+                final Set<ICraftingPatternDetails> patterns = this.patternsByOutput
+                        .computeIfAbsent(out, k -> new LinkedHashSet<>());
+                if (present) {
+                    patterns.add(details);
+                } else {
+                    patterns.remove(details);
+                }
+                affectedOutputs.add(out);
+            }
+        }
+
+        final Set<IAEStack<?>> toPost = new HashSet<>();
+        for (final IAEStack<?> out : affectedOutputs) {
+            final Set<ICraftingPatternDetails> patterns = this.patternsByOutput.get(out);
+            final boolean wasCraftable = this.craftableItems.containsKey(out);
+            if (patterns == null || patterns.isEmpty()) {
+                this.patternsByOutput.remove(out);
+                this.craftableItems.remove(out);
+                this.craftableItemsLegacy.remove(stackConvert(out));
+            } else {
+                final TreeSet<ICraftingPatternDetails> methods = new TreeSet<>(COMPARATOR);
+                methods.addAll(patterns);
+                this.craftableItems.put(out, ImmutableList.copyOf(methods));
+                this.craftableItemsLegacy.put(stackConvert(out), ImmutableList.copyOf(methods));
+            }
+            if (wasCraftable != this.craftableItems.containsKey(out)) {
+                toPost.add(out);
+            }
+        }
+        toPost.addAll(changedEmitables);
+
+        if (substitutesChanged) {
+            this.craftableItemSubstitutes.clear();
+            for (final ICraftingPatternDetails details : this.craftingMethods.keySet()) {
+                if (!details.isInputOnly() && details.canBeSubstitute()) {
+                    for (final IAEStack<?> output : details.getAEOutputs()) {
+                        if (toCraftable(output) instanceof IAEItemStack ais) {
+                            this.craftableItemSubstitutes.put(ais, details);
+                        }
+                    }
+                }
+            }
+            this.craftableItemSubstitutes.freeze();
+        }
+
+        this.publishPatterns();
+
+        for (IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
+            final List<IAEStack<?>> list = new ArrayList<>();
+            for (final IAEStack<?> stack : toPost) {
+                if (stack.getStackType() == type) {
+                    // the craftable state is taken from the stack, so post what it is now
+                    final IAEStack<?> change = stack.copy();
+                    change.reset();
+                    change.setCraftable(this.craftableItems.containsKey(stack) || this.emitableItems.contains(stack));
+                    list.add(change);
+                }
+            }
+
+            if (!list.isEmpty()) {
+                this.storageGrid.postAlterationOfStoredItems(type, list, new BaseActionSource());
+            }
+        }
+
+        for (final ICraftingPostPatternChangeListener listener : this.postPatternChangeListeners) {
+            listener.onPostPatternChange();
+        }
+    }
+
+    private void updateInputOnlyPattern(final ICraftingPatternDetails details, final boolean present) {
+        final UUID uuid = details.getInputOnlyUuid();
+        if (uuid == null) {
+            return;
+        }
+        if (present) {
+            this.inputOnlyPatterns.putIfAbsent(uuid, details);
+        } else if (details.equals(this.inputOnlyPatterns.get(uuid))) {
+            this.inputOnlyPatterns.remove(uuid);
+            for (final ICraftingPatternDetails other : this.craftingMethods.keySet()) {
+                if (other.isInputOnly() && uuid.equals(other.getInputOnlyUuid())) {
+                    this.inputOnlyPatterns.put(uuid, other);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static IAEStack<?> toCraftable(final IAEStack<?> output) {
+        final IAEStack<?> out = output.copy();
+        out.reset();
+        out.setCraftable(true);
+        return out;
+    }
+
     /** Only for unit test usage */
     public void setMockPatternsFromMethods() {
-        this.craftableItems.clear();
-        this.craftableItemSubstitutes.clear();
         this.emitableItems.clear();
-        this.inputOnlyPatterns.clear();
         setPatternsFromCraftingMethods();
     }
 
     private void setPatternsFromCraftingMethods() {
-        final Map<IAEStack<?>, Set<ICraftingPatternDetails>> tmpCraft = new HashMap<>();
+        this.craftableItems.clear();
+        this.craftableItemsLegacy.clear();
+        this.craftableItemSubstitutes.clear();
+        this.inputOnlyPatterns.clear();
+        this.patternsByOutput.clear();
 
         // new craftables!
         for (final ICraftingPatternDetails details : this.craftingMethods.keySet()) {
@@ -299,37 +594,54 @@ public class CraftingGridCache
                 }
                 continue;
             }
-            for (IAEStack<?> out : details.getAEOutputs()) {
-                out = out.copy();
-                out.reset();
-                out.setCraftable(true);
+            for (final IAEStack<?> output : details.getAEOutputs()) {
+                final IAEStack<?> out = toCraftable(output);
 
                 if (details.canBeSubstitute() && out instanceof IAEItemStack ais) {
                     craftableItemSubstitutes.put(ais, details);
                 }
 
-                Set<ICraftingPatternDetails> methods = tmpCraft.computeIfAbsent(out, k -> new TreeSet<>(COMPARATOR));
-
-                methods.add(details);
+                this.patternsByOutput.computeIfAbsent(out, k -> new LinkedHashSet<>()).add(details);
             }
         }
 
         craftableItemSubstitutes.freeze();
 
         // make them immutable
-        for (final Entry<IAEStack<?>, Set<ICraftingPatternDetails>> e : tmpCraft.entrySet()) {
-            this.craftableItems.put(e.getKey(), ImmutableList.copyOf(e.getValue()));
+        for (final Entry<IAEStack<?>, Set<ICraftingPatternDetails>> e : this.patternsByOutput.entrySet()) {
+            final TreeSet<ICraftingPatternDetails> methods = new TreeSet<>(COMPARATOR);
+            methods.addAll(e.getValue());
+            this.craftableItems.put(e.getKey(), ImmutableList.copyOf(methods));
 
-            craftableItemsLegacy.put(stackConvert(e.getKey()), ImmutableList.copyOf(e.getValue()));
+            craftableItemsLegacy.put(stackConvert(e.getKey()), ImmutableList.copyOf(methods));
         }
+
+        this.publishPatterns();
+    }
+
+    private void publishPatterns() {
+        this.emitableSnapshot = ImmutableSet.copyOf(this.emitableItems);
+        this.inputOnlySnapshot = ImmutableMap.copyOf(this.inputOnlyPatterns);
+        this.planCache.onPatternsChanged();
+        for (final CraftingCPUCluster cpu : this.activeCPUClusters) {
+            cpu.wake();
+        }
+    }
+
+    /**
+     * @return the pattern derived data shared by the crafting calculations until the patterns change
+     */
+    public CraftingPlanCache.PatternSet getPatternSet() {
+        return this.planCache.getPatternSet(this);
     }
 
     public ICraftingPatternDetails getInputOnlyPattern(final UUID uuid) {
-        return this.inputOnlyPatterns.get(uuid);
+        return this.inputOnlySnapshot.get(uuid);
     }
 
     private void updateCPUClusters() {
         this.craftingCPUClusters.clear();
+        this.activeCPUClusters.clear();
 
         for (Object cls : StreamSupport.stream(grid.getMachinesClasses().spliterator(), false)
                 .filter(TileCraftingStorageTile.class::isAssignableFrom).toArray()) {
@@ -338,6 +650,9 @@ public class CraftingGridCache
                 final CraftingCPUCluster cluster = (CraftingCPUCluster) tile.getCluster();
                 if (cluster != null) {
                     this.craftingCPUClusters.add(cluster);
+                    if (!cluster.isIdle()) {
+                        this.activeCPUClusters.add(cluster);
+                    }
 
                     if (cluster.getLastCraftingLink() != null) {
                         this.addLink((CraftingLink) cluster.getLastCraftingLink());
@@ -367,9 +682,33 @@ public class CraftingGridCache
 
     @MENetworkEventSubscribe
     public void updateCPUClusters(final MENetworkCraftingPatternChange c) {
+        final ICraftingProvider provider = this.findChangedProvider(c);
+        if (provider != null) {
+            this.changedProviders.add(provider);
+        } else {
+            // the change can't be narrowed down to a known provider
+            this.fullRebuildNeeded = true;
+        }
         this.updatePatterns();
     }
 
+    /**
+     * Interfaces post their {@link appeng.helpers.DualityInterface} as the provider, while the grid knows them by the
+     * tile or part hosting the node, so the machine of the node is tried as well.
+     *
+     * @return the registered provider whose patterns changed, or null if it isn't known
+     */
+    private ICraftingProvider findChangedProvider(final MENetworkCraftingPatternChange c) {
+        if (c.provider != null && this.craftingProviders.contains(c.provider)) {
+            return c.provider;
+        }
+        if (c.node != null && c.node.getMachine() instanceof ICraftingProvider machine
+                && this.craftingProviders.contains(machine)) {
+            return machine;
+        }
+        return null;
+    }
+
     @Override
     public void addCraftingOption(final ICraftingMedium medium, final ICraftingPatternDetails api) {
         List<ICraftingMedium> details = this.craftingMethods.get(api);
@@ -530,7 +869,7 @@ public class CraftingGridCache
      * @return The task pool for executing crafting calculations.
      */
     public static ExecutorService getCraftingPool() {
-        return CRAFTING_POOL;
+        return CraftingCalculationScheduler.INSTANCE.getWorkers();
     }
 
     @Override
@@ -551,6 +890,37 @@ public class CraftingGridCache
             throw new IllegalArgumentException("Invalid Crafting Job Request");
         }
 
+        // machines keep requesting what they can't get, so hand them the previous failure while it is up to date
+        if (actionSrc.isMachine() && grid == this.grid) {
+            final CraftingJobV2<?> failed = this.planCache.getFailedPlan(stack, craftingMode);
+            if (failed != null) {
+                if (cb != null) {
+                    TickHandler.INSTANCE.addCallable(null, ignored -> {
+                        cb.calculationComplete(failed);
+                        return null;
+                    });
+                }
+                // the job is shared, cancelling a future of one requester mustn't affect the others
+                return Futures.immediateFuture((ICraftingJob) failed);
+            }
+
+            final ICraftingCallback completion = j -> {
+                this.planCache.onJobCompleted((CraftingJobV2<?>) j);
+                if (cb != null) {
+                    cb.calculationComplete(j);
+                }
+            };
+            final CraftingJobV2<?> job = new CraftingJobV2<>(
+                    world,
+                    grid,
+                    actionSrc,
+                    (IAEStack) stack,
+                    craftingMode,
+                    completion);
+            this.planCache.onJobStarted(job, stack, craftingMode);
+            return (Future) job.schedule();
+        }
+
         final ICraftingJob job = new CraftingJobV2<>(world, grid, actionSrc, (IAEStack) stack, craftingMode, cb);
 
         return job.schedule();
@@ -627,6 +997,9 @@ public class CraftingGridCache
 
         if (cpuCluster != null) {
             ICraftingLink submittedJob = cpuCluster.submitJob(this.grid, job, src, requestingMachine);
+            if (!cpuCluster.isIdle()) {
+                this.activeCPUClusters.add(cpuCluster);
+            }
 
             if (src instanceof PlayerSource playerSource && followCraft) {
                 cpuCluster.togglePlayerFollowStatus(playerSource.player.getCommandSenderName());
@@ -645,12 +1018,12 @@ public class CraftingGridCache
 
     @Override
     public boolean canEmitFor(final IAEStack<?> someItem) {
-        return this.emitableItems.contains(someItem);
+        return this.emitableSnapshot.contains(someItem);
     }
 
     @Override
     public boolean canEmitFor(final IAEItemStack someItem) {
-        return this.emitableItems.contains(convertStack(someItem));
+        return this.emitableSnapshot.contains(convertStack(someItem));
     }
 
     @Override
@@ -740,4 +1113,30 @@ public class CraftingGridCache
             // no..
         }
     }
+
+    /**
+     * Records what a single provider provides, so it can be taken back out when the provider changes.
+     */
+    private static final class ProvidedPatterns implements ICraftingProviderHelper {
+
+        private final List<ICraftingMedium> mediums = new ArrayList<>();
+        private final List<ICraftingPatternDetails> patterns = new ArrayList<>();
+        private final List<IAEStack<?>> emitables = new ArrayList<>();
+
+        @Override
+        public void addCraftingOption(final ICraftingMedium medium, final ICraftingPatternDetails api) {
+            this.mediums.add(medium);
+            this.patterns.add(api);
+        }
+
+        @Override
+        public void setEmitable(final IAEItemStack someItem) {
+            this.emitables.add(someItem.copy());
+        }
+
+        @Override
+        public void setEmitable(final IAEStack<?> someItem) {
+            this.emitables.add(someItem.copy());
+        }
+    }
 }
@@ -89,6 +89,15 @@ public class EnergyGridCache implements IEnergyGrid {
      * excess power in the system.
      */
     private double extra = 0;
+    /**
+     * power handed out since the last settlement, not yet taken from the providers. Extractions the providers can
+     * certainly cover are only debited, and taken from the providers once per tick.
+     */
+    private double pendingDebit = 0;
+    /**
+     * power the providers held at the last settlement minus the pending debit.
+     */
+    private double ledgerBalance = 0;
 
     private IAEPowerStorage lastProvider;
     private IAEPowerStorage lastRequester;
@@ -140,6 +149,11 @@ public class EnergyGridCache implements IEnergyGrid {
 
     @Override
     public void onUpdateTick() {
+        this.settle();
+        for (final IAEPowerStorage p : this.providers) {
+            this.ledgerBalance += p.getAECurrentPower();
+        }
+
         if (!this.getInterests().isEmpty()) {
             final double oldPower = this.lastStoredPower;
             this.lastStoredPower = this.getStoredPower();
@@ -227,6 +241,32 @@ public class EnergyGridCache implements IEnergyGrid {
         for (final IAEPowerStorage p : this.providers) {
             this.globalAvailablePower += p.getAECurrentPower();
         }
+        this.globalAvailablePower -= this.pendingDebit;
+    }
+
+    /**
+     * Takes the pending debit from the providers, extractions go to the providers directly until the next tick.
+     */
+    private void settle() {
+        if (this.pendingDebit > 0) {
+            // the balance never exceeds what the providers hold, so this covers the whole debit
+            this.doExtract(0, this.pendingDebit);
+            this.pendingDebit = 0;
+        }
+        this.ledgerBalance = 0;
+    }
+
+    private double debit(final double amt, final Actionable mode) {
+        if (mode == Actionable.MODULATE) {
+            final double fromExtra = Math.min(this.extra, amt);
+            this.extra -= fromExtra;
+            this.ledgerBalance -= amt - fromExtra;
+            this.pendingDebit += amt - fromExtra;
+
+            this.globalAvailablePower -= amt;
+            this.tickDrainPerTick += amt;
+        }
+        return amt;
     }
 
     @Override
@@ -242,6 +282,11 @@ public class EnergyGridCache implements IEnergyGrid {
             return amt;
         }
 
+        if (amt <= this.extra + this.ledgerBalance) {
+            return this.debit(amt, mode);
+        }
+        this.settle();
+
         double extractedPower = this.extra;
 
         if (mode == Actionable.SIMULATE) {
@@ -525,6 +570,9 @@ public class EnergyGridCache implements IEnergyGrid {
         // power storage.
         if (machine instanceof IAEPowerStorage ps) {
             if (ps.isAEPublicPowerStorage()) {
+                // the pending debit may have to be taken from it
+                this.settle();
+
                 if (ps.getPowerFlow() != AccessRestriction.WRITE) {
                     this.globalMaxPower -= ps.getAEMaxPower();
                     this.globalAvailablePower -= ps.getAECurrentPower();
@@ -621,6 +669,7 @@ public class EnergyGridCache implements IEnergyGrid {
 
     @Override
     public void populateGridStorage(final IGridStorage storage) {
+        this.settle();
         storage.dataObject().setDouble("extraEnergy", this.extra);
     }
 
@@ -0,0 +1,447 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.common.util.ForgeDirection;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridCache;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IGridStorage;
+import appeng.api.networking.events.MENetworkBootingStatusChange;
+import appeng.api.networking.events.MENetworkCraftingPatternChange;
+import appeng.api.networking.events.MENetworkEventSubscribe;
+import appeng.api.networking.events.MENetworkNodeChannelsChanged;
+import appeng.api.networking.events.MENetworkPowerStatusChange;
+import appeng.api.util.DimensionalCoord;
+import appeng.api.util.IInterfaceViewable;
+import appeng.container.AEBaseContainer;
+import appeng.container.UpdateHistory;
+import appeng.core.features.registries.InterfaceTerminalRegistry;
+import appeng.core.sync.packets.PacketInterfaceTerminalUpdate;
+import appeng.parts.AEBasePart;
+import appeng.parts.p2p.PartP2PTunnel;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+/**
+ * What the interface terminals of a grid show. Machines joining and leaving the grid, pattern changes and channel,
+ * power and boot changes are recorded as they happen and turned into at most one update per tick, which is encoded
+ * once and sent to every open terminal, instead of every terminal scanning all machines of the grid.
+ * <p>
+ * Nothing is recorded while no terminal is open, the first terminal to open scans the grid.
+ */
+public class InterfaceTerminalCache implements IGridCache {
+
+    private final IGrid myGrid;
+    private long nextId = 0;
+    private final Map<IInterfaceViewable, Tracker> tracked = new HashMap<>();
+    private final Long2ObjectMap<Tracker> trackedById = new Long2ObjectOpenHashMap<>();
+
+    // recorded since the last update
+    private boolean rescan = true;
+    private boolean statusChanged = false;
+    private final Map<IInterfaceViewable, IGridNode> added = new LinkedHashMap<>();
+    private final List<Tracker> removed = new ArrayList<>();
+    private final Set<Tracker> statusDirty = new ReferenceLinkedOpenHashSet<>();
+    private final Set<Tracker> slotsDirty = new ReferenceLinkedOpenHashSet<>();
+
+    private final UpdateHistory<AEBaseContainer, PacketInterfaceTerminalUpdate> viewers = new UpdateHistory<>();
+
+    public InterfaceTerminalCache(final IGrid g) {
+        this.myGrid = g;
+    }
+
+    /**
+     * Starts sending updates to a terminal.
+     *
+     * @return the whole list, to be sent before any update
+     */
+    public PacketInterfaceTerminalUpdate join(final AEBaseContainer viewer) {
+        this.update();
+
+        final PacketInterfaceTerminalUpdate full = new PacketInterfaceTerminalUpdate();
+        full.setClear();
+        for (final Tracker t : this.tracked.values()) {
+            this.addEntry(full, t);
+        }
+        full.encode();
+
+        this.viewers.join(viewer);
+        return full;
+    }
+
+    public void leave(final AEBaseContainer viewer) {
+        if (this.viewers.contains(viewer) && !this.viewers.leave(viewer)) {
+            this.reset();
+        }
+    }
+
+    /**
+     * @return the updates the terminal hasn't sent yet, recording the changes if nobody did so far
+     */
+    public List<PacketInterfaceTerminalUpdate> getUpdates(final AEBaseContainer viewer) {
+        if (!this.viewers.contains(viewer)) {
+            return Collections.emptyList();
+        }
+        this.update();
+        return this.viewers.poll(viewer);
+    }
+
+    public IInventory getPatterns(final long id) {
+        final Tracker t = this.trackedById.get(id);
+        return t == null ? null : t.patterns;
+    }
+
+    /**
+     * The patterns of the entry were changed through a terminal.
+     */
+    public void markSlotsChanged(final long id) {
+        final Tracker t = this.trackedById.get(id);
+        if (t != null) {
+            this.slotsDirty.add(t);
+        }
+    }
+
+    /**
+     * The channels may have taken the node on or off line.
+     */
+    @MENetworkEventSubscribe
+    public void channelsChanged(final MENetworkNodeChannelsChanged event) {
+        if (!this.viewers.isEmpty()) {
+            for (final IGridNode node : event.nodes) {
+                final Tracker t = this.tracked.get(node.getMachine());
+                if (t != null) {
+                    this.statusDirty.add(t);
+                }
+            }
+        }
+    }
+
+    @MENetworkEventSubscribe
+    public void bootingChanged(final MENetworkBootingStatusChange event) {
+        if (!event.isBooting) {
+            this.rescan = true;
+        }
+    }
+
+    @MENetworkEventSubscribe
+    public void powerChanged(final MENetworkPowerStatusChange event) {
+        this.statusChanged = true;
+    }
+
+    @MENetworkEventSubscribe
+    public void patternsChanged(final MENetworkCraftingPatternChange event) {
+        if (!this.viewers.isEmpty() && event.node != null) {
+            final Tracker t = this.tracked.get(event.node.getMachine());
+            if (t != null) {
+                this.slotsDirty.add(t);
+            }
+        }
+    }
+
+    @Override
+    public void onUpdateTick() {
+        // terminals dropped without being closed would keep recording and the history growing
+        if (!this.viewers.isEmpty() && !this.viewers.prune()) {
+            this.reset();
+        }
+    }
+
+    @Override
+    public void removeNode(final IGridNode gridNode, final IGridHost machine) {
+        if (this.viewers.isEmpty() || !(machine instanceof IInterfaceViewable viewable)) {
+            return;
+        }
+
+        this.added.remove(viewable);
+        final Tracker t = this.tracked.remove(viewable);
+        if (t != null) {
+            this.trackedById.remove(t.id);
+            this.removed.add(t);
+        }
+    }
+
+    @Override
+    public void addNode(final IGridNode gridNode, final IGridHost machine) {
+        if (this.viewers.isEmpty() || !(machine instanceof IInterfaceViewable viewable)) {
+            return;
+        }
+
+        if (InterfaceTerminalRegistry.instance().getSupportedClasses().contains(machine.getClass())) {
+            this.added.put(viewable, gridNode);
+        }
+    }
+
+    @Override
+    public void onSplit(final IGridStorage storageB) {}
+
+    @Override
+    public void onJoin(final IGridStorage storageB) {}
+
+    @Override
+    public void populateGridStorage(final IGridStorage storage) {}
+
+    private void reset() {
+        this.tracked.clear();
+        this.trackedById.clear();
+        this.added.clear();
+        this.removed.clear();
+        this.statusDirty.clear();
+        this.slotsDirty.clear();
+        this.viewers.clear();
+        this.rescan = true;
+        this.statusChanged = false;
+    }
+
+    /**
+     * Turns the recorded changes into an update for all terminals.
+     */
+    private void update() {
+        final PacketInterfaceTerminalUpdate update = new PacketInterfaceTerminalUpdate();
+
+        for (final Tracker t : this.removed) {
+            update.addRemovalEntry(t.id);
+        }
+        this.removed.clear();
+
+        if (this.rescan) {
+            this.rescan(update);
+        } else {
+            for (final Map.Entry<IInterfaceViewable, IGridNode> entry : this.added.entrySet()) {
+                if (!this.tracked.containsKey(entry.getKey()) && entry.getKey().shouldDisplay()) {
+                    this.track(update, entry.getKey(), entry.getValue());
+                }
+            }
+
+            final List<Tracker> check = new ArrayList<>(this.statusChanged ? this.tracked.values() : this.statusDirty);
+            for (final Tracker t : check) {
+                if (this.tracked.get(t.machine) == t && !this.checkStatus(update, t)) {
+                    this.untrack(update, t);
+                }
+            }
+        }
+        this.added.clear();
+        this.statusDirty.clear();
+        this.statusChanged = false;
+
+        for (final Tracker t : this.slotsDirty) {
+            if (this.tracked.get(t.machine) == t) {
+                this.checkSlots(update, t);
+            }
+        }
+        this.slotsDirty.clear();
+
+        if (!update.isEmpty()) {
+            update.encode();
+            this.viewers.publish(update);
+        }
+    }
+
+    private void rescan(final PacketInterfaceTerminalUpdate update) {
+        this.rescan = false;
+
+        final Set<Tracker> visited = new ReferenceOpenHashSet<>();
+        for (final Class<? extends IInterfaceViewable> c : InterfaceTerminalRegistry.instance()
+                .getSupportedClasses()) {
+            for (final IGridNode node : this.myGrid.getMachines(c)) {
+                final IInterfaceViewable machine = (IInterfaceViewable) node.getMachine();
+                final Tracker known = this.tracked.get(machine);
+                if (known != null) {
+                    known.node = node;
+                    if (this.checkStatus(update, known)) {
+                        visited.add(known);
+                    }
+                } else if (machine.shouldDisplay()) {
+                    visited.add(this.track(update, machine, node));
+                }
+            }
+        }
+
+        for (final Tracker t : new ArrayList<>(this.tracked.values())) {
+            if (!visited.contains(t)) {
+                this.untrack(update, t);
+            }
+        }
+    }
+
+    private Tracker track(final PacketInterfaceTerminalUpdate update, final IInterfaceViewable machine,
+            final IGridNode node) {
+        final Tracker t = new Tracker(this.nextId++, machine, node);
+        this.tracked.put(machine, t);
+        this.trackedById.put(t.id, t);
+        this.addEntry(update, t);
+        return t;
+    }
+
+    private void untrack(final PacketInterfaceTerminalUpdate update, final Tracker t) {
+        this.tracked.remove(t.machine);
+        this.trackedById.remove(t.id);
+        update.addRemovalEntry(t.id);
+    }
+
+    private void addEntry(final PacketInterfaceTerminalUpdate packet, final Tracker t) {
+        packet.addNewEntry(t.id, t.name, t.online).setLoc(t.x, t.y, t.z, t.dim, t.side.ordinal())
+                .setItems(t.rows, t.rowSize, t.numSlots, t.invNbt)
+                .setReps(t.machine.getSelfRep(), t.machine.getDisplayRep())
+                .setP2POutput(t.machine instanceof PartP2PTunnel<?>p2pTunnel && p2pTunnel.isOutput());
+    }
+
+    /**
+     * Checks name, online state and size of the entry.
+     *
+     * @return false if the machine should no longer be displayed
+     */
+    private boolean checkStatus(final PacketInterfaceTerminalUpdate update, final Tracker t) {
+        final String name = t.machine.getName();
+        if (!Objects.equals(t.name, name)) {
+            update.addRenamedEntry(t.id, name);
+            t.name = name;
+        }
+
+        final boolean isActive = t.node.isActive();
+        if (!t.online && isActive) {
+            t.online = true;
+            t.updateNBT();
+            update.addOverwriteEntry(t.id).setOnline(true).setItems(new int[0], t.invNbt);
+        } else if (t.online && !isActive) {
+            t.online = false;
+            update.addOverwriteEntry(t.id).setOnline(false);
+        }
+
+        if (!t.machine.shouldDisplay()) {
+            return false;
+        }
+
+        // If the size changed, we need to do a full update of inventory
+        if (t.rows != t.machine.rows() || t.rowSize != t.machine.rowSize() || t.numSlots != t.machine.numSlots()) {
+            t.rows = t.machine.rows();
+            t.rowSize = t.machine.rowSize();
+            t.numSlots = t.machine.numSlots();
+            t.updateNBT();
+            update.addOverwriteEntry(t.id).setItems(new int[0], t.invNbt).setSize(t.rows, t.rowSize, t.numSlots);
+        }
+        return true;
+    }
+
+    /**
+     * Sends the slots of the entry which changed since they were last sent.
+     */
+    private void checkSlots(final PacketInterfaceTerminalUpdate update, final Tracker t) {
+        final IntArrayList changed = new IntArrayList();
+        final NBTTagList items = new NBTTagList();
+
+        for (int slot = 0; slot < t.slots.length; slot++) {
+            final ItemStack stack = t.patterns.getStackInSlot(slot);
+            if (isDifferent(stack, t.slots[slot])) {
+                t.slots[slot] = stack == null ? null : stack.copy();
+                final NBTTagCompound itemNbt = stack == null ? new NBTTagCompound()
+                        : stack.writeToNBT(new NBTTagCompound());
+                // replace
+                t.invNbt.func_150304_a(slot, itemNbt);
+                changed.add(slot);
+                items.appendTag(itemNbt);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            update.addOverwriteEntry(t.id).setItems(changed.toIntArray(), items);
+        }
+    }
+
+    private static boolean isDifferent(final ItemStack a, final ItemStack b) {
+        if (a == null && b == null) {
+            return false;
+        }
+
+        if (a == null || b == null) {
+            return true;
+        }
+
+        return !ItemStack.areItemStacksEqual(a, b);
+    }
+
+    private static class Tracker {
+
+        private final long id;
+        private final IInterfaceViewable machine;
+        private IGridNode node;
+        private String name;
+        private final IInventory patterns;
+        private int rows;
+        private int rowSize;
+        private int numSlots;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final int dim;
+        private final ForgeDirection side;
+        private boolean online;
+        private NBTTagList invNbt;
+        // what the terminals were sent, to find the changed slots
+        private ItemStack[] slots;
+
+        Tracker(final long id, final IInterfaceViewable machine, final IGridNode node) {
+            final DimensionalCoord location = machine.getLocation();
+
+            this.id = id;
+            this.machine = machine;
+            this.node = node;
+            this.name = machine.getName();
+            this.patterns = machine.getPatterns();
+            this.rowSize = machine.rowSize();
+            this.rows = machine.rows();
+            this.numSlots = machine.numSlots();
+            this.x = location.x;
+            this.y = location.y;
+            this.z = location.z;
+            this.dim = location.getDimension();
+            this.side = machine instanceof AEBasePart hasSide ? hasSide.getSide() : ForgeDirection.UNKNOWN;
+            this.online = node.isActive();
+            this.updateNBT();
+        }
+
+        /**
+         * Refreshes all nbt tags.
+         */
+        private void updateNBT() {
+            this.invNbt = new NBTTagList();
+            this.slots = new ItemStack[this.numSlots];
+            for (int slot = 0; slot < this.numSlots; ++slot) {
+                final ItemStack stack = this.patterns.getStackInSlot(slot);
+
+                if (stack != null) {
+                    this.slots[slot] = stack.copy();
+                    this.invNbt.appendTag(stack.writeToNBT(new NBTTagCompound()));
+                } else {
+                    this.invNbt.appendTag(new NBTTagCompound());
+                }
+            }
+        }
+    }
+}
@@ -10,11 +10,13 @@
 
 package appeng.me.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -27,7 +29,6 @@ import javax.annotation.Nullable;
 import org.jetbrains.annotations.NotNull;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
@@ -43,8 +44,11 @@ import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
 import appeng.me.storage.ItemWatcher;
+import appeng.me.storage.NetworkInventoryHandler;
 import appeng.util.IterationCounter;
+import appeng.util.ReentrancyStack;
 import appeng.util.item.LazyItemList;
 import appeng.util.item.NetworkItemList;
 import appeng.util.item.PrioritizedNetworkItemList;
@@ -52,7 +56,7 @@ import appeng.util.item.PrioritizedNetworkItemList;
 public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     @Nonnull
-    private static final Deque<NetworkMonitor<?>> GLOBAL_DEPTH = Lists.newLinkedList();
+    private static final ReentrancyStack GLOBAL_DEPTH = new ReentrancyStack();
 
     @Nonnull
     private final GridStorageCache myGridCache;
@@ -68,6 +72,27 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     private boolean sendEvent = false;
     private boolean hasChanged = false;
 
+    /**
+     * When enabled, {@link #cachedList} is kept in sync by applying the posted changes to it, and is only rebuilt from
+     * scratch when the applied changes can not be trusted.
+     */
+    private final boolean incremental;
+
+    /**
+     * The storages whose contents are reflected by {@link #cachedList}, only tracked in incremental mode.
+     */
+    @Nonnull
+    private final Set<IMEInventoryHandler<T>> contributingStorages = Collections
+            .newSetFromMap(new IdentityHashMap<>());
+    private boolean storagesChanged = false;
+
+    /**
+     * The amounts posted since the storages changed, to tell whether the storages which joined or left posted their
+     * contents themselves.
+     */
+    @Nullable
+    private IItemList<T> postedSinceStorageChange;
+
     @Nonnegative
     private int localDepthSemaphore = 0;
 
@@ -78,6 +103,8 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         this.stackType = type;
         this.cachedList = type.createList();
         this.listeners = new HashMap<>();
+        this.incremental = AEConfig.instance.incrementalStorageList;
+        this.hasChanged = this.incremental;
     }
 
     @Override
@@ -155,12 +182,183 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
                     this.cachedList.add(item);
                 }
             }
+
+            if (this.incremental) {
+                this.contributingStorages.clear();
+                this.contributingStorages.addAll(this.getNetworkStorages());
+                this.storagesChanged = false;
+                this.postedSinceStorageChange = null;
+            }
+
             return this.cachedList;
         }
 
         return this.cachedList;
     }
 
+    private List<IMEInventoryHandler<T>> getNetworkStorages() {
+        if (this.getHandler() instanceof NetworkInventoryHandler<T>handler) {
+            return handler.getStorages();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Brings the cached list up to date with the storages which joined or left the network since the last tick, reading
+     * only those storages. Most of them posted their contents when they changed, which the cached list followed
+     * already; the contents of the others are posted here. Contents which were posted only in part can't be told apart
+     * from other changes to the same stacks, and cause a rebuild.
+     */
+    private void reconcileStorages() {
+        final IItemList<T> posted = this.postedSinceStorageChange;
+        this.postedSinceStorageChange = null;
+
+        final IMEInventoryHandler<T> network = this.getHandler();
+        final Set<IMEInventoryHandler<T>> storages = Collections.newSetFromMap(new IdentityHashMap<>());
+        storages.addAll(this.getNetworkStorages());
+
+        final IItemList<T> moved = this.stackType.createList();
+        final int iteration = IterationCounter.fetchNewId();
+        boolean readable = true;
+        for (final IMEInventoryHandler<T> h : storages) {
+            if (!this.contributingStorages.contains(h)) {
+                readable &= this.readContents(h, network, moved, iteration, true);
+            }
+        }
+        for (final IMEInventoryHandler<T> h : this.contributingStorages) {
+            if (!storages.contains(h)) {
+                readable &= this.readContents(h, network, moved, iteration, false);
+            }
+        }
+
+        this.contributingStorages.clear();
+        this.contributingStorages.addAll(storages);
+
+        final List<IAEStack<?>> unposted = new ArrayList<>();
+        for (final T stack : moved) {
+            if (!readable) {
+                break;
+            }
+            if (stack.getStackSize() == 0) {
+                continue;
+            }
+
+            final T postedStack = posted == null ? null : posted.findPrecise(stack);
+            final long postedAmount = postedStack == null ? 0 : postedStack.getStackSize();
+            if (postedAmount == 0) {
+                unposted.add(stack);
+            } else if (postedAmount != stack.getStackSize()) {
+                readable = false;
+            }
+        }
+
+        if (!readable) {
+            this.hasChanged = true;
+            this.notifyListUpdate();
+        } else if (!unposted.isEmpty()) {
+            this.postChange(true, unposted, new BaseActionSource());
+        }
+    }
+
+    /**
+     * Adds the stored amounts of a storage which joined, or subtracts those of one which left.
+     *
+     * @return false if the storage shows another network, whose stacks the network merges rather than adds up
+     */
+    private boolean readContents(final IMEInventoryHandler<T> storage, final IMEInventoryHandler<T> network,
+            final IItemList<T> out, final int iteration, final boolean joined) {
+        final IMENetworkInventory<T> external = storage.getExternalNetworkInventory();
+        if (external == network) {
+            // the network skips storages showing itself
+            return true;
+        }
+        if (external != null) {
+            return false;
+        }
+
+        final IItemList<T> contents = storage.getAvailableItems(this.stackType.createList(), iteration);
+        if (contents instanceof NetworkItemList) {
+            return false;
+        }
+        for (final T stack : contents) {
+            if (stack.getStackSize() != 0) {
+                out.add(this.amountOf(stack, joined));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy of the stack carrying only its amount, negated if the amount is removed
+     */
+    private T amountOf(final IAEStack<?> stack, final boolean add) {
+        final T amount = (T) stack.copy();
+        amount.setCraftable(false);
+        amount.setCountRequestable(0);
+        amount.setCountRequestableCrafts(0);
+        if (!add) {
+            amount.setStackSize(-stack.getStackSize());
+        }
+        return amount;
+    }
+
+    /**
+     * Applies a set of posted changes to the cached list, falling back to a full rebuild if a change leaves the list in
+     * an impossible state. Changes with an amount add to the stored amount, while changes without one carry the
+     * craftable and requestable state of the stack, which replaces the cached one.
+     */
+    private void applyChanges(final Iterable<IAEStack<?>> changes, final boolean add) {
+        if (this.hasChanged) {
+            return;
+        }
+
+        for (final IAEStack<?> changedItem : changes) {
+            if (changedItem == null) {
+                continue;
+            }
+
+            if (changedItem.getStackSize() == 0) {
+                if (!add && (changedItem.isCraftable() || changedItem.getCountRequestable() != 0)) {
+                    // a storage listing craftables left, the state of the stack is unknown without it
+                    this.hasChanged = true;
+                    return;
+                }
+                this.applyState(changedItem);
+                continue;
+            }
+
+            final T difference = this.amountOf(changedItem, add);
+            this.cachedList.add(difference);
+            if (this.postedSinceStorageChange != null) {
+                this.postedSinceStorageChange.add(difference);
+            }
+
+            final T cached = this.cachedList.findPrecise(difference);
+            if (cached == null || cached.getStackSize() < 0) {
+                this.hasChanged = true;
+                return;
+            }
+        }
+    }
+
+    private void applyState(final IAEStack<?> state) {
+        T cached = this.cachedList.findPrecise((T) state);
+        if (cached == null) {
+            if (!state.isCraftable() && state.getCountRequestable() == 0) {
+                return;
+            }
+            this.cachedList.add((T) state);
+            cached = this.cachedList.findPrecise((T) state);
+            if (cached == null) {
+                this.hasChanged = true;
+                return;
+            }
+        }
+        cached.setCraftable(state.isCraftable());
+        cached.setCountRequestable(state.getCountRequestable());
+        cached.setCountRequestableCrafts(state.getCountRequestableCrafts());
+    }
+
     @Override
     public T injectItems(T input, final Actionable mode, final BaseActionSource src) {
 
@@ -246,8 +444,14 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         return leftOvers;
     }
 
-    private void notifyListenersOfChange(final Iterable<IAEStack<?>> diff, final BaseActionSource src) {
-        this.hasChanged = true;
+    private void notifyListenersOfChange(final Iterable<IAEStack<?>> diff, final boolean add,
+            final BaseActionSource src) {
+        if (this.incremental) {
+            this.applyChanges(diff, add);
+        } else {
+            this.hasChanged = true;
+        }
+
         final Iterator<Entry<IMEMonitorHandlerReceiver, Object>> i = this.getListeners();
 
         while (i.hasNext()) {
@@ -267,6 +471,10 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     protected void postChange(final boolean add, final Iterable<IAEStack<?>> changes, final BaseActionSource src) {
         if (localDepthSemaphore > 0 || GLOBAL_DEPTH.contains(this)) {
+            if (this.incremental && GLOBAL_DEPTH.contains(this)) {
+                // changes looping back into this network are dropped, so the cached list can't follow them
+                this.hasChanged = true;
+            }
             return;
         }
 
@@ -275,7 +483,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
         this.sendEvent = true;
 
-        this.notifyListenersOfChange(changes, src);
+        this.notifyListenersOfChange(changes, add, src);
 
         for (final IAEStack<?> changedItem : changes) {
             if (changedItem == null) {
@@ -313,7 +521,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
             }
         }
 
-        final NetworkMonitor<?> last = GLOBAL_DEPTH.pop();
+        final Object last = GLOBAL_DEPTH.pop();
         localDepthSemaphore--;
 
         if (last != this) {
@@ -322,8 +530,20 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     void forceUpdate() {
-        this.hasChanged = true;
+        if (this.incremental) {
+            if (!this.storagesChanged) {
+                // storages which joined or left are looked at on the next tick, after they posted their contents
+                this.storagesChanged = true;
+                this.postedSinceStorageChange = this.stackType.createList();
+            }
+        } else {
+            this.hasChanged = true;
+        }
+
+        this.notifyListUpdate();
+    }
 
+    private void notifyListUpdate() {
         final Iterator<Entry<IMEMonitorHandlerReceiver, Object>> i = this.getListeners();
         while (i.hasNext()) {
             final Entry<IMEMonitorHandlerReceiver, Object> o = i.next();
@@ -338,6 +558,15 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     void onTick() {
+        if (this.storagesChanged) {
+            this.storagesChanged = false;
+            if (this.hasChanged) {
+                this.postedSinceStorageChange = null;
+            } else {
+                this.reconcileStorages();
+            }
+        }
+
         if (this.sendEvent) {
             this.sendEvent = false;
             this.myGridCache.getGrid().postEvent(new MENetworkStorageEvent(this, this.stackType));
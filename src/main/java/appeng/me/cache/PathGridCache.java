@@ -10,8 +10,12 @@
 
 package appeng.me.cache;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import net.minecraftforge.common.util.ForgeDirection;
@@ -28,6 +32,7 @@ import appeng.api.networking.events.MENetworkBootingStatusChange;
 import appeng.api.networking.events.MENetworkChannelChanged;
 import appeng.api.networking.events.MENetworkControllerChange;
 import appeng.api.networking.events.MENetworkEventSubscribe;
+import appeng.api.networking.events.MENetworkNodeChannelsChanged;
 import appeng.api.networking.pathing.ControllerState;
 import appeng.api.networking.pathing.IPathingGrid;
 import appeng.api.util.DimensionalCoord;
@@ -35,15 +40,22 @@ import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
 import appeng.core.stats.Achievements;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
 import appeng.me.pathfinding.AdHocChannelUpdater;
 import appeng.me.pathfinding.ChannelFinalizer;
 import appeng.me.pathfinding.ControllerValidator;
+import appeng.me.pathfinding.IPathItem;
 import appeng.me.pathfinding.PathingCalculation;
 import appeng.tile.networking.TileController;
+import appeng.tile.networking.TileCreativeEnergyController;
 import appeng.util.Platform;
 
 public class PathGridCache implements IPathingGrid {
 
+    // larger detached subtrees are left to the full pathing
+    private static final int MAX_DETACHED_SUBTREE = 256;
+
     private final Set<TileController> controllers = new HashSet<>();
     private final Set<IGridNode> nodesNeedingChannels = new HashSet<>();
     private final Set<IGridNode> cannotCarryCompressedNodes = new HashSet<>();
@@ -56,6 +68,19 @@ public class PathGridCache implements IPathingGrid {
     private boolean booting = false;
     private ControllerState controllerState = ControllerState.NO_CONTROLLER;
     private int lastChannels = 0;
+    /*
+     * Incremental pathing: leaves joining or leaving the controller tree only change the channel counts on their path
+     * to the controller, those are updated right away and finalized on the next tick instead of pathing the whole grid.
+     */
+    private int deniedChannels = 0;
+    // nodes that joined since the last pathing and weren't connected as a leaf of the tree yet
+    private final Set<IGridNode> unpathedNodes = new HashSet<>();
+    // nodes of subtrees that were cut off from the tree and are about to leave the grid
+    private final Set<IGridNode> detachedNodes = new HashSet<>();
+    private final Set<IPathItem> changedPathItems = new LinkedHashSet<>();
+    private final List<IGridNode> addedLeaves = new ArrayList<>();
+    // nodes whose channel count changed while finalizing the channels, posted in one event afterwards
+    private List<IGridNode> channelsChangedNodes = new ArrayList<>();
 
     public PathGridCache(final IGrid g) {
         this.myGrid = g;
@@ -67,8 +92,22 @@ public class PathGridCache implements IPathingGrid {
             this.recalcController();
         }
 
+        if (!this.updateNetwork) {
+            if (!this.unpathedNodes.isEmpty() || !this.detachedNodes.isEmpty()) {
+                // a change which wasn't recognized as a leaf, path everything
+                this.repath();
+            } else if (!this.changedPathItems.isEmpty()) {
+                this.finalizeIncrementalPathing();
+            }
+        }
+
         if (this.updateNetwork) {
             this.updateNetwork = false;
+            this.unpathedNodes.clear();
+            this.detachedNodes.clear();
+            this.changedPathItems.clear();
+            this.addedLeaves.clear();
+            this.deniedChannels = 0;
 
             // Preserve the illusion that the network is booting for a while before channel assignment completes.
             this.booting = true;
@@ -101,6 +140,7 @@ public class PathGridCache implements IPathingGrid {
                 calculation.compute();
                 this.channelsInUse = calculation.getChannelsInUse();
                 this.channelsByBlocks = calculation.getChannelsByBlocks();
+                this.deniedChannels = calculation.getDeniedChannels();
             }
 
             // check for achievements
@@ -111,6 +151,7 @@ public class PathGridCache implements IPathingGrid {
             // Notify of channel changes AFTER we set booting to false, this ensures that any activeness check will
             // properly return true.
             this.myGrid.getPivot().beginVisit(new ChannelFinalizer());
+            this.postChannelsChanged();
             this.myGrid.postEvent(new MENetworkBootingStatusChange(this.booting));
 
         }
@@ -137,7 +178,13 @@ public class PathGridCache implements IPathingGrid {
             this.cannotCarryCompressedNodes.remove(gridNode);
         }
 
-        this.repath();
+        this.changedPathItems.remove(gridNode);
+        final boolean unpathed = this.unpathedNodes.remove(gridNode);
+        final boolean detached = this.detachedNodes.remove(gridNode);
+        // leaves and detached subtrees were already taken out of the tree when their connection was removed
+        if (!this.canPathIncrementally() || (!unpathed && !detached && !((GridNode) gridNode).hasNoConnections())) {
+            this.repath();
+        }
     }
 
     @Override
@@ -161,7 +208,211 @@ public class PathGridCache implements IPathingGrid {
             this.cannotCarryCompressedNodes.add(gridNode);
         }
 
-        this.repath();
+        if (this.canPathIncrementally()) {
+            // pathed once it is connected
+            this.unpathedNodes.add(gridNode);
+        } else {
+            this.repath();
+        }
+    }
+
+    /**
+     * Paths a new connection incrementally if it attaches a new leaf to the controller tree, otherwise repaths.
+     */
+    public void onConnectionAdded(final GridConnection connection) {
+        if (!this.canPathIncrementally() || !this.addLeaf(connection)) {
+            this.repath();
+        }
+    }
+
+    /**
+     * Paths a connection that is about to be removed incrementally if it only cuts off a leaf or a dead-end subtree of
+     * the controller tree, otherwise repaths.
+     */
+    public void onConnectionRemoved(final GridConnection connection) {
+        this.changedPathItems.remove(connection);
+        if (!this.canPathIncrementally() || !this.removeSubtree(connection)) {
+            this.repath();
+        }
+    }
+
+    private boolean canPathIncrementally() {
+        return !this.updateNetwork && !this.recalculateControllerNextTick
+                && this.controllerState == ControllerState.CONTROLLER_ONLINE;
+    }
+
+    private boolean addLeaf(final GridConnection connection) {
+        final GridNode leaf;
+        final GridNode parent;
+        if (this.unpathedNodes.contains(connection.a()) && !this.unpathedNodes.contains(connection.b())) {
+            leaf = connection.a();
+            parent = connection.b();
+        } else if (this.unpathedNodes.contains(connection.b()) && !this.unpathedNodes.contains(connection.a())) {
+            leaf = connection.b();
+            parent = connection.a();
+        } else {
+            return false;
+        }
+
+        if (leaf.getConnections().size() != 1 || !isSimplePathItem(leaf) || isController(parent)
+                || this.detachedNodes.contains(parent)) {
+            return false;
+        }
+
+        final boolean needsChannel = leaf.hasFlag(GridFlags.REQUIRE_CHANNEL);
+        if (needsChannel) {
+            // with every device served before, a channel for the leaf can't take one from a device pathed after it
+            if (this.deniedChannels > 0 || leaf.getMaxChannels() < 1) {
+                return false;
+            }
+            for (GridNode node = parent; !isController(node); node = (GridNode) node.getControllerRoute()
+                    .getControllerRoute()) {
+                if (node.getAssignedChannels() >= node.getMaxChannels()) {
+                    return false;
+                }
+            }
+        }
+
+        this.unpathedNodes.remove(leaf);
+        connection.setControllerRoute(parent);
+        leaf.setControllerRoute(connection);
+        this.changedPathItems.add(leaf);
+        this.changedPathItems.add(connection);
+        this.addedLeaves.add(leaf);
+        if (needsChannel) {
+            this.changeChannelsToController(leaf, 1);
+            this.channelsInUse++;
+        }
+        return true;
+    }
+
+    private boolean removeSubtree(final GridConnection connection) {
+        final GridNode parent = (GridNode) connection.getControllerRoute();
+        final GridNode child = (GridNode) connection.getOtherSide(parent);
+        if (this.detachedNodes.contains(parent) && this.detachedNodes.contains(child)) {
+            // a connection inside a subtree which was already cut off
+            return true;
+        }
+        if (this.unpathedNodes.contains(parent) || this.unpathedNodes.contains(child) || isController(child)
+                || child.getControllerRoute() != connection) {
+            return false;
+        }
+
+        // the subtree must only be connected to the rest of the grid through this connection
+        final Set<IGridNode> subtree = new HashSet<>();
+        final ArrayDeque<GridNode> open = new ArrayDeque<>();
+        subtree.add(child);
+        open.add(child);
+        while (!open.isEmpty()) {
+            final GridNode node = open.poll();
+            if (!isSimplePathItem(node)) {
+                return false;
+            }
+            for (final IPathItem item : node.getPossibleOptions()) {
+                final GridConnection c = (GridConnection) item;
+                if (c == node.getControllerRoute()) {
+                    continue;
+                }
+                final GridNode other = (GridNode) c.getOtherSide(node);
+                if (c.getControllerRoute() != node || other.getControllerRoute() != c || !subtree.add(other)
+                        || subtree.size() > MAX_DETACHED_SUBTREE) {
+                    return false;
+                }
+                open.add(other);
+            }
+        }
+
+        // a destroyed leaf already dropped its own count, the connection to it still has the same
+        final int channels = connection.getAssignedChannels();
+        if (channels > 0) {
+            // freed channels could go to devices that were denied one
+            if (this.deniedChannels > 0) {
+                return false;
+            }
+            int channelsByBlocks = channels;
+            int channelsInUse = 0;
+            for (final IGridNode node : subtree) {
+                final GridNode gridNode = (GridNode) node;
+                final int used = gridNode == child ? channels : gridNode.getAssignedChannels();
+                int fromChildren = 0;
+                for (final IPathItem item : gridNode.getPossibleOptions()) {
+                    if (item != gridNode.getControllerRoute()) {
+                        fromChildren += item.getAssignedChannels();
+                    }
+                }
+                channelsByBlocks += used + fromChildren;
+                if (used > fromChildren) {
+                    channelsInUse++;
+                }
+            }
+            this.changeChannelsToController(parent, -channels);
+            this.channelsByBlocks -= channelsByBlocks;
+            this.channelsInUse -= channelsInUse;
+        }
+        this.detachedNodes.addAll(subtree);
+        this.changedPathItems.add(parent);
+        return true;
+    }
+
+    /**
+     * Adds channels to the node and everything on its path to the controller.
+     */
+    private void changeChannelsToController(GridNode node, final int channels) {
+        while (!isController(node)) {
+            final IPathItem route = node.getControllerRoute();
+            node.incrementChannelCount(channels);
+            route.incrementChannelCount(channels);
+            this.changedPathItems.add(node);
+            this.changedPathItems.add(route);
+            this.channelsByBlocks += 2 * channels;
+            node = (GridNode) route.getControllerRoute();
+        }
+    }
+
+    private void finalizeIncrementalPathing() {
+        for (final IPathItem item : this.changedPathItems) {
+            final GridNode node = item instanceof GridConnection c ? c.a() : (GridNode) item;
+            if (node.getGrid() == this.myGrid) {
+                item.finalizeChannels();
+            }
+        }
+        this.changedPathItems.clear();
+        this.postChannelsChanged();
+
+        this.achievementPost();
+        this.setChannelPowerUsage(this.channelsByBlocks / 128.0);
+
+        // new devices didn't see the network boot, tell them it is ready
+        for (final IGridNode leaf : this.addedLeaves) {
+            if (leaf.getGrid() == this.myGrid) {
+                this.myGrid.postEventTo(leaf, new MENetworkBootingStatusChange(false));
+            }
+        }
+        this.addedLeaves.clear();
+    }
+
+    /**
+     * Called by nodes whose channel count changed while their channels are finalized.
+     */
+    public void onChannelsChanged(final IGridNode node) {
+        this.channelsChangedNodes.add(node);
+    }
+
+    private void postChannelsChanged() {
+        if (!this.channelsChangedNodes.isEmpty()) {
+            final List<IGridNode> nodes = this.channelsChangedNodes;
+            this.channelsChangedNodes = new ArrayList<>();
+            this.myGrid.postEvent(new MENetworkNodeChannelsChanged(nodes));
+        }
+    }
+
+    private static boolean isSimplePathItem(final GridNode node) {
+        return !isController(node) && !node.hasFlag(GridFlags.MULTIBLOCK)
+                && !node.hasFlag(GridFlags.COMPRESSED_CHANNEL) && !node.hasFlag(GridFlags.CANNOT_CARRY_COMPRESSED);
+    }
+
+    private static boolean isController(final GridNode node) {
+        return node.getMachine() instanceof TileController || node.getMachine() instanceof TileCreativeEnergyController;
     }
 
     @Override
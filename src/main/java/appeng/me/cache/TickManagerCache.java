@@ -11,7 +11,6 @@
 package appeng.me.cache;
 
 import java.util.HashMap;
-import java.util.PriorityQueue;
 
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
@@ -29,6 +28,8 @@ import appeng.api.util.DimensionalCoord;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.me.cache.helpers.TickTracker;
+import appeng.me.cache.helpers.TickWheel;
+import appeng.me.profiler.GridProfiler;
 
 public class TickManagerCache implements ITickManager {
 
@@ -36,8 +37,9 @@ public class TickManagerCache implements ITickManager {
     private final HashMap<IGridNode, TickTracker> alertable = new HashMap<>();
     private final HashMap<IGridNode, TickTracker> sleeping = new HashMap<>();
     private final HashMap<IGridNode, TickTracker> awake = new HashMap<>();
-    private final PriorityQueue<TickTracker> upcomingTicks = new PriorityQueue<>();
+    private final TickWheel upcomingTicks = new TickWheel();
     private long currentTick = 0;
+    private boolean ticking = false;
 
     public TickManagerCache(final IGrid g) {
         this.myGrid = g;
@@ -66,52 +68,62 @@ public class TickManagerCache implements ITickManager {
         TickTracker tt = null;
         try {
             this.currentTick++;
-            while (!this.upcomingTicks.isEmpty()) {
-                tt = this.upcomingTicks.peek();
+            this.ticking = true;
+
+            final long budget = AEConfig.instance.gridTickBudgetMicros * 1000L;
+            final long start = budget > 0 ? System.nanoTime() : 0;
+
+            while ((tt = this.upcomingTicks.pollDue(this.currentTick)) != null) {
+                if (budget > 0 && this.canDefer(tt) && System.nanoTime() - start > budget) {
+                    // out of time, try again next tick
+                    tt.setDeferred(true);
+                    this.upcomingTicks.schedule(tt, this.currentTick + 1);
+                    continue;
+                }
+                tt.setDeferred(false);
+
                 final int diff = (int) (this.currentTick - tt.getLastTick());
-                if (diff >= tt.getCurrentRate()) {
-                    // remove tt..
-                    this.upcomingTicks.poll();
-                    long tickStartTime = 0;
-                    if (AEConfig.instance.debugLogTiming) tickStartTime = System.nanoTime();
-                    final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
-                    if (AEConfig.instance.debugLogTiming) {
-                        DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
-                        AELog.debug(
-                                "Timing: machine tick at (%d %d %d) took %d ns, new state is %s",
-                                c.x,
-                                c.y,
-                                c.z,
-                                System.nanoTime() - tickStartTime,
-                                mod.toString());
-                    }
-                    switch (mod) {
-                        case FASTER:
-                            tt.setRate(tt.getCurrentRate() - 2);
-                            break;
-                        case IDLE:
-                            tt.setRate(tt.getRequest().maxTickRate);
-                            break;
-                        case SAME:
-                            break;
-                        case SLEEP:
-                            this.sleepDevice(tt.getNode());
-                            break;
-                        case SLOWER:
-                            tt.setRate(tt.getCurrentRate() + 1);
-                            break;
-                        case URGENT:
-                            tt.setRate(0);
-                            break;
-                        default:
-                            break;
-                    }
-
-                    if (this.awake.containsKey(tt.getNode())) {
-                        this.addToQueue(tt);
-                    }
-                } else {
-                    return; // done!
+                final boolean profile = GridProfiler.isEnabled();
+                long tickStartTime = 0;
+                if (AEConfig.instance.debugLogTiming || profile) tickStartTime = System.nanoTime();
+                final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
+                if (profile) {
+                    GridProfiler.recordDeviceTick(tt.getGridTickable().getClass(), System.nanoTime() - tickStartTime);
+                }
+                if (AEConfig.instance.debugLogTiming) {
+                    DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
+                    AELog.debug(
+                            "Timing: machine tick at (%d %d %d) took %d ns, new state is %s",
+                            c.x,
+                            c.y,
+                            c.z,
+                            System.nanoTime() - tickStartTime,
+                            mod.toString());
+                }
+                switch (mod) {
+                    case FASTER:
+                        tt.setRate(tt.getCurrentRate() - 2);
+                        break;
+                    case IDLE:
+                        tt.setRate(tt.getRequest().maxTickRate);
+                        break;
+                    case SAME:
+                        break;
+                    case SLEEP:
+                        this.sleepDevice(tt.getNode());
+                        break;
+                    case SLOWER:
+                        tt.setRate(tt.getCurrentRate() + 1);
+                        break;
+                    case URGENT:
+                        tt.setRate(0);
+                        break;
+                    default:
+                        break;
+                }
+
+                if (this.awake.containsKey(tt.getNode())) {
+                    this.addToQueue(tt);
                 }
             }
         } catch (final Throwable t) {
@@ -120,12 +132,27 @@ public class TickManagerCache implements ITickManager {
                     .makeCategory(tt.getGridTickable().getClass().getSimpleName() + " being ticked.");
             tt.addEntityCrashInfo(crashreportcategory);
             throw new ReportedException(crashreport);
+        } finally {
+            this.ticking = false;
         }
     }
 
+    /**
+     * Devices already running at their fastest rate, or put off last tick, always get their tick.
+     */
+    private boolean canDefer(final TickTracker tt) {
+        return !tt.isDeferred() && tt.getCurrentRate() > tt.getRequest().minTickRate;
+    }
+
     private void addToQueue(final TickTracker tt) {
         tt.setLastTick(this.currentTick);
-        this.upcomingTicks.add(tt);
+        this.schedule(tt);
+    }
+
+    private void schedule(final TickTracker tt) {
+        // while ticking, the current tick still takes devices that became due
+        final long earliest = this.ticking ? this.currentTick : this.currentTick + 1;
+        this.upcomingTicks.schedule(tt, Math.max(tt.getLastTick() + tt.getCurrentRate(), earliest));
     }
 
     @Override
@@ -185,8 +212,7 @@ public class TickManagerCache implements ITickManager {
         tt.setCurrentRate(tt.getRequest().minTickRate);
 
         // prevent dupes and tick build up.
-        this.upcomingTicks.remove(tt);
-        this.upcomingTicks.add(tt);
+        this.schedule(tt);
 
         return true;
     }
@@ -32,6 +32,13 @@ public class TickTracker implements Comparable<TickTracker> {
 
     private long lastTick;
     private int currentRate;
+    private boolean deferred;
+
+    // maintained by TickWheel
+    long dueTick;
+    boolean scheduled;
+    TickTracker wheelPrev;
+    TickTracker wheelNext;
 
     public TickTracker(final TickingRequest req, final IGridNode node, final IGridTickable gt, final long currentTick,
             final TickManagerCache tickManagerCache) {
@@ -100,6 +107,17 @@ public class TickTracker implements Comparable<TickTracker> {
         this.lastTick = lastTick;
     }
 
+    /**
+     * @return whether the last tick of this device was put off because the grid ran out of time
+     */
+    public boolean isDeferred() {
+        return this.deferred;
+    }
+
+    public void setDeferred(final boolean deferred) {
+        this.deferred = deferred;
+    }
+
     public IGridNode getNode() {
         return this.node;
     }
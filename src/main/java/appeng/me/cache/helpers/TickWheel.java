@@ -0,0 +1,89 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+/**
+ * Hashed timing wheel of the awake devices of a grid. Every device sits in the bucket of the tick it is due, linked
+ * through its {@link TickTracker}, so scheduling, rescheduling and removing a device don't depend on the number of
+ * devices. Devices due more than one turn of the wheel ahead share a bucket with earlier ones and are skipped until
+ * their turn comes.
+ */
+public class TickWheel {
+
+    // power of two, larger than the slowest rate of the built-in devices
+    private static final int SIZE = 512;
+    private static final int MASK = SIZE - 1;
+
+    private final TickTracker[] buckets = new TickTracker[SIZE];
+    private int size = 0;
+
+    /**
+     * Schedules the device for the given tick, replacing any earlier schedule.
+     */
+    public void schedule(final TickTracker tt, final long dueTick) {
+        this.remove(tt);
+
+        final int bucket = (int) (dueTick & MASK);
+        final TickTracker head = this.buckets[bucket];
+        tt.dueTick = dueTick;
+        tt.wheelPrev = null;
+        tt.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = tt;
+        }
+        this.buckets[bucket] = tt;
+        tt.scheduled = true;
+        this.size++;
+    }
+
+    public void remove(final TickTracker tt) {
+        if (tt == null || !tt.scheduled) {
+            return;
+        }
+
+        if (tt.wheelPrev != null) {
+            tt.wheelPrev.wheelNext = tt.wheelNext;
+        } else {
+            this.buckets[(int) (tt.dueTick & MASK)] = tt.wheelNext;
+        }
+        if (tt.wheelNext != null) {
+            tt.wheelNext.wheelPrev = tt.wheelPrev;
+        }
+
+        tt.wheelPrev = null;
+        tt.wheelNext = null;
+        tt.scheduled = false;
+        this.size--;
+    }
+
+    /**
+     * Removes a device which is due at the given tick.
+     *
+     * @return the device, or null if none is due anymore
+     */
+    public TickTracker pollDue(final long tick) {
+        for (TickTracker tt = this.buckets[(int) (tick & MASK)]; tt != null; tt = tt.wheelNext) {
+            if (tt.dueTick <= tick) {
+                this.remove(tt);
+                return tt;
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
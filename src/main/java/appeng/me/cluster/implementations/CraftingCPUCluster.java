@@ -130,6 +130,10 @@ import cpw.mods.fml.common.FMLCommonHandler;
 
 public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
+    // a waiting CPU retries refused pushes on the next tick, then doubles the delay up to MAX_RETRY_DELAY ticks
+    private static final int MAX_RETRY_DELAY = 20;
+    // and retries anyway after MAX_WAIT_TICKS, in case it missed whatever it was waiting for
+    private static final int MAX_WAIT_TICKS = 100;
     private static final String LOG_MARK_AS_COMPLETE = "Completed job for %s.";
 
     private final WorldCoord min;
@@ -155,7 +159,16 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     private MECraftingInventory inventory = new MECraftingInventory();
 
     private final finalOutput finalOutput = new finalOutput();
+    /**
+     * A CPU that couldn't push anything waits instead of retrying every tick, until items are injected, one of the
+     * mediums that were busy is free, the patterns or the job change, or the retry delay runs out.
+     */
     private boolean waiting = false;
+    private final List<ICraftingMedium> waitingForMediums = new ArrayList<>();
+    private boolean pushRefused;
+    private int retryDelay = 1;
+    private int ticksUntilRetry;
+    private boolean missingItemsAvailable;
     private IItemList<IAEStack<?>> waitingFor = AEApi.instance().storage().createAEStackList();
     private IItemList<IAEStack<?>> waitingForMissing = AEApi.instance().storage().createAEStackList();
     private long availableStorage = 0;
@@ -705,12 +718,21 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             return;
         }
 
-        this.waiting = false;
-        if (this.waiting || this.tasks.isEmpty()) // nothing to do here...
+        if (this.tasks.isEmpty()) // nothing to do here...
         {
             return;
         }
 
+        if (this.waiting && !this.isWaitOver()) {
+            this.usedOps[2] = this.usedOps[1];
+            this.usedOps[1] = this.usedOps[0];
+            this.usedOps[0] = 0;
+            return;
+        }
+        this.waiting = false;
+        this.waitingForMediums.clear();
+        this.pushRefused = false;
+
         this.remainingOperations = this.accelerator + 1 - (this.usedOps[0] + this.usedOps[1] + this.usedOps[2]);
         final int started = this.remainingOperations;
 
@@ -728,13 +750,54 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         this.usedOps[1] = this.usedOps[0];
         this.usedOps[0] = started - this.remainingOperations;
 
+        if (this.remainingOperations > 0 && !this.somethingChanged) {
+            this.startWaiting(this.usedOps[0] > 0);
+        }
+
         this.knownBusyMediums.clear();
+    }
 
-        if (this.remainingOperations > 0 && !this.somethingChanged) {
-            this.waiting = true;
+    private void startWaiting(final boolean madeProgress) {
+        this.waiting = true;
+        this.waitingForMediums.addAll(this.knownBusyMediums);
+        if (madeProgress) {
+            this.retryDelay = 1;
+        }
+        if (this.pushRefused) {
+            // nothing tells when a medium takes patterns again, so retry with a growing delay
+            this.ticksUntilRetry = this.retryDelay;
+            this.retryDelay = Math.min(this.retryDelay * 2, MAX_RETRY_DELAY);
+        } else {
+            this.ticksUntilRetry = MAX_WAIT_TICKS;
         }
     }
 
+    private boolean isWaitOver() {
+        if (--this.ticksUntilRetry <= 0) {
+            return true;
+        }
+        for (final ICraftingMedium medium : this.waitingForMediums) {
+            if (!medium.isBusy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes a waiting CPU try its tasks again on the next tick.
+     */
+    public void wake() {
+        this.waiting = false;
+    }
+
+    /**
+     * @return true if the CPU has no job and nothing left to store, so it doesn't need to be ticked until it gets one
+     */
+    public boolean isIdle() {
+        return this.isComplete && this.inventory.isEmpty() && this.waitingForMissing.isEmpty();
+    }
+
     private void executeCrafting(final IEnergyGrid eg, final CraftingGridCache cc) {
         if (this.suspended) return;
 
@@ -778,6 +841,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
             doWhileCraftingLoop: do {
                 MEInventoryCrafting craftingInventory = null;
+                int craftingInventoryCopies = 0;
                 didPatternCraft = false;
 
                 if (mediumListCheck != null) {
@@ -801,6 +865,13 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                         continue;
                     }
 
+                    final int copies = this
+                            .getBatchSize(medium, details, condensedInputs, craftingEntry.getValue().value);
+                    if (craftingInventory != null && craftingInventoryCopies != copies) {
+                        returnItems(craftingInventory);
+                        craftingInventory = null;
+                    }
+
                     // Find a valid craftingInventory for this craft.
                     double sum = 0;
                     if (craftingInventory == null) {
@@ -819,17 +890,22 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                         // upgraded interface uses more power
                         if (medium instanceof DualityInterface) sum *= Math
                                 .pow(4.0, ((DualityInterface) medium).getInstalledUpgrades(Upgrades.PATTERN_CAPACITY));
+                        sum *= copies;
 
                         // check if there is enough power
-                        if (eg.extractAEPower(sum, Actionable.SIMULATE, PowerMultiplier.CONFIG) < sum - 0.01) continue;
+                        if (eg.extractAEPower(sum, Actionable.SIMULATE, PowerMultiplier.CONFIG) < sum - 0.01) {
+                            this.pushRefused = true;
+                            continue;
+                        }
 
                         craftingInventory = craftable ? new MEInventoryCrafting(new ContainerNull(), 3, 3)
                                 : new MEInventoryCrafting(new ContainerNull(), expandedInputs.size(), 1);
+                        craftingInventoryCopies = copies;
 
                         // Check if all items can be used for crafting.
                         boolean found = false;
                         for (int x = 0; x < expandedInputs.size(); x++) {
-                            final IAEStack<?> slotInput = expandedInputs.get(x);
+                            final IAEStack<?> slotInput = timesCopies(expandedInputs.get(x), copies);
                             if (slotInput != null) {
                                 found = false;
                                 for (IAEStack ias : getExtractItems(slotInput, details)) {
@@ -860,14 +936,17 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                             // put stuff back.
                             returnItems(craftingInventory);
                             craftingInventory = null;
+                            this.pushRefused = true;
                             break;
                         }
                     }
 
-                    if (medium.pushPattern(details, craftingInventory)) {
+                    final int pushed = craftingInventoryCopies;
+                    if (pushed == 1 ? medium.pushPattern(details, craftingInventory)
+                            : medium.pushPatternBatch(details, craftingInventory, pushed)) {
                         eg.extractAEPower(sum, Actionable.MODULATE, PowerMultiplier.CONFIG);
                         this.somethingChanged = true;
-                        this.remainingOperations--;
+                        this.remainingOperations -= pushed;
                         pushedPattern = true;
 
                         if (!this.finalOutput.isFakeCrafting() && this.finalOutput.isFinalPattern(details)) {
@@ -896,7 +975,8 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                         }
 
                         // Process output items.
-                        for (final IAEStack<?> outputItemStack : details.getCondensedAEOutputs()) {
+                        for (final IAEStack<?> output : details.getCondensedAEOutputs()) {
+                            final IAEStack<?> outputItemStack = timesCopies(output, pushed);
                             this.postChange(outputItemStack, this.machineSrc);
                             this.waitingFor.add(outputItemStack.copy());
                             this.postCraftingStatusChange(outputItemStack.copy());
@@ -922,14 +1002,14 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                         didPatternCraft = true;
                         this.markDirty();
 
-                        executedTasks += 1;
-                        craftingEntry.getValue().value--;
+                        executedTasks += pushed;
+                        craftingEntry.getValue().value -= pushed;
                         if (craftingEntry.getValue().value <= 0) {
                             // This craftingEntry is done.
                             break doWhileCraftingLoop;
                         }
 
-                        if (this.remainingOperations == 0) {
+                        if (this.remainingOperations <= 0) {
                             if (mediumListCheck != null) parallelismProvider.put(details, mediumListCheck);
                             return;
                         }
@@ -944,6 +1024,8 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                             sr = ScheduledReason.NOT_ENOUGH_INGREDIENTS;
                             break;
                         }
+                    } else {
+                        this.pushRefused = true;
                     }
 
                     sr = medium.getScheduledReason();
@@ -973,6 +1055,42 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
     }
 
+    /**
+     * @return how many copies of the pattern to push to the medium at once, limited by what the medium accepts, the
+     *         remaining crafts and operations of this tick and the ingredients in the CPU
+     */
+    private int getBatchSize(final ICraftingMedium medium, final ICraftingPatternDetails details,
+            final List<IAEStack<?>> condensedInputs, final long remainingCrafts) {
+        // crafting table patterns, substitutions and fake crafting are handled one copy at a time
+        if (details.isCraftable() || details.canSubstitute() || medium.getBlockingMode() == BlockingMode.BLOCKING) {
+            return 1;
+        }
+        if (this.finalOutput.isFinalPattern(details) && (this.finalOutput.isFakeCrafting()
+                || medium instanceof DualityInterface di && di.isFakeCraftingMode())) {
+            return 1;
+        }
+
+        long copies = Math.min(medium.getMaxBatchSize(details), Math.min(remainingCrafts, this.remainingOperations));
+        for (final IAEStack<?> input : condensedInputs) {
+            if (copies <= 1) {
+                break;
+            }
+            final IAEStack<?> available = this.inventory.getAvailableItem(input);
+            final long perCopy = Math.max(1, input.getStackSize());
+            copies = Math.min(copies, available == null ? 0 : available.getStackSize() / perCopy);
+        }
+        return (int) Math.max(1, copies);
+    }
+
+    private static IAEStack<?> timesCopies(final IAEStack<?> stack, final int copies) {
+        if (stack == null || copies == 1) {
+            return stack;
+        }
+        final IAEStack<?> batch = stack.copy();
+        batch.setStackSize(stack.getStackSize() * copies);
+        return batch;
+    }
+
     private void returnItems(MEInventoryCrafting ic) {
         for (int x = 0; x < ic.getSizeInventory(); x++) {
             final IAEStack<?> aes = ic.getAEStackInSlot(x);
@@ -1192,6 +1310,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 }
 
                 this.prepareStepCount();
+                this.waiting = false;
                 this.markDirty();
                 this.updateCPU();
 
@@ -1721,6 +1840,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     public void onPatternChange() {
         this.providers.clear();
         this.reasonProvider.clear();
+        this.waiting = false;
     }
 
     private void updateProviders() {
@@ -1812,7 +1932,8 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
     public void tryExtractItems() {
         if (this.waitingForMissing.isEmpty()) return;
-        if (countToTryExtractItems > 1200) {
+        if (this.missingItemsAvailable || countToTryExtractItems > 1200) {
+            this.missingItemsAvailable = false;
             countToTryExtractItems = 0;
             for (IAEStack<?> waitingForItem : this.waitingForMissing) {
                 final IGrid grid = this.getGrid();
@@ -1848,6 +1969,24 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
     }
 
+    /**
+     * Notes storage changes that added items this CPU is missing, so it tries to extract them on its next tick.
+     */
+    public void onStorageChange(final Iterable<IAEStack> change) {
+        if (this.waitingForMissing.isEmpty() || this.missingItemsAvailable) {
+            return;
+        }
+        for (final IAEStack<?> stack : change) {
+            if (stack.getStackSize() > 0) {
+                final IAEStack<?> missing = this.waitingForMissing.findPrecise(stack);
+                if (missing != null && missing.getStackSize() > 0) {
+                    this.missingItemsAvailable = true;
+                    return;
+                }
+            }
+        }
+    }
+
     public static String translateFromNetwork(String name) {
         final String dispName;
         if (StatCollector.canTranslate(name)) {
@@ -1952,6 +2091,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
     public void setSuspended(boolean suspended) {
         this.suspended = suspended;
+        this.waiting = false;
     }
 
     private class finalOutput {
@@ -40,6 +40,21 @@ public interface IPathItem {
      */
     void incrementChannelCount(int usedChannels);
 
+    /**
+     * @return the channel count assigned by pathing, which is only visible to the grid once it is finalized.
+     */
+    int getAssignedChannels();
+
+    /**
+     * Numbers the item for a pathing calculation, which keeps the state of the items it reached in arrays by number.
+     */
+    void setPathingIndex(Object calculation, int index);
+
+    /**
+     * @return the number the calculation gave this item, or -1 if it didn't reach it
+     */
+    int getPathingIndex(Object calculation);
+
     /**
      * get the grid flags for this IPathItem.
      *
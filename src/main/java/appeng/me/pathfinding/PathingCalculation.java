@@ -11,9 +11,7 @@
 package appeng.me.pathfinding;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.BitSet;
 import java.util.Queue;
 import java.util.Set;
 
@@ -26,7 +24,9 @@ import appeng.me.GridConnection;
 import appeng.me.GridNode;
 import appeng.tile.networking.TileController;
 import appeng.tile.networking.TileCreativeEnergyController;
-import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 /**
  * Calculation to assign channels starting from the controllers. The full computation is split in two steps, each linear
@@ -37,6 +37,9 @@ import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
  * checking the channel count of a few key nodes (max 3) along the path.
  * <p>
  * Second, a DFS is performed to propagate the channel count upwards.
+ * <p>
+ * Path items are numbered in the order they are reached, the per item state of the calculation is kept in arrays by
+ * that number.
  */
 public class PathingCalculation {
 
@@ -44,7 +47,7 @@ public class PathingCalculation {
     /**
      * Path items that are part of a multiblock that was already granted a channel.
      */
-    private final Set<GridNode> multiblocksWithChannel = new HashSet<>();
+    private final Set<GridNode> multiblocksWithChannel = new ReferenceOpenHashSet<>();
     /**
      * The BFS queues: all the path items that need to be visited on the next tick. Dense queue is prioritized to have
      * the behavior of dense cables extending the controller faces, then cables, then normal devices.
@@ -54,18 +57,26 @@ public class PathingCalculation {
             new ArrayDeque<>() // 2: non-cable queue
     };
     /**
-     * Path items that are either in a queue, or have been processed already.
+     * Identifies this calculation to the path items it numbered, without keeping the calculation itself reachable.
+     */
+    private final Object token = new Object();
+    /**
+     * Number of path items that are either in a queue, or have been processed already.
      */
-    private final Set<IPathItem> visited = new HashSet<>();
+    private int visited = 0;
     /**
      * Tracks the number of channels assigned to each path item during the BFS pass. Only a few key nodes along any path
      * are checked and updated.
      */
-    private final Reference2IntOpenHashMap<GridNode> channelBottlenecks = new Reference2IntOpenHashMap<>();
+    private final IntArrayList channelBottlenecks = new IntArrayList();
     /**
      * Nodes that have been granted a channel during the BFS pass.
      */
-    private final Set<GridNode> channelNodes = new HashSet<>();
+    private final BitSet channelNodes = new BitSet();
+    /**
+     * The controllers, they are reached first.
+     */
+    private final BitSet controllerNodes = new BitSet();
     /**
      * Tracks the total number of used channels.
      */
@@ -74,6 +85,10 @@ public class PathingCalculation {
      * Tracks the total number of channels for each path item is using.
      */
     private int channelsByBlocks = 0;
+    /**
+     * Tracks the number of nodes that required a channel but couldn't get one.
+     */
+    private int deniedChannels = 0;
 
     /**
      * Create a new pathing calculation from the passed grid.
@@ -83,7 +98,13 @@ public class PathingCalculation {
 
         // Add every outgoing connection of the controllers (that doesn't point to another controller) to the list.
         for (IGridNode node : grid.getMachines(TileController.class)) {
-            visited.add((IPathItem) node);
+            controllerNodes.set(visit((IPathItem) node));
+        }
+        for (IGridNode node : grid.getMachines(TileCreativeEnergyController.class)) {
+            controllerNodes.set(visit((IPathItem) node));
+        }
+
+        for (IGridNode node : grid.getMachines(TileController.class)) {
             for (var gcc : node.getConnections()) {
                 var gc = (GridConnection) gcc;
                 if (!(gc.getOtherSide(node).getMachine() instanceof TileController)) {
@@ -93,7 +114,6 @@ public class PathingCalculation {
             }
         }
         for (IGridNode node : grid.getMachines(TileCreativeEnergyController.class)) {
-            visited.add((IPathItem) node);
             for (var gcc : node.getConnections()) {
                 var gc = (GridConnection) gcc;
                 if (!(gc.getOtherSide(node).getMachine() instanceof TileController)) {
@@ -104,8 +124,26 @@ public class PathingCalculation {
         }
     }
 
+    /**
+     * Numbers the path item, it counts as visited from now on.
+     *
+     * @return its number
+     */
+    private int visit(IPathItem pathItem) {
+        final int index = visited++;
+        pathItem.setPathingIndex(token, index);
+        channelBottlenecks.add(0);
+        return index;
+    }
+
+    private boolean isVisited(IPathItem pathItem) {
+        return pathItem.getPathingIndex(token) != -1;
+    }
+
     private void enqueue(IPathItem pathItem, int queueIndex) {
-        visited.add(pathItem);
+        if (!isVisited(pathItem)) {
+            visit(pathItem);
+        }
 
         int possibleIndex;
 
@@ -140,7 +178,8 @@ public class PathingCalculation {
         while (!oldOpen.isEmpty()) {
             IPathItem i = oldOpen.poll();
             for (IPathItem pi : i.getPossibleOptions()) {
-                if (!this.visited.contains(pi)) {
+                if (!isVisited(pi)) {
+                    visit(pi);
                     // Set BFS parent.
                     pi.setControllerRoute(i);
 
@@ -148,6 +187,9 @@ public class PathingCalculation {
                         if (!this.multiblocksWithChannel.contains(pi)) {
                             // Try to use the channel along the path.
                             boolean worked = tryUseChannel((GridNode) pi);
+                            if (!worked) {
+                                this.deniedChannels++;
+                            }
 
                             if (worked && pi.hasFlag(GridFlags.MULTIBLOCK)) {
                                 var multiblock = (IGridMultiblock) ((IGridNode) pi).getGridBlock();
@@ -191,7 +233,7 @@ public class PathingCalculation {
         // Check that the allocation is possible.
         GridNode pi = start;
         while (pi != null) {
-            if (channelBottlenecks.getOrDefault(pi, 0) >= pi.getMaxChannels()) {
+            if (channelBottlenecks.getInt(pi.getPathingIndex(token)) >= pi.getMaxChannels()) {
                 return false;
             }
 
@@ -201,11 +243,12 @@ public class PathingCalculation {
         // Allocate the channel along the path.
         pi = start;
         while (pi != null) {
-            channelBottlenecks.addTo(pi, 1);
+            final int index = pi.getPathingIndex(token);
+            channelBottlenecks.set(index, channelBottlenecks.getInt(index) + 1);
             pi = pi.getHighestSimilarAncestor();
         }
 
-        channelNodes.add(start);
+        channelNodes.set(start.getPathingIndex(token));
         return true;
     }
 
@@ -215,11 +258,9 @@ public class PathingCalculation {
      * Propagates assignment to all nodes by performing a DFS. The implementation is iterative to avoid stack overflow.
      */
     private void propagateAssignments() {
-        List<Object> stack = new ArrayList<>();
-        Set<IPathItem> controllerNodes = new HashSet<>();
+        ObjectArrayList<Object> stack = new ObjectArrayList<>();
 
         for (IGridNode node : grid.getMachines(TileController.class)) {
-            controllerNodes.add((IPathItem) node);
             for (var gcc : node.getConnections()) {
                 var gc = (GridConnection) gcc;
                 if (!(gc.getOtherSide(node).getMachine() instanceof TileController)) {
@@ -228,7 +269,6 @@ public class PathingCalculation {
             }
         }
         for (IGridNode node : grid.getMachines(TileCreativeEnergyController.class)) {
-            controllerNodes.add((IPathItem) node);
             for (var gcc : node.getConnections()) {
                 var gc = (GridConnection) gcc;
                 if (!(gc.getOtherSide(node).getMachine() instanceof TileController)) {
@@ -244,7 +284,7 @@ public class PathingCalculation {
                 IPathItem item = (IPathItem) stack.remove(stack.size() - 1);
                 // We have visited the entire subtree and can now propagate channels upwards.
                 if (item instanceof GridNode node) {
-                    boolean hasChannel = channelNodes.contains(item);
+                    boolean hasChannel = channelNodes.get(item.getPathingIndex(token));
                     channelsByBlocks += node.propagateChannelsUpwards(hasChannel);
                     if (hasChannel) {
                         channelsInUse++;
@@ -257,8 +297,10 @@ public class PathingCalculation {
                 for (var pi : ((IPathItem) current).getPossibleOptions()) {
                     // The neighbor could either be: a child, the parent, or in a different tree if it is closer to
                     // another controller. It is a child if we are its parent.
-                    // We need to exclude controller nodes because their getControllerRoute() is nonsense.
-                    if (!controllerNodes.contains(pi) && pi.getControllerRoute() == current) {
+                    // We need to exclude controller nodes because their getControllerRoute() is nonsense, and items
+                    // this calculation didn't reach because theirs is left over from an earlier one.
+                    final int index = pi.getPathingIndex(token);
+                    if (index != -1 && !controllerNodes.get(index) && pi.getControllerRoute() == current) {
                         stack.add(pi);
                     }
                 }
@@ -279,4 +321,11 @@ public class PathingCalculation {
         return channelsByBlocks;
     }
 
+    /**
+     * @return the number of nodes that required a channel but didn't get one
+     */
+    public int getDeniedChannels() {
+        return deniedChannels;
+    }
+
 }
@@ -0,0 +1,186 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.MapMaker;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridNode;
+import appeng.api.util.DimensionalCoord;
+
+/**
+ * Profiler covering all grids at once. While it is running, every grid tick, grid cache tick, device tick and
+ * outermost network storage operation is timed into a {@link TimingHistogram}. When it is stopped, the only cost left
+ * at the call sites is reading {@link #isEnabled()}.
+ */
+public final class GridProfiler {
+
+    public static final String CATEGORY_GRID = "grid";
+    public static final String CATEGORY_CACHE = "cache";
+    public static final String CATEGORY_STORAGE = "storage";
+    public static final String CATEGORY_DEVICE = "device";
+
+    private static volatile boolean enabled = false;
+
+    // weak, so grids profiled before the last stop don't outlive their nodes and caches
+    private static final Map<IGrid, GridTimings> GRIDS = new MapMaker().weakKeys().makeMap();
+    private static final Map<Class<?>, TimingHistogram> DEVICES = new ConcurrentHashMap<>();
+
+    private GridProfiler() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discards the previous results and starts profiling.
+     */
+    public static void start() {
+        GRIDS.clear();
+        DEVICES.clear();
+        enabled = true;
+    }
+
+    /**
+     * Stops profiling, the results stay available until the next start, except those of grids that are gone by then.
+     */
+    public static void stop() {
+        enabled = false;
+    }
+
+    public static void recordGridTick(final IGrid grid, final long nanos) {
+        final long now = System.nanoTime();
+        getTimings(grid, now).tick.record(nanos, now);
+    }
+
+    public static void recordCacheTick(final IGrid grid, final Class<?> cache, final long nanos) {
+        final long now = System.nanoTime();
+        getTimings(grid, now).caches.computeIfAbsent(cache, c -> new TimingHistogram(now)).record(nanos, now);
+    }
+
+    public static void recordStorage(final IGrid grid, final long nanos) {
+        final long now = System.nanoTime();
+        getTimings(grid, now).storage.record(nanos, now);
+    }
+
+    public static void recordDeviceTick(final Class<?> device, final long nanos) {
+        final long now = System.nanoTime();
+        DEVICES.computeIfAbsent(device, c -> new TimingHistogram(now)).record(nanos, now);
+    }
+
+    private static GridTimings getTimings(final IGrid grid, final long now) {
+        return GRIDS.computeIfAbsent(grid, g -> new GridTimings(now));
+    }
+
+    /**
+     * @return every profiled section, the most expensive first
+     */
+    public static List<Row> getRows() {
+        final long now = System.nanoTime();
+        final List<Row> rows = new ArrayList<>();
+
+        for (final Map.Entry<IGrid, GridTimings> entry : GRIDS.entrySet()) {
+            final String grid = describe(entry.getKey());
+            final GridTimings timings = entry.getValue();
+
+            rows.add(new Row(CATEGORY_GRID, grid, timings.tick.snapshot(now)));
+            rows.add(new Row(CATEGORY_STORAGE, grid, timings.storage.snapshot(now)));
+            for (final Map.Entry<Class<?>, TimingHistogram> cache : timings.caches.entrySet()) {
+                rows.add(
+                        new Row(
+                                CATEGORY_CACHE,
+                                grid + " " + cache.getKey().getSimpleName(),
+                                cache.getValue().snapshot(now)));
+            }
+        }
+
+        for (final Map.Entry<Class<?>, TimingHistogram> device : DEVICES.entrySet()) {
+            rows.add(new Row(CATEGORY_DEVICE, device.getKey().getName(), device.getValue().snapshot(now)));
+        }
+
+        rows.removeIf(row -> row.getTimings().getCount() == 0);
+        rows.sort(Comparator.comparingLong((Row row) -> row.getTimings().getTotalNanos()).reversed());
+        return rows;
+    }
+
+    public static void writeCsv(final Writer out) throws IOException {
+        out.write("category,section,samples,total_ns,mean_ns,p50_ns,p90_ns,p99_ns,max_ns\n");
+        for (final Row row : getRows()) {
+            final TimingHistogram.Snapshot t = row.getTimings();
+            out.write(
+                    String.format(
+                            "%s,\"%s\",%d,%d,%d,%d,%d,%d,%d%n",
+                            row.getCategory(),
+                            row.getSection().replace("\"", "\"\""),
+                            t.getCount(),
+                            t.getTotalNanos(),
+                            t.getMeanNanos(),
+                            t.getPercentileNanos(0.5),
+                            t.getPercentileNanos(0.9),
+                            t.getPercentileNanos(0.99),
+                            t.getMaxNanos()));
+        }
+    }
+
+    private static String describe(final IGrid grid) {
+        final IGridNode pivot = grid.getPivot();
+        final DimensionalCoord location = pivot == null ? null : pivot.getGridBlock().getLocation();
+        if (location == null) {
+            return "Grid@" + Integer.toHexString(System.identityHashCode(grid));
+        }
+        return String.format("Grid(%d: %d %d %d)", location.getDimension(), location.x, location.y, location.z);
+    }
+
+    private static final class GridTimings {
+
+        private final TimingHistogram tick;
+        private final TimingHistogram storage;
+        private final Map<Class<?>, TimingHistogram> caches = new ConcurrentHashMap<>();
+
+        private GridTimings(final long now) {
+            this.tick = new TimingHistogram(now);
+            this.storage = new TimingHistogram(now);
+        }
+    }
+
+    public static final class Row {
+
+        private final String category;
+        private final String section;
+        private final TimingHistogram.Snapshot timings;
+
+        private Row(final String category, final String section, final TimingHistogram.Snapshot timings) {
+            this.category = category;
+            this.section = section;
+            this.timings = timings;
+        }
+
+        public String getCategory() {
+            return this.category;
+        }
+
+        public String getSection() {
+            return this.section;
+        }
+
+        public TimingHistogram.Snapshot getTimings() {
+            return this.timings;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.profiler;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations with power of two buckets, covering the current and the previous window of
+ * {@link #WINDOW_NANOS}, so old samples fall out while the latest window still has enough data.
+ */
+public final class TimingHistogram {
+
+    static final long WINDOW_NANOS = 60_000_000_000L;
+
+    // bucket i counts durations in [2^i, 2^(i+1)) ns, the last one everything above
+    private static final int BUCKETS = 40;
+
+    private long[] current = new long[BUCKETS];
+    private long[] previous = new long[BUCKETS];
+    private long currentTotal;
+    private long previousTotal;
+    private long currentMax;
+    private long previousMax;
+    private long windowStart;
+
+    public TimingHistogram(final long now) {
+        this.windowStart = now;
+    }
+
+    public synchronized void record(final long nanos, final long now) {
+        this.roll(now);
+
+        final int bucket = Math.min(63 - Long.numberOfLeadingZeros(Math.max(nanos, 1)), BUCKETS - 1);
+        this.current[bucket]++;
+        this.currentTotal += nanos;
+        this.currentMax = Math.max(this.currentMax, nanos);
+    }
+
+    public synchronized Snapshot snapshot(final long now) {
+        this.roll(now);
+
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.current[i] + this.previous[i];
+            count += counts[i];
+        }
+
+        return new Snapshot(
+                counts,
+                count,
+                this.currentTotal + this.previousTotal,
+                Math.max(this.currentMax, this.previousMax));
+    }
+
+    private void roll(final long now) {
+        final long elapsed = now - this.windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+
+        final long[] recycled = this.previous;
+        if (elapsed < 2 * WINDOW_NANOS) {
+            this.previous = this.current;
+            this.previousTotal = this.currentTotal;
+            this.previousMax = this.currentMax;
+        } else {
+            // nothing was recorded during the last window
+            Arrays.fill(this.current, 0);
+            this.previousTotal = 0;
+            this.previousMax = 0;
+            this.previous = this.current;
+        }
+
+        Arrays.fill(recycled, 0);
+        this.current = recycled;
+        this.currentTotal = 0;
+        this.currentMax = 0;
+        this.windowStart = now;
+    }
+
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(final long[] counts, final long count, final long totalNanos, final long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getTotalNanos() {
+            return this.totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return this.maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return this.count == 0 ? 0 : this.totalNanos / this.count;
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return upper bound of the bucket holding the quantile, capped at the largest recorded duration
+         */
+        public long getPercentileNanos(final double quantile) {
+            if (this.count == 0) {
+                return 0;
+            }
+
+            final long rank = (long) Math.ceil(quantile * this.count);
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank && this.counts[i] > 0) {
+                    return i == this.counts.length - 1 ? this.maxNanos : Math.min(1L << (i + 1), this.maxNanos);
+                }
+            }
+            return this.maxNanos;
+        }
+    }
+}
@@ -10,16 +10,18 @@
 
 package appeng.me.storage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map.Entry;
-import java.util.NavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.annotation.Nonnull;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 
 import appeng.api.AEApi;
 import appeng.api.config.AccessRestriction;
@@ -34,7 +36,6 @@ import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
 import appeng.util.InventoryAdaptor;
-import appeng.util.Platform;
 import appeng.util.inv.ItemSlot;
 import appeng.util.item.ItemFilterList;
 
@@ -43,14 +44,24 @@ public class MEMonitorIInventory implements IStorageBusMonitor<IAEItemStack> {
     private final InventoryAdaptor adaptor;
     private final IItemList<IAEItemStack> list = AEApi.instance().storage().createItemList();
     private final HashMap<IMEMonitorHandlerReceiver, Object> listeners = new HashMap<>();
-    private final NavigableMap<Integer, CachedItemStack> memory;
+    /*
+     * What the last scan saw in each slot: the AE stack with its size, null for empty slots, and the parts of the item
+     * stack needed to tell quickly if a slot still holds the same item.
+     */
+    private IAEItemStack[] aeStacks = new IAEItemStack[0];
+    private Item[] items = new Item[0];
+    private int[] damages = new int[0];
+    private NBTTagCompound[] tags = new NBTTagCompound[0];
+    private int[] tagHashes = new int[0];
+    private int slotCount = 0;
+    // change count of the inventory at the last scan, -1 if it can't report its changes
+    private long changeCount = -1;
     private BaseActionSource mySource;
     private StorageFilter mode = StorageFilter.EXTRACTABLE_ONLY;
     private boolean init = false;
 
     public MEMonitorIInventory(final InventoryAdaptor adaptor) {
         this.adaptor = adaptor;
-        this.memory = new ConcurrentSkipListMap<>();
     }
 
     @Override
@@ -120,90 +131,98 @@ public class MEMonitorIInventory implements IStorageBusMonitor<IAEItemStack> {
 
     @Override
     public TickRateModulation onTick() {
+        final long count = this.adaptor.getChangeCount();
+        if (count != -1 && count == this.changeCount) {
+            return TickRateModulation.SLOWER;
+        }
 
-        final LinkedList<IAEStack<?>> changes = new LinkedList<>();
-
-        this.list.resetStatus();
-        int high = 0;
-        boolean changed = false;
+        final List<IAEStack<?>> changes = new ArrayList<>();
+        int slots = 0;
         for (final ItemSlot is : this.adaptor) {
-            final CachedItemStack old = this.memory.get(is.getSlot());
-            high = Math.max(high, is.getSlot());
+            final int slot = is.getSlot();
+            if (slot >= this.aeStacks.length) {
+                this.growSnapshot(slot + 1);
+            }
+            slots = Math.max(slots, slot + 1);
 
             final ItemStack newIS = !is.isExtractable() && this.getMode() == StorageFilter.EXTRACTABLE_ONLY ? null
                     : is.getItemStack();
-            final ItemStack oldIS = old == null ? null : old.itemStack;
-
-            if (this.isDifferent(newIS, oldIS)) {
-                final CachedItemStack cis = new CachedItemStack(is.getItemStack());
-                this.memory.put(is.getSlot(), cis);
-
-                if (old != null && old.aeStack != null) {
-                    old.aeStack.setStackSize(-old.aeStack.getStackSize());
-                    changes.add(old.aeStack);
-                }
+            this.updateSlot(slot, newIS, changes);
+        }
 
-                if (cis.aeStack != null) {
-                    changes.add(cis.aeStack);
-                    this.list.add(cis.aeStack);
-                }
+        // detect dropped items; should fix non IISided Inventory Changes.
+        for (int slot = slots; slot < this.slotCount; slot++) {
+            this.updateSlot(slot, null, changes);
+        }
+        this.slotCount = slots;
+        this.changeCount = count;
 
-                changed = true;
-            } else {
-                final int newSize = (newIS == null ? 0 : newIS.stackSize);
-                final int diff = newSize - (oldIS == null ? 0 : oldIS.stackSize);
-
-                final IAEItemStack stack = (old == null || old.aeStack == null
-                        ? AEApi.instance().storage().createItemStack(newIS)
-                        : old.aeStack.copy());
-                if (stack != null) {
-                    stack.setStackSize(newSize);
-                    this.list.add(stack);
-                }
+        if (changes.isEmpty()) {
+            return TickRateModulation.SLOWER;
+        }
 
-                if (diff != 0 && stack != null) {
-                    final CachedItemStack cis = new CachedItemStack(is.getItemStack());
-                    this.memory.put(is.getSlot(), cis);
+        for (final IAEStack<?> change : changes) {
+            this.list.add((IAEItemStack) change);
+        }
+        this.postDifference(changes);
+        return TickRateModulation.URGENT;
+    }
 
-                    final IAEItemStack a = stack.copy();
-                    a.setStackSize(diff);
-                    changes.add(a);
-                    changed = true;
-                }
+    private void updateSlot(final int slot, final ItemStack is, final List<IAEStack<?>> changes) {
+        final IAEItemStack old = this.aeStacks[slot];
+        if (old != null && is != null && this.isSameItem(slot, is)) {
+            final long diff = is.stackSize - old.getStackSize();
+            if (diff != 0) {
+                old.setStackSize(is.stackSize);
+                changes.add(old.copy().setStackSize(diff));
             }
+            return;
         }
 
-        // detect dropped items; should fix non IISided Inventory Changes.
-        final NavigableMap<Integer, CachedItemStack> end = this.memory.tailMap(high, false);
-        if (!end.isEmpty()) {
-            for (final CachedItemStack cis : end.values()) {
-                if (cis != null && cis.aeStack != null) {
-                    final IAEItemStack a = cis.aeStack.copy();
-                    a.setStackSize(-a.getStackSize());
-                    changes.add(a);
-                    changed = true;
-                }
-            }
-            end.clear();
+        if (old != null) {
+            changes.add(old.copy().setStackSize(-old.getStackSize()));
         }
 
-        if (!changes.isEmpty()) {
-            this.postDifference(changes);
+        if (is == null) {
+            this.aeStacks[slot] = null;
+            this.items[slot] = null;
+            this.tags[slot] = null;
+            return;
         }
 
-        return changed ? TickRateModulation.URGENT : TickRateModulation.SLOWER;
+        final IAEItemStack aeStack = AEApi.instance().storage().createItemStack(is);
+        final NBTTagCompound tag = is.getTagCompound();
+        this.aeStacks[slot] = aeStack;
+        this.items[slot] = is.getItem();
+        this.damages[slot] = is.getItemDamage();
+        this.tags[slot] = tag;
+        this.tagHashes[slot] = tag == null ? 0 : tag.hashCode();
+        changes.add(aeStack.copy());
     }
 
-    private boolean isDifferent(final ItemStack a, final ItemStack b) {
-        if (a == b && b == null) {
+    private boolean isSameItem(final int slot, final ItemStack is) {
+        if (this.items[slot] != is.getItem() || this.damages[slot] != is.getItemDamage()) {
             return false;
         }
 
-        if ((a == null && b != null) || (a != null && b == null)) {
-            return true;
+        final NBTTagCompound tag = is.getTagCompound();
+        if (tag == null || this.tags[slot] == null) {
+            return tag == this.tags[slot];
+        }
+        if (tag.hashCode() != this.tagHashes[slot]) {
+            return false;
         }
+        // inventories usually hand out the same tag each time, otherwise compare it to the copy in the AE stack
+        return tag == this.tags[slot] || this.aeStacks[slot].isSameType(is);
+    }
 
-        return !Platform.isSameItemPrecise(a, b);
+    private void growSnapshot(final int minSize) {
+        final int size = Math.max(minSize, this.aeStacks.length * 2);
+        this.aeStacks = Arrays.copyOf(this.aeStacks, size);
+        this.items = Arrays.copyOf(this.items, size);
+        this.damages = Arrays.copyOf(this.damages, size);
+        this.tags = Arrays.copyOf(this.tags, size);
+        this.tagHashes = Arrays.copyOf(this.tagHashes, size);
     }
 
     private void postDifference(final Iterable<IAEStack<?>> a) {
@@ -258,8 +277,8 @@ public class MEMonitorIInventory implements IStorageBusMonitor<IAEItemStack> {
             this.onTick();
             init = true;
         }
-        for (final CachedItemStack is : this.memory.values()) {
-            out.addStorage(is.aeStack);
+        for (int slot = 0; slot < this.slotCount; slot++) {
+            out.addStorage(this.aeStacks[slot]);
         }
         if (out instanceof ItemFilterList) adaptor.getAvailableItems(out, iteration);
         return out;
@@ -267,22 +286,15 @@ public class MEMonitorIInventory implements IStorageBusMonitor<IAEItemStack> {
 
     @Override
     public IAEItemStack getAvailableItem(@Nonnull IAEItemStack request, int iteration) {
-        long count = 0;
         if (!init) {
             this.onTick();
             init = true;
         }
-        for (final CachedItemStack is : this.memory.values()) {
-            if (is != null && is.aeStack != null && is.aeStack.getStackSize() > 0 && is.aeStack.isSameType(request)) {
-                count += is.aeStack.getStackSize();
-                if (count < 0) {
-                    // overflow
-                    count = Long.MAX_VALUE;
-                    break;
-                }
-            }
+        final IAEItemStack stored = this.list.findPrecise(request);
+        if (stored == null || stored.getStackSize() <= 0) {
+            return null;
         }
-        return count == 0 ? null : request.copy().setStackSize(count);
+        return request.copy().setStackSize(stored.getStackSize());
     }
 
     @Override
@@ -297,6 +309,8 @@ public class MEMonitorIInventory implements IStorageBusMonitor<IAEItemStack> {
     @Override
     public void setMode(final StorageFilter mode) {
         this.mode = mode;
+        // rescan, even if the inventory didn't change
+        this.changeCount = -1;
     }
 
     private BaseActionSource getActionSource() {
@@ -307,20 +321,4 @@ public class MEMonitorIInventory implements IStorageBusMonitor<IAEItemStack> {
     public void setActionSource(final BaseActionSource mySource) {
         this.mySource = mySource;
     }
-
-    private static class CachedItemStack {
-
-        private final ItemStack itemStack;
-        private final IAEItemStack aeStack;
-
-        public CachedItemStack(final ItemStack is) {
-            if (is == null) {
-                this.itemStack = null;
-                this.aeStack = null;
-            } else {
-                this.itemStack = is.copy();
-                this.aeStack = AEApi.instance().storage().createItemStack(is);
-            }
-        }
-    }
 }
@@ -13,10 +13,13 @@ package appeng.me.storage;
 import static appeng.util.item.AEFluidStackType.FLUID_STACK_TYPE;
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 
@@ -25,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
 import appeng.api.config.FuzzyMode;
+import appeng.api.config.IncludeExclude;
 import appeng.api.config.SecurityPermissions;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridNode;
@@ -39,15 +43,19 @@ import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
 import appeng.me.cache.SecurityCache;
+import appeng.me.profiler.GridProfiler;
+import appeng.util.ReentrancyStack;
 import appeng.util.SortedArrayList;
 import appeng.util.inv.ItemListIgnoreCrafting;
 import appeng.util.item.NetworkItemList;
 import appeng.util.item.PrioritizedNetworkItemList;
+import appeng.util.prioitylist.PrecisePriorityList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetworkInventory<T> {
 
-    private static final ThreadLocal<LinkedList> DEPTH_MOD = new ThreadLocal<>();
-    private static final ThreadLocal<LinkedList> DEPTH_SIM = new ThreadLocal<>();
+    private static final ThreadLocal<ReentrancyStack> DEPTH_MOD = ThreadLocal.withInitial(ReentrancyStack::new);
+    private static final ThreadLocal<ReentrancyStack> DEPTH_SIM = ThreadLocal.withInitial(ReentrancyStack::new);
 
     /**
      * Sorter for the {@link #priorityInventory} list. AutoCrafting inventories are first followed by Sticky
@@ -91,6 +99,16 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
     private NetworkItemList<T> iterationItems = null;
     private PrioritizedNetworkItemList<T> prioritizedIterationItems = null;
 
+    /**
+     * Routing index for {@link #injectItems}, built lazily from the storages' precise whitelist partitions. A storage
+     * which is partitioned to a precise whitelist can never accept an unlisted item, so it only needs to be visited
+     * for the items it lists. Since the network inventory is rebuilt on every cell array update, the index never has
+     * to be invalidated.
+     */
+    private Map<T, int[]> partitionedStorages = null;
+    private int[] unpartitionedStorages = null;
+    private List<IMEInventoryHandler<T>> unpartitionedStorageList = null;
+
     public NetworkInventoryHandler(final IAEStackType<?> type, final SecurityCache security) {
         this.type = type;
         this.security = security;
@@ -99,10 +117,38 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
 
     public void addNewStorage(final IMEInventoryHandler<T> h) {
         this.priorityInventory.add(h);
+        this.partitionedStorages = null;
+    }
+
+    /**
+     * @return the storages backing this network inventory, in injection order
+     */
+    public List<IMEInventoryHandler<T>> getStorages() {
+        return Collections.unmodifiableList(this.priorityInventory);
     }
 
     @Override
     public T injectItems(T input, final Actionable type, final BaseActionSource src) {
+        if (!this.isProfiled(type)) {
+            return this.routeInjection(input, type, src);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            return this.routeInjection(input, type, src);
+        } finally {
+            GridProfiler.recordStorage(this.security.getGrid(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Only the outermost operation is timed, it includes the work of all subnetworks it passes through.
+     */
+    private boolean isProfiled(final Actionable type) {
+        return GridProfiler.isEnabled() && this.security != null && this.getDepth(type).isEmpty();
+    }
+
+    private T routeInjection(T input, final Actionable type, final BaseActionSource src) {
         if (this.diveList(this, type)) {
             return input;
         }
@@ -112,7 +158,9 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
             return input;
         }
 
-        final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+        // storages skipped by the routing index would not accept the input in either pass, so leaving them out does
+        // not change which storages receive it
+        final List<IMEInventoryHandler<T>> priorityInventory = this.getInjectionCandidates(input);
         final int size = priorityInventory.size();
 
         int i = 0;
@@ -211,8 +259,72 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
         return input;
     }
 
+    private List<IMEInventoryHandler<T>> getInjectionCandidates(final T input) {
+        if (this.partitionedStorages == null) {
+            this.buildRoutingIndex();
+        }
+
+        if (this.partitionedStorages.isEmpty()) {
+            return this.priorityInventory;
+        }
+
+        final int[] partitioned = this.partitionedStorages.get(input);
+        if (partitioned == null) {
+            return this.unpartitionedStorageList;
+        }
+
+        // merge both sets of indices to keep the injection order
+        final int[] unpartitioned = this.unpartitionedStorages;
+        final List<IMEInventoryHandler<T>> candidates = new ArrayList<>(unpartitioned.length + partitioned.length);
+        int a = 0;
+        int b = 0;
+        while (a < unpartitioned.length || b < partitioned.length) {
+            if (b >= partitioned.length || (a < unpartitioned.length && unpartitioned[a] < partitioned[b])) {
+                candidates.add(this.priorityInventory.get(unpartitioned[a++]));
+            } else {
+                candidates.add(this.priorityInventory.get(partitioned[b++]));
+            }
+        }
+
+        return candidates;
+    }
+
+    private void buildRoutingIndex() {
+        final Map<T, IntArrayList> partitioned = new HashMap<>();
+        final IntArrayList unpartitioned = new IntArrayList();
+        final List<IMEInventoryHandler<T>> unpartitionedList = new ArrayList<>();
+
+        final int size = this.priorityInventory.size();
+        for (int i = 0; i < size; i++) {
+            final IMEInventoryHandler<T> inv = this.priorityInventory.get(i);
+
+            if (inv instanceof MEInventoryHandler<T>handler && handler.getWhitelist() == IncludeExclude.WHITELIST
+                    && handler.getPartitionList() instanceof PrecisePriorityList
+                    && !handler.getPartitionList().isEmpty()) {
+                for (final T listed : handler.getPartitionList().getItems()) {
+                    final IntArrayList indices = partitioned.computeIfAbsent(listed, k -> new IntArrayList());
+                    if (indices.isEmpty() || indices.getInt(indices.size() - 1) != i) {
+                        indices.add(i);
+                    }
+                }
+            } else {
+                unpartitioned.add(i);
+                unpartitionedList.add(inv);
+            }
+        }
+
+        final Map<T, int[]> index = new HashMap<>(partitioned.size());
+        for (final Map.Entry<T, IntArrayList> e : partitioned.entrySet()) {
+            index.put(e.getKey(), e.getValue().toIntArray());
+        }
+
+        this.unpartitionedStorages = unpartitioned.toIntArray();
+        this.unpartitionedStorageList = unpartitionedList;
+        this.partitionedStorages = index;
+    }
+
     private boolean diveList(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
-        final LinkedList cDepth = this.getDepth(type);
+        final ReentrancyStack cDepth = this.getDepth(type);
         if (cDepth.contains(networkInventoryHandler)) {
             return true;
         }
@@ -255,20 +367,25 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
         }
     }
 
-    private LinkedList getDepth(final Actionable type) {
-        final ThreadLocal<LinkedList> depth = type == Actionable.MODULATE ? DEPTH_MOD : DEPTH_SIM;
-
-        LinkedList s = depth.get();
+    private ReentrancyStack getDepth(final Actionable type) {
+        return (type == Actionable.MODULATE ? DEPTH_MOD : DEPTH_SIM).get();
+    }
 
-        if (s == null) {
-            depth.set(s = new LinkedList());
+    @Override
+    public T extractItems(T request, final Actionable mode, final BaseActionSource src) {
+        if (!this.isProfiled(mode)) {
+            return this.routeExtraction(request, mode, src);
         }
 
-        return s;
+        final long start = System.nanoTime();
+        try {
+            return this.routeExtraction(request, mode, src);
+        } finally {
+            GridProfiler.recordStorage(this.security.getGrid(), System.nanoTime() - start);
+        }
     }
 
-    @Override
-    public T extractItems(T request, final Actionable mode, final BaseActionSource src) {
+    private T routeExtraction(T request, final Actionable mode, final BaseActionSource src) {
         if (this.diveList(this, mode)) {
             return null;
         }
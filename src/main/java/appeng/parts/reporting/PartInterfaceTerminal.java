@@ -15,8 +15,6 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.util.Vec3;
 
 import appeng.api.AEApi;
-import appeng.api.networking.events.MENetworkBootingStatusChange;
-import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.api.parts.IInterfaceTerminal;
 import appeng.client.texture.CableBusTextures;
 import appeng.core.sync.GuiBridge;
@@ -28,7 +26,6 @@ public class PartInterfaceTerminal extends AbstractPartDisplay implements IInter
     private static final CableBusTextures FRONT_BRIGHT_ICON = CableBusTextures.PartInterfaceTerm_Bright;
     private static final CableBusTextures FRONT_DARK_ICON = CableBusTextures.PartInterfaceTerm_Dark;
     private static final CableBusTextures FRONT_COLORED_ICON = CableBusTextures.PartInterfaceTerm_Colored;
-    private boolean needsUpdate;
 
     public PartInterfaceTerminal(final ItemStack is) {
         super(is);
@@ -66,23 +63,6 @@ public class PartInterfaceTerminal extends AbstractPartDisplay implements IInter
         return FRONT_DARK_ICON;
     }
 
-    /**
-     * Indicates that the network has changed. Calling this will reset the flag.
-     */
-    public boolean needsUpdate() {
-        boolean ret = needsUpdate;
-
-        needsUpdate = false;
-        return ret;
-    }
-
-    @MENetworkEventSubscribe
-    public void onNetworkBootingChanged(MENetworkBootingStatusChange event) {
-        if (!event.isBooting) {
-            this.needsUpdate = true;
-        }
-    }
-
     @Override
     public ItemStack getPrimaryGuiIcon() {
         return AEApi.instance().definitions().parts().interfaceTerminal().maybeStack(1).orNull();
@@ -1,5 +1,15 @@
 package appeng.server.subcommands;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
 import net.minecraft.command.ICommandSender;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.tileentity.TileEntity;
@@ -9,7 +19,10 @@ import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.util.ForgeDirection;
 
 import appeng.api.networking.IGridHost;
+import appeng.core.AELog;
 import appeng.me.Grid;
+import appeng.me.profiler.GridProfiler;
+import appeng.me.profiler.TimingHistogram;
 import appeng.server.ISubCommand;
 
 public class Profile implements ISubCommand {
@@ -21,7 +34,13 @@ public class Profile implements ISubCommand {
 
     @Override
     public void call(MinecraftServer srv, String[] args, ICommandSender sender) {
-        if (args.length < 4) sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
+        if (args.length >= 2 && this.callAllGrids(srv, args, sender)) {
+            return;
+        }
+        if (args.length < 4) {
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
+            return;
+        }
         try {
             int x = Integer.decode(args[1]);
             int y = Integer.decode(args[2]);
@@ -59,4 +78,79 @@ public class Profile implements ISubCommand {
             return;
         }
     }
+
+    /**
+     * Handles the subcommands of the profiler covering all grids.
+     *
+     * @return false if the arguments are coordinates of a grid to profile instead
+     */
+    private boolean callAllGrids(MinecraftServer srv, String[] args, ICommandSender sender) {
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "start" -> {
+                GridProfiler.start();
+                sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerAllStart"));
+            }
+            case "stop" -> {
+                GridProfiler.stop();
+                sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerAllStop"));
+            }
+            case "top" -> {
+                int count = 10;
+                if (args.length > 2) {
+                    try {
+                        count = Integer.decode(args[2]);
+                    } catch (NumberFormatException ex) {
+                        sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
+                        return true;
+                    }
+                }
+                this.printTop(sender, count);
+            }
+            case "csv" -> this.writeCsv(srv, sender);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void printTop(ICommandSender sender, int count) {
+        final List<GridProfiler.Row> rows = GridProfiler.getRows();
+        if (rows.isEmpty()) {
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerNoData"));
+            return;
+        }
+
+        final int shown = Math.min(count, rows.size());
+        sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerTop", shown, rows.size()));
+        for (final GridProfiler.Row row : rows.subList(0, shown)) {
+            final TimingHistogram.Snapshot t = row.getTimings();
+            sender.addChatMessage(
+                    new ChatComponentTranslation(
+                            "commands.ae2.ProfilerRow",
+                            row.getCategory(),
+                            row.getSection(),
+                            String.format("%.2f", t.getTotalNanos() / 1_000_000.0),
+                            t.getCount(),
+                            micros(t.getPercentileNanos(0.5)),
+                            micros(t.getPercentileNanos(0.99)),
+                            micros(t.getMaxNanos())));
+        }
+    }
+
+    private void writeCsv(MinecraftServer srv, ICommandSender sender) {
+        final String date = new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date());
+        final File file = srv.getFile("ae2-profile-" + date + ".csv");
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            GridProfiler.writeCsv(out);
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerCsv", file.getAbsolutePath()));
+        } catch (IOException e) {
+            AELog.debug(e);
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerCsvFailed"));
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
 }
@@ -244,4 +244,12 @@ public abstract class InventoryAdaptor implements Iterable<ItemSlot> {
     }
 
     public abstract boolean containsItems();
+
+    /**
+     * @return a counter that changes whenever the contents of the inventory change, or -1 if the inventory can't tell
+     *         and has to be polled
+     */
+    public long getChangeCount() {
+        return -1;
+    }
 }
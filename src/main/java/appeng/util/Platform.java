@@ -1948,6 +1948,29 @@ public class Platform {
         }
     }
 
+    /**
+     * Writes the value in 7 bit groups, small values like most stack sizes take a single byte.
+     */
+    public static void writeVarLong(final ByteBuf buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.writeByte((int) value);
+    }
+
+    public static long readVarLong(final ByteBuf buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
     public static NBTTagCompound writeStackNBT(IAEStack<?> stack, NBTTagCompound tag) {
         return writeStackNBT(stack, tag, false);
     }
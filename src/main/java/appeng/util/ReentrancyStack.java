@@ -0,0 +1,53 @@
+package appeng.util;
+
+import java.util.Arrays;
+
+/**
+ * Identity based stack used to detect recursive access to networked storage. Unlike a {@link java.util.LinkedList} it
+ * does not allocate on push, and {@link #contains(Object)} compares by reference, which is all the recursion guards
+ * need.
+ */
+public final class ReentrancyStack {
+
+    private Object[] entries = new Object[8];
+    private int size = 0;
+
+    public void push(final Object entry) {
+        if (this.size == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, this.size * 2);
+        }
+        this.entries[this.size++] = entry;
+    }
+
+    /**
+     * @return the removed top of the stack
+     * @throws IllegalStateException if the stack is empty
+     */
+    public Object pop() {
+        if (this.size == 0) {
+            throw new IllegalStateException("Invalid Access to Networked Storage API detected.");
+        }
+
+        final Object top = this.entries[--this.size];
+        this.entries[this.size] = null;
+        return top;
+    }
+
+    public boolean contains(final Object entry) {
+        // recursion is usually detected close to the top
+        for (int i = this.size - 1; i >= 0; i--) {
+            if (this.entries[i] == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
@@ -17,6 +17,7 @@ import net.minecraft.item.ItemStack;
 
 import appeng.api.config.FuzzyMode;
 import appeng.api.config.InsertionMode;
+import appeng.api.storage.IInventoryChangeTracker;
 import appeng.util.InventoryAdaptor;
 import appeng.util.Platform;
 
@@ -311,6 +312,12 @@ public class AdaptorIInventory extends InventoryAdaptor {
         return true;
     }
 
+    @Override
+    public long getChangeCount() {
+        final IInventory inv = this.i instanceof WrapperInventoryRange wrapper ? wrapper.getSource() : this.i;
+        return inv instanceof IInventoryChangeTracker tracker ? tracker.getChangeCount() : -1;
+    }
+
     @Override
     public Iterator<ItemSlot> iterator() {
         return new InvIterator();
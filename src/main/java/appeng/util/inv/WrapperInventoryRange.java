@@ -135,6 +135,10 @@ public class WrapperInventoryRange implements IInventory {
         return this.slots;
     }
 
+    IInventory getSource() {
+        return this.src;
+    }
+
     private void setSlots(final int[] slots) {
         this.slots = slots;
     }
@@ -66,6 +66,9 @@ public class AEItemDef {
         if (obj == null) {
             return false;
         }
+        if (this == obj) {
+            return true;
+        }
         if (this.getClass() != obj.getClass()) {
             return false;
         }
@@ -76,7 +79,7 @@ public class AEItemDef {
 
     boolean isItem(final ItemStack otherStack) {
         // hackery!
-        final int dmg = this.getDamageValueHack(otherStack);
+        final int dmg = getDamageValueHack(otherStack);
 
         if (this.getItem() == otherStack.getItem() && dmg == this.getDamageValue()) {
             if ((this.getTagCompound() != null) != otherStack.hasTagCompound()) {
@@ -92,13 +95,26 @@ public class AEItemDef {
         return false;
     }
 
-    int getDamageValueHack(final ItemStack is) {
+    boolean matches(final Item item, final int damage, final int displayDamage, final int maxDamage,
+            final AESharedNBT tag) {
+        return this.item == item && this.damageValue == damage
+                && this.displayDamage == displayDamage
+                && this.maxDamage == maxDamage
+                && this.tagCompound == tag;
+    }
+
+    static int getDamageValueHack(final ItemStack is) {
         return Items.blaze_rod.getDamage(is);
     }
 
+    static int hash(final int itemID, final int damageValue, final AESharedNBT tagCompound) {
+        return (itemID << Platform.DEF_OFFSET | damageValue)
+                ^ (tagCompound == null ? 0 : System.identityHashCode(tagCompound));
+    }
+
     void reHash() {
         this.def = this.getItemID() << Platform.DEF_OFFSET | this.getDamageValue();
-        this.myHash = this.def ^ (this.getTagCompound() == null ? 0 : System.identityHashCode(this.getTagCompound()));
+        this.myHash = hash(this.getItemID(), this.getDamageValue(), this.getTagCompound());
     }
 
     AESharedNBT getTagCompound() {
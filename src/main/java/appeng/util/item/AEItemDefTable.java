@@ -0,0 +1,185 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.item;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * Canonical {@link AEItemDef}s, one per item, damage and shared tag compound, so converting the same kind of
+ * {@link ItemStack} again neither allocates a definition nor resolves its hash and ore entries again, and equal
+ * definitions are usually the same object.
+ * <p>
+ * Definitions are only weakly referenced and go away with the last stack using them. Lookups don't lock, only adding a
+ * new definition locks one of the segments of the table. Canonical definitions are shared by every stack of their
+ * kind and must not be changed, fuzzy bounds work on a {@link AEItemDef#copy()}.
+ */
+final class AEItemDefTable {
+
+    static final AEItemDefTable INSTANCE = new AEItemDefTable();
+
+    private static final int SEGMENT_BITS = 4;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    private AEItemDefTable() {
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new Segment();
+        }
+    }
+
+    AEItemDef getDefinition(final ItemStack is) {
+        final Item item = is.getItem();
+        final int damage = AEItemDef.getDamageValueHack(is);
+        final int displayDamage = is.getItemDamageForDisplay();
+        final int maxDamage = is.getMaxDamage();
+
+        final NBTTagCompound tagCompound = is.getTagCompound();
+        final AESharedNBT tag = tagCompound == null ? null
+                : (AESharedNBT) AESharedNBT.getSharedTagCompound(tagCompound, is);
+
+        final int hash = HashCommon.mix(AEItemDef.hash(Item.getIdFromItem(item), damage, tag));
+        final Segment segment = this.segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+
+        final AEItemDef found = segment.find(segment.table, hash, item, damage, displayDamage, maxDamage, tag);
+        if (found != null) {
+            return found;
+        }
+        return segment.add(is, hash, item, damage, displayDamage, maxDamage, tag);
+    }
+
+    /*
+     * Debug purposes.
+     */
+    int size() {
+        int size = 0;
+        for (final Segment segment : this.segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    private static final class Entry extends WeakReference<AEItemDef> {
+
+        private final int hash;
+        private final Entry next;
+
+        private Entry(final AEItemDef def, final int hash, final Entry next, final ReferenceQueue<AEItemDef> queue) {
+            super(def, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Buckets are only replaced as a whole, entries never change after being published, so readers always see a
+     * complete chain.
+     */
+    private static final class Segment extends ReferenceQueue<AEItemDef> {
+
+        private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(16);
+        private volatile int count;
+
+        private AEItemDef find(final AtomicReferenceArray<Entry> buckets, final int hash, final Item item,
+                final int damage, final int displayDamage, final int maxDamage, final AESharedNBT tag) {
+            for (Entry e = buckets.get(hash & (buckets.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash) {
+                    final AEItemDef def = e.get();
+                    if (def != null && def.matches(item, damage, displayDamage, maxDamage, tag)) {
+                        return def;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private synchronized AEItemDef add(final ItemStack is, final int hash, final Item item, final int damage,
+                final int displayDamage, final int maxDamage, final AESharedNBT tag) {
+            this.expunge();
+
+            // another thread may have added it since the lookup
+            final AEItemDef found = this.find(this.table, hash, item, damage, displayDamage, maxDamage, tag);
+            if (found != null) {
+                return found;
+            }
+
+            final AEItemDef def = new AEItemDef(item);
+            def.setDamageValue(damage);
+            def.setDisplayDamage(displayDamage);
+            def.setMaxDamage(maxDamage);
+            def.setTagCompound(tag);
+            def.reHash();
+            def.setIsOre(OreHelper.INSTANCE.isOre(is));
+
+            if (this.count >= this.table.length() * 3 / 4) {
+                this.resize();
+            }
+            final AtomicReferenceArray<Entry> buckets = this.table;
+            final int index = hash & (buckets.length() - 1);
+            buckets.set(index, new Entry(def, hash, buckets.get(index), this));
+            this.count++;
+            return def;
+        }
+
+        /**
+         * Drops the entries of definitions which are no longer used.
+         */
+        private void expunge() {
+            boolean collected = false;
+            while (this.poll() != null) {
+                collected = true;
+            }
+            if (!collected) {
+                return;
+            }
+
+            final AtomicReferenceArray<Entry> buckets = this.table;
+            int live = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                Entry chain = null;
+                for (Entry e = buckets.get(i); e != null; e = e.next) {
+                    final AEItemDef def = e.get();
+                    if (def != null) {
+                        chain = new Entry(def, e.hash, chain, this);
+                        live++;
+                    }
+                }
+                buckets.set(i, chain);
+            }
+            this.count = live;
+        }
+
+        private void resize() {
+            final AtomicReferenceArray<Entry> old = this.table;
+            final AtomicReferenceArray<Entry> buckets = new AtomicReferenceArray<>(old.length() * 2);
+            int live = 0;
+            for (int i = 0; i < old.length(); i++) {
+                for (Entry e = old.get(i); e != null; e = e.next) {
+                    final AEItemDef def = e.get();
+                    if (def != null) {
+                        final int index = e.hash & (buckets.length() - 1);
+                        buckets.set(index, new Entry(def, e.hash, buckets.get(index), this));
+                        live++;
+                    }
+                }
+            }
+            this.count = live;
+            this.table = buckets;
+        }
+    }
+}
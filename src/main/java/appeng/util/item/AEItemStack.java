@@ -79,41 +79,13 @@ public final class AEItemStack extends AEStack<IAEItemStack> implements IAEItemS
             throw new InvalidParameterException("Contained item is null, thus not a valid ItemStack for AEItemStack.");
         }
 
-        this.setDefinition(new AEItemDef(item));
-
-        if (this.getDefinition().getItem() == null) {
-            throw new InvalidParameterException("This ItemStack is bad, it has a null item.");
-        }
-
-        /*
-         * Prevent an Item from changing the damage value on me... Either, this or a core mod.
-         */
-
-        /*
-         * Super hackery. is.itemID = appeng.api.Materials.matQuartz.itemID; damageValue = is.getItemDamage(); is.itemID
-         * = itemID;
-         */
-
-        /*
-         * Kinda hackery
-         */
-        this.getDefinition().setDamageValue(this.getDefinition().getDamageValueHack(is));
-        this.getDefinition().setDisplayDamage(is.getItemDamageForDisplay());
-        this.getDefinition().setMaxDamage(is.getMaxDamage());
-
-        final NBTTagCompound tagCompound = is.getTagCompound();
-        if (tagCompound != null) {
-            this.getDefinition().setTagCompound((AESharedNBT) AESharedNBT.getSharedTagCompound(tagCompound, is));
-        }
+        this.setDefinition(AEItemDefTable.INSTANCE.getDefinition(is));
 
         this.setStackSize(is.stackSize);
         this.setCraftable(false);
         this.setCountRequestable(0);
         this.setCountRequestableCrafts(0);
         this.setUsedPercent(0);
-
-        this.getDefinition().reHash();
-        this.getDefinition().setIsOre(OreHelper.INSTANCE.isOre(is));
     }
 
     public static IAEItemStack loadItemStackFromNBT(final NBTTagCompound i) {
@@ -687,8 +659,10 @@ public final class AEItemStack extends AEStack<IAEItemStack> implements IAEItemS
     @Override
     public void setTagCompound(NBTTagCompound tagCompound) {
         if (tagCompound != null) {
-            this.getDefinition()
-                    .setTagCompound((AESharedNBT) AESharedNBT.getSharedTagCompound(tagCompound, getItemStack()));
+            // definitions are shared, switch to the one of the new tag instead of changing it
+            final ItemStack is = this.getItemStack();
+            is.setTagCompound(tagCompound);
+            this.setDefinition(AEItemDefTable.INSTANCE.getDefinition(is));
         }
     }
 
@@ -10,13 +10,14 @@
 
 package appeng.util.item;
 
-import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 
+import com.google.common.collect.MapMaker;
+
 import appeng.api.AEApi;
 import appeng.api.features.IItemComparison;
 import appeng.api.storage.data.IAETagCompound;
@@ -28,12 +29,13 @@ import appeng.util.Platform;
 public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
 
     /*
-     * Shared Tag Compound Cache.
+     * Shared Tag Compound Cache, entries go away with their shared compound. Lookups don't lock, the crafting
+     * calculation threads convert stacks as well.
      */
-    private static final WeakHashMap<SharedSearchObject, WeakReference<SharedSearchObject>> SHARED_TAG_COMPOUND = new WeakHashMap<>();
+    private static final ConcurrentMap<SharedSearchObject, AESharedNBT> SHARED_TAG_COMPOUND = new MapMaker()
+            .weakValues().makeMap();
     private final Item item;
     private final int meta;
-    private SharedSearchObject sso;
     private int hash;
     private IItemComparison comp;
 
@@ -58,7 +60,7 @@ public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
     /*
      * Returns an NBT Compound that is used for accelerating comparisons.
      */
-    static synchronized NBTTagCompound getSharedTagCompound(final NBTTagCompound tagCompound, final ItemStack s) {
+    static NBTTagCompound getSharedTagCompound(final NBTTagCompound tagCompound, final ItemStack s) {
         if (tagCompound.hasNoTags()) {
             return null;
         }
@@ -75,13 +77,9 @@ public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
 
         final SharedSearchObject sso = new SharedSearchObject(item, meta, tagCompound);
 
-        final WeakReference<SharedSearchObject> c = SHARED_TAG_COMPOUND.get(sso);
+        final AESharedNBT c = SHARED_TAG_COMPOUND.get(sso);
         if (c != null) {
-            final SharedSearchObject cg = c.get();
-            if (cg != null) {
-                return cg.getShared(); // I don't think I really need to check this
-            }
-            // as its already certain to exist..
+            return c;
         }
 
         final AESharedNBT clone = AESharedNBT.createFromCompound(item, meta, tagCompound);
@@ -90,11 +88,10 @@ public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
         // of data based
         // on original
         // item.
-        sso.setShared(clone);
-        clone.sso = sso;
 
-        SHARED_TAG_COMPOUND.put(sso, new WeakReference<>(sso));
-        return clone;
+        // another thread may have shared an equal compound in the meantime
+        final AESharedNBT existing = SHARED_TAG_COMPOUND.putIfAbsent(sso, clone);
+        return existing != null ? existing : clone;
     }
 
     /*
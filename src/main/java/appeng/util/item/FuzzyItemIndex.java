@@ -0,0 +1,138 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.Item;
+
+import appeng.api.storage.data.IAEItemStack;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+/**
+ * Records of an {@link ItemList} grouped by item, each group sorted by damage and tag compound, to look up the
+ * records between the fuzzy bounds of a stack. Only lists which are searched fuzzily have one, it is kept up to date
+ * while new records are added and dropped once the list stopped being searched.
+ */
+final class FuzzyItemIndex {
+
+    private static final int MIN_IDLE_ADDS = 256;
+
+    private final Map<Item, ObjectArrayList<AEItemStack>> buckets = new Reference2ObjectOpenHashMap<>();
+    private int addsSinceQuery = 0;
+
+    FuzzyItemIndex(final Iterable<IAEItemStack> records) {
+        for (final IAEItemStack record : records) {
+            final AEItemStack ais = (AEItemStack) record;
+            this.buckets.computeIfAbsent(ais.getDefinition().getItem(), item -> new ObjectArrayList<>()).add(ais);
+        }
+        for (final ObjectArrayList<AEItemStack> bucket : this.buckets.values()) {
+            Collections.sort(bucket);
+        }
+    }
+
+    void add(final IAEItemStack record) {
+        final AEItemStack ais = (AEItemStack) record;
+        final ObjectArrayList<AEItemStack> bucket = this.buckets
+                .computeIfAbsent(ais.getDefinition().getItem(), item -> new ObjectArrayList<>());
+        bucket.add(upperBound(bucket, ais), ais);
+        this.addsSinceQuery++;
+    }
+
+    void remove(final IAEItemStack record) {
+        final AEItemStack ais = (AEItemStack) record;
+        final ObjectArrayList<AEItemStack> bucket = this.buckets.get(ais.getDefinition().getItem());
+        if (bucket == null) {
+            return;
+        }
+
+        for (int i = lowerBound(bucket, ais); i < bucket.size() && bucket.get(i).compareTo(ais) == 0; i++) {
+            if (bucket.get(i).equals(ais)) {
+                bucket.remove(i);
+                if (bucket.isEmpty()) {
+                    this.buckets.remove(ais.getDefinition().getItem());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rebuilding the index costs about as much as the adds since it was last used, once they outnumber the records.
+     */
+    boolean isIdle(final int size) {
+        return this.addsSinceQuery > Math.max(MIN_IDLE_ADDS, size);
+    }
+
+    /**
+     * @return the records between low and high, both inclusive, in descending order
+     */
+    Collection<IAEItemStack> find(final AEItemStack low, final AEItemStack high) {
+        this.addsSinceQuery = 0;
+
+        final ObjectArrayList<AEItemStack> bucket = this.buckets.get(low.getDefinition().getItem());
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+
+        final int from = lowerBound(bucket, low);
+        final int to = upperBound(bucket, high);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+
+        // a copy, the list may change while the result is used
+        final List<IAEItemStack> found = new ArrayList<>(to - from);
+        for (int i = to - 1; i >= from; i--) {
+            found.add(bucket.get(i));
+        }
+        return found;
+    }
+
+    /**
+     * @return index of the first record not before the stack
+     */
+    private static int lowerBound(final ObjectArrayList<AEItemStack> bucket, final AEItemStack stack) {
+        int low = 0;
+        int high = bucket.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (bucket.get(mid).compareTo(stack) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first record after the stack
+     */
+    private static int upperBound(final ObjectArrayList<AEItemStack> bucket, final AEItemStack stack) {
+        int low = 0;
+        int high = bucket.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (bucket.get(mid).compareTo(stack) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
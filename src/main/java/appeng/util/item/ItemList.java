@@ -42,6 +42,9 @@ public final class ItemList implements IItemList<IAEItemStack> {
     @Nullable
     private NavigableSet<IAEItemStack> records = null;
     private final ObjectOpenHashSet<IAEItemStack> setRecords = new ObjectOpenHashSet<>();
+    // fuzzy lookups of unsorted lists
+    @Nullable
+    private FuzzyItemIndex fuzzyIndex = null;
 
     @Override
     public void add(final IAEItemStack option) {
@@ -215,6 +218,9 @@ public final class ItemList implements IItemList<IAEItemStack> {
                 @Override
                 public void remove() {
                     ItemList.this.setRecords.remove(array[index - 1]);
+                    if (ItemList.this.fuzzyIndex != null) {
+                        ItemList.this.fuzzyIndex.remove(array[index - 1]);
+                    }
                     if (ItemList.this.records != null) {
                         // records should be null here, remove just in case it's initialized during the iteration
                         ItemList.this.records.remove(array[index - 1]);
@@ -260,26 +266,40 @@ public final class ItemList implements IItemList<IAEItemStack> {
     public void clear() {
         this.setRecords.clear();
         if (this.records != null) this.records.clear();
+        this.fuzzyIndex = null;
     }
 
     private void putItemRecord(final IAEItemStack itemStack) {
         this.setRecords.add(itemStack);
         if (this.records != null) this.records.add(itemStack);
+        if (this.fuzzyIndex != null) {
+            if (this.fuzzyIndex.isIdle(this.setRecords.size())) {
+                this.fuzzyIndex = null;
+            } else {
+                this.fuzzyIndex.add(itemStack);
+            }
+        }
     }
 
     private Collection<IAEItemStack> findFuzzyDamage(final AEItemStack filter, final FuzzyMode fuzzy,
             final boolean ignoreMeta) {
         final IAEItemStack low = filter.getLow(fuzzy, ignoreMeta);
         final IAEItemStack high = filter.getHigh(fuzzy, ignoreMeta);
-        if (this.records == null) {
-            initNavigableSet();
+        if (this.records != null) {
+            return this.records.subSet(low, true, high, true).descendingSet();
+        }
+
+        if (this.fuzzyIndex == null) {
+            this.fuzzyIndex = new FuzzyItemIndex(this.setRecords);
         }
-        return this.records.subSet(low, true, high, true).descendingSet();
+        return this.fuzzyIndex.find((AEItemStack) low, (AEItemStack) high);
     }
 
     private void initNavigableSet() {
         records = new ConcurrentSkipListSet();
         records.addAll(setRecords);
+        // the sorted records answer fuzzy lookups from now on
+        this.fuzzyIndex = null;
     }
 
     @Override
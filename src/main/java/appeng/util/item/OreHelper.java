@@ -54,24 +54,27 @@ public class OreHelper {
     public OreReference isOre(final ItemStack itemStack) {
         final ItemRef ir = new ItemRef(itemStack);
 
-        if (!this.references.containsKey(ir)) {
-            final OreReference ref = new OreReference();
-            final Collection<Integer> ores = ref.getOres();
-            final Collection<String> set = ref.getEquivalents();
-
-            for (final int id : OreDictionary.getOreIDs(itemStack)) {
-                ores.add(id);
-                set.add(OreDictionary.getOreName(id));
-            }
+        // item definitions are created from the crafting calculation threads as well
+        synchronized (this.references) {
+            if (!this.references.containsKey(ir)) {
+                final OreReference ref = new OreReference();
+                final Collection<Integer> ores = ref.getOres();
+                final Collection<String> set = ref.getEquivalents();
+
+                for (final int id : OreDictionary.getOreIDs(itemStack)) {
+                    ores.add(id);
+                    set.add(OreDictionary.getOreName(id));
+                }
 
-            if (!set.isEmpty()) {
-                this.references.put(ir, ref);
-            } else {
-                this.references.put(ir, null);
+                if (!set.isEmpty()) {
+                    this.references.put(ir, ref);
+                } else {
+                    this.references.put(ir, null);
+                }
             }
-        }
 
-        return this.references.get(ir);
+            return this.references.get(ir);
+        }
     }
 
     boolean sameOre(final AEItemStack aeItemStack, final IAEItemStack is) {
@@ -0,0 +1,113 @@
+package appeng.me;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link GridConnectivity}
+ */
+public class GridConnectivityTest {
+
+    private static final GridConnectivity.Graph<Node, Edge> GRAPH = new GridConnectivity.Graph<>() {
+
+        @Override
+        public Iterable<Edge> getEdges(final Node node) {
+            return node.edges;
+        }
+
+        @Override
+        public Node getOtherSide(final Edge edge, final Node node) {
+            return edge.a == node ? edge.b : edge.a;
+        }
+
+        @Override
+        public boolean isTreeEdge(final Edge edge) {
+            return edge.tree;
+        }
+
+        @Override
+        public void setTreeEdge(final Edge edge, final boolean treeEdge) {
+            edge.tree = treeEdge;
+        }
+    };
+
+    @Test
+    public void bridgeSplitsSmallerHalfTest() {
+        final Node[] line = nodes(5);
+        connect(line[0], line[1], true);
+        connect(line[1], line[2], true);
+        connect(line[2], line[3], true);
+        final Edge bridge = connect(line[3], line[4], true);
+
+        disconnect(bridge);
+        final Set<Node> split = GridConnectivity.findSplit(GRAPH, line[3], line[4]);
+        assertEquals(1, split.size());
+        assertTrue(split.contains(line[4]));
+        assertEquals(4, GridConnectivity.collect(GRAPH, line[0]).size());
+    }
+
+    @Test
+    public void cycleFindsReplacementTest() {
+        final Node[] ring = nodes(4);
+        final Edge first = connect(ring[0], ring[1], true);
+        connect(ring[1], ring[2], true);
+        connect(ring[2], ring[3], true);
+        final Edge closing = connect(ring[3], ring[0], false);
+
+        disconnect(first);
+        assertNull(GridConnectivity.findSplit(GRAPH, ring[0], ring[1]));
+        assertTrue(closing.tree);
+        assertEquals(4, GridConnectivity.collect(GRAPH, ring[1]).size());
+
+        // the replacement keeps the tree spanning, so the next break is a real split again
+        final Edge bridge = ring[2].edges.get(0);
+        disconnect(bridge);
+        assertFalse(GridConnectivity.findSplit(GRAPH, bridge.a, bridge.b).isEmpty());
+    }
+
+    private static Node[] nodes(final int count) {
+        final Node[] nodes = new Node[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new Node();
+        }
+        return nodes;
+    }
+
+    private static Edge connect(final Node a, final Node b, final boolean tree) {
+        final Edge edge = new Edge(a, b);
+        edge.tree = tree;
+        a.edges.add(edge);
+        b.edges.add(edge);
+        return edge;
+    }
+
+    private static void disconnect(final Edge edge) {
+        edge.a.edges.remove(edge);
+        edge.b.edges.remove(edge);
+    }
+
+    private static final class Node {
+
+        private final List<Edge> edges = new ArrayList<>();
+    }
+
+    private static final class Edge {
+
+        private final Node a;
+        private final Node b;
+        private boolean tree;
+
+        private Edge(final Node a, final Node b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+}
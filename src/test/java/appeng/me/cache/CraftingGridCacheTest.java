@@ -0,0 +1,70 @@
+package appeng.me.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.crafting.ICraftingProvider;
+import appeng.api.networking.events.MENetworkCraftingPatternChange;
+
+/**
+ * Test for {@link CraftingGridCache}
+ */
+public class CraftingGridCacheTest {
+
+    @Test
+    public void interfaceEditPollsOnlyItsHostTest() {
+        final CraftingGridCache cache = new CraftingGridCache(stub(IGrid.class, null));
+        final AtomicInteger interfacePolls = new AtomicInteger();
+        final AtomicInteger otherPolls = new AtomicInteger();
+        final IGridHost interfaceHost = provider(interfacePolls);
+        final IGridHost otherHost = provider(otherPolls);
+        final IGridNode interfaceNode = stub(IGridNode.class, interfaceHost);
+        cache.addNode(interfaceNode, interfaceHost);
+        cache.addNode(stub(IGridNode.class, otherHost), otherHost);
+        assertEquals(1, interfacePolls.get());
+        assertEquals(1, otherPolls.get());
+
+        // like DualityInterface, which posts itself rather than the tile or part it is registered as
+        final ICraftingProvider duality = (ICraftingProvider) provider(new AtomicInteger());
+        cache.updateCPUClusters(new MENetworkCraftingPatternChange(duality, interfaceNode));
+
+        // a full rebuild would poll every provider
+        assertEquals(2, interfacePolls.get());
+        assertEquals(1, otherPolls.get());
+    }
+
+    private static IGridHost provider(final AtomicInteger polls) {
+        return (IGridHost) Proxy.newProxyInstance(
+                CraftingGridCacheTest.class.getClassLoader(),
+                new Class<?>[] { IGridHost.class, ICraftingProvider.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "provideCrafting" -> polls.incrementAndGet();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> method.getReturnType() == boolean.class ? false : null;
+                });
+    }
+
+    /**
+     * @return a stub answering getMachine with the given machine, and nothing else
+     */
+    private static <T> T stub(final Class<T> type, final IGridHost machine) {
+        return type.cast(
+                Proxy.newProxyInstance(
+                        CraftingGridCacheTest.class.getClassLoader(),
+                        new Class<?>[] { type },
+                        (proxy, method, args) -> switch (method.getName()) {
+                            case "getMachine" -> machine;
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            case "equals" -> proxy == args[0];
+                            default -> method.getReturnType() == boolean.class ? false : null;
+                        }));
+    }
+}
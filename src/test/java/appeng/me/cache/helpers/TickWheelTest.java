@@ -0,0 +1,76 @@
+package appeng.me.cache.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import appeng.api.networking.ticking.TickingRequest;
+
+/**
+ * Test for {@link TickWheel}
+ */
+public class TickWheelTest {
+
+    private static TickTracker tracker() {
+        return new TickTracker(new TickingRequest(1, 20, false, true), null, null, 0, null);
+    }
+
+    @Test
+    public void pollsOnlyDueDevicesTest() {
+        final TickWheel wheel = new TickWheel();
+        final TickTracker early = tracker();
+        final TickTracker late = tracker();
+        wheel.schedule(early, 5);
+        wheel.schedule(late, 6);
+
+        assertNull(wheel.pollDue(4));
+        assertSame(early, wheel.pollDue(5));
+        assertNull(wheel.pollDue(5));
+        assertSame(late, wheel.pollDue(6));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void skipsDevicesOfLaterTurnsTest() {
+        final TickWheel wheel = new TickWheel();
+        final TickTracker tt = tracker();
+        wheel.schedule(tt, 5 + 512);
+
+        assertNull(wheel.pollDue(5));
+        assertSame(tt, wheel.pollDue(5 + 512));
+    }
+
+    @Test
+    public void rescheduleReplacesTest() {
+        final TickWheel wheel = new TickWheel();
+        final TickTracker tt = tracker();
+        wheel.schedule(tt, 5);
+        wheel.schedule(tt, 8);
+
+        assertEquals(1, wheel.size());
+        assertNull(wheel.pollDue(5));
+        assertSame(tt, wheel.pollDue(8));
+    }
+
+    @Test
+    public void removeFromMiddleOfBucketTest() {
+        final TickWheel wheel = new TickWheel();
+        final TickTracker a = tracker();
+        final TickTracker b = tracker();
+        final TickTracker c = tracker();
+        wheel.schedule(a, 3);
+        wheel.schedule(b, 3);
+        wheel.schedule(c, 3);
+
+        wheel.remove(b);
+        wheel.remove(b);
+
+        assertEquals(2, wheel.size());
+        assertSame(c, wheel.pollDue(3));
+        assertSame(a, wheel.pollDue(3));
+        assertNull(wheel.pollDue(3));
+    }
+}
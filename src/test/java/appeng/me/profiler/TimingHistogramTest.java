@@ -0,0 +1,49 @@
+package appeng.me.profiler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link TimingHistogram}
+ */
+public class TimingHistogramTest {
+
+    @Test
+    public void percentilesUseBucketBoundsTest() {
+        final TimingHistogram histogram = new TimingHistogram(0);
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000, 0);
+        }
+        histogram.record(1_000_000, 0);
+
+        final TimingHistogram.Snapshot snapshot = histogram.snapshot(0);
+        assertEquals(100, snapshot.getCount());
+        assertEquals(99 * 1000 + 1_000_000, snapshot.getTotalNanos());
+        assertEquals(1024, snapshot.getPercentileNanos(0.5));
+        assertEquals(1024, snapshot.getPercentileNanos(0.99));
+        assertEquals(1_000_000, snapshot.getPercentileNanos(1.0));
+        assertEquals(1_000_000, snapshot.getMaxNanos());
+    }
+
+    @Test
+    public void keepsPreviousWindowTest() {
+        final TimingHistogram histogram = new TimingHistogram(0);
+        histogram.record(100, 0);
+        histogram.record(200, TimingHistogram.WINDOW_NANOS);
+
+        final TimingHistogram.Snapshot snapshot = histogram.snapshot(TimingHistogram.WINDOW_NANOS);
+        assertEquals(2, snapshot.getCount());
+        assertEquals(300, snapshot.getTotalNanos());
+    }
+
+    @Test
+    public void dropsOldWindowsTest() {
+        final TimingHistogram histogram = new TimingHistogram(0);
+        histogram.record(100, 0);
+        histogram.record(200, TimingHistogram.WINDOW_NANOS);
+
+        assertEquals(1, histogram.snapshot(2 * TimingHistogram.WINDOW_NANOS).getCount());
+        assertEquals(0, histogram.snapshot(5 * TimingHistogram.WINDOW_NANOS).getCount());
+    }
+}
@@ -0,0 +1,64 @@
+package appeng.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link ReentrancyStack}
+ */
+public class ReentrancyStackTest {
+
+    @Test
+    public void pushPopOrderTest() {
+        final ReentrancyStack stack = new ReentrancyStack();
+        final Object a = new Object();
+        final Object b = new Object();
+        stack.push(a);
+        stack.push(b);
+        assertSame(b, stack.pop());
+        assertSame(a, stack.pop());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    public void containsUsesIdentityTest() {
+        final ReentrancyStack stack = new ReentrancyStack();
+        stack.push("outer");
+        stack.push(new String("inner"));
+        assertTrue(stack.contains("outer"));
+        assertFalse(stack.contains("inner"));
+    }
+
+    @Test
+    public void growsPastInitialCapacityTest() {
+        final ReentrancyStack stack = new ReentrancyStack();
+        final Object[] entries = new Object[100];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Object();
+            stack.push(entries[i]);
+        }
+        assertEquals(100, stack.size());
+        assertTrue(stack.contains(entries[0]));
+        for (int i = entries.length - 1; i >= 0; i--) {
+            assertSame(entries[i], stack.pop());
+        }
+    }
+
+    @Test
+    public void popReleasesEntryTest() {
+        final ReentrancyStack stack = new ReentrancyStack();
+        final Object a = new Object();
+        stack.push(a);
+        stack.pop();
+        assertFalse(stack.contains(a));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void popEmptyTest() {
+        new ReentrancyStack().pop();
+    }
+}